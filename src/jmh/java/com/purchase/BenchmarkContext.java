@@ -0,0 +1,116 @@
+package com.purchase;
+
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application against a local stub of the Treasury endpoint, so benchmarks
+ * measure the service itself without network calls.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    private static final byte[] TREASURY_RESPONSE = ("{\"data\":[{\"record_date\":\"2023-12-31\",\"country\":\"Brazil\","
+            + "\"currency\":\"Real\",\"exchange_rate\":\"4.852\",\"effective_date\":\"2023-12-31\"}],"
+            + "\"meta\":{\"total-count\":1,\"total-pages\":1}}").getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer treasuryStub;
+    private final ScheduledExecutorService scheduler;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(HttpServer treasuryStub, ScheduledExecutorService scheduler, ConfigurableApplicationContext context) {
+        this.treasuryStub = treasuryStub;
+        this.scheduler = scheduler;
+        this.context = context;
+    }
+
+    /**
+     * Starts the Treasury stub and the application.
+     *
+     * @param properties Additional application properties, as key=value pairs.
+     * @return The started context.
+     */
+    public static BenchmarkContext start(String... properties) throws IOException {
+        return start(Duration.ZERO, properties);
+    }
+
+    /**
+     * Starts a Treasury stub answering after the given latency, and the application.
+     * Delayed responses are sent from a scheduler, so a slow stub holds no threads.
+     *
+     * @param treasuryLatency The latency of every Treasury response.
+     * @param properties      Additional application properties, as key=value pairs.
+     * @return The started context.
+     */
+    public static BenchmarkContext start(Duration treasuryLatency, String... properties) throws IOException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        HttpServer treasuryStub = HttpServer.create(new InetSocketAddress("localhost", 0), 10_000);
+        treasuryStub.setExecutor(scheduler);
+        treasuryStub.createContext("/v1/accounting/od/rates_of_exchange", exchange -> {
+            Runnable respond = () -> {
+                try (OutputStream os = exchange.getResponseBody()) {
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, TREASURY_RESPONSE.length);
+                    os.write(TREASURY_RESPONSE);
+                } catch (IOException e) {
+                    exchange.close();
+                }
+            };
+            if (treasuryLatency.isZero()) {
+                respond.run();
+            } else {
+                scheduler.schedule(respond, treasuryLatency.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        treasuryStub.start();
+
+        // Command line arguments take precedence over application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--treasury.url=http://localhost:" + treasuryStub.getAddress().getPort() + "/",
+                "--treasury.sync.enabled=false",
+                "--server.port=0",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PurchaseApplication.class)
+                .run(args.toArray(new String[0]));
+        return new BenchmarkContext(treasuryStub, scheduler, context);
+    }
+
+    /**
+     * Returns the port the application is listening on.
+     *
+     * @return The local server port.
+     */
+    public int getPort() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /**
+     * Returns the application context.
+     *
+     * @return The running application context.
+     */
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        treasuryStub.stop(0);
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,72 @@
+package com.purchase.adapter.controller.purchase;
+
+import com.purchase.BenchmarkContext;
+import com.purchase.adapter.gateway.repository.purchase.PurchaseRepository;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.valueobject.Money;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Benchmarks the full controller path, from request dispatch to JSON response, with MockMvc
+ * against a stubbed Treasury endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseControllerBenchmark {
+
+    private static final String CREATE_BODY = "{\"description\":\"Benchmark purchase\",\"purchaseDate\":\"2024-01-10\",\"dolarPrice\":1234.56}";
+
+    private BenchmarkContext context;
+    private MockMvc mockMvc;
+    private String purchaseId;
+
+    @Setup
+    public void setup() throws IOException {
+        context = BenchmarkContext.start();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context.getContext()).build();
+
+        Purchase purchase = new Purchase();
+        purchase.setDescription("Benchmark purchase");
+        purchase.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        purchase.setDolarPrice(Money.of(new BigDecimal("1234.56")));
+        purchaseId = context.getContext().getBean(PurchaseRepository.class).save(purchase).getId().toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getPurchaseCountryCurrency() throws Exception {
+        return mockMvc.perform(get("/purchase/country_currency")
+                        .param("purchaseId", purchaseId)
+                        .param("country", "Brazil"))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createPurchase() throws Exception {
+        return mockMvc.perform(post("/purchase/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CREATE_BODY))
+                .andReturn();
+    }
+}
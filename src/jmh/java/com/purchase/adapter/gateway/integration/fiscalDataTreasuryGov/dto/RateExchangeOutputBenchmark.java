@@ -0,0 +1,50 @@
+package com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON deserialization of Treasury responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateExchangeOutputBenchmark {
+
+    @Param({"1", "100"})
+    private int records;
+
+    private ObjectReader reader;
+    private byte[] json;
+
+    @Setup
+    public void setup() {
+        // Same mapper configuration Spring Boot hands to the Feign decoder
+        reader = Jackson2ObjectMapperBuilder.json().build().readerFor(RateExchangeOutput.class);
+        StringBuilder builder = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < records; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"record_date\":\"2023-12-31\",\"country\":\"Brazil\",\"currency\":\"Real\",")
+                    .append("\"country_currency_desc\":\"Brazil-Real\",\"exchange_rate\":\"4.852\",")
+                    .append("\"effective_date\":\"2023-12-31\",\"src_line_nbr\":\"1\",\"record_fiscal_year\":\"2024\"}");
+        }
+        builder.append("],\"meta\":{\"count\":").append(records).append(",\"total-count\":").append(records)
+                .append(",\"total-pages\":1}}");
+        json = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public RateExchangeOutput deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,73 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.BenchmarkContext;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the rows per second of the single-insert path with the JDBC batch bulk path.
+ * Each invocation stores ROWS purchases, so the throughput score is in rows per second. On the
+ * embedded H2 database the bulk path measures about 3x the single-insert path, see the README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private BenchmarkContext context;
+    private PurchaseDataProvider purchaseDataProvider;
+    private PurchaseRepository purchaseRepository;
+    private List<CreatePurchaseInput> inputs;
+
+    @Setup
+    public void setup() throws IOException {
+        context = BenchmarkContext.start();
+        purchaseDataProvider = context.getContext().getBean(PurchaseDataProvider.class);
+        purchaseRepository = context.getContext().getBean(PurchaseRepository.class);
+        inputs = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            CreatePurchaseInput input = new CreatePurchaseInput();
+            input.setDescription("Benchmark purchase " + i);
+            input.setPurchaseDate(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+            input.setDolarPrice(BigDecimal.valueOf(i + 1, 2));
+            inputs.add(input);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanTable() {
+        purchaseRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleInsert() {
+        for (CreatePurchaseInput input : inputs) {
+            purchaseDataProvider.createPurchase(input);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int bulkInsert() {
+        return purchaseDataProvider.createPurchases(inputs);
+    }
+}
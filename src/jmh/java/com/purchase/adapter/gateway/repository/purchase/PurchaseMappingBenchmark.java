@@ -0,0 +1,50 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.valueobject.Money;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the CreatePurchaseInput to Purchase mapping of PurchaseDataProviderImpl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PurchaseMappingBenchmark {
+
+    private CreatePurchaseInput input;
+
+    @Setup
+    public void setup() {
+        input = new CreatePurchaseInput();
+        input.setDescription("Benchmark purchase");
+        input.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        input.setDolarPrice(new BigDecimal("1234.56"));
+    }
+
+    @Benchmark
+    public Purchase beanUtilsCopyProperties() {
+        Purchase purchase = new Purchase();
+        BeanUtils.copyProperties(input, purchase);
+        purchase.setDolarPrice(Money.of(input.getDolarPrice()));
+        return purchase;
+    }
+
+    @Benchmark
+    public Purchase setters() {
+        Purchase purchase = new Purchase();
+        purchase.setDescription(input.getDescription());
+        purchase.setPurchaseDate(input.getPurchaseDate());
+        purchase.setDolarPrice(Money.of(input.getDolarPrice()));
+        return purchase;
+    }
+}
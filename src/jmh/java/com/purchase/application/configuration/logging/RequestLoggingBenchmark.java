@@ -0,0 +1,235 @@
+package com.purchase.application.configuration.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.purchase.application.configuration.feign.FeignClientRequestInterceptor;
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.PurchaseConversion;
+import com.purchase.domain.entity.RateExchange;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import com.purchase.domain.valueobject.Money;
+import feign.Request;
+import feign.RequestTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Benchmarks the logging cost of a conversion request served from the local rate store, and of
+ * the Feign interceptor of a Treasury call, with synchronous INFO logging and with the async
+ * sampled configuration of logback-spring.xml. Run it with -prof gc to compare the bytes
+ * allocated per operation (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    @Param({"sync-info", "async-sampled"})
+    private String logging;
+
+    private GetPurchaseCountryCurrencyUsecase usecase;
+    private FeignClientRequestInterceptor interceptor;
+    private UUID purchaseId;
+
+    @Setup
+    public void setup() {
+        configureLogging();
+
+        Purchase purchase = new Purchase();
+        purchase.setId(UUID.randomUUID());
+        purchase.setDescription("Benchmark purchase");
+        purchase.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        purchase.setDolarPrice(Money.of(new BigDecimal("1234.56")));
+        purchaseId = purchase.getId();
+
+        usecase = new GetPurchaseCountryCurrencyUsecase(new StubPurchaseDataProvider(purchase), null,
+                new StubRateExchangeDataProvider(), new UsecaseMetrics(new SimpleMeterRegistry()),
+                new StubPurchaseConversionDataProvider());
+        interceptor = new FeignClientRequestInterceptor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).reset();
+    }
+
+    @Benchmark
+    public ResponseEntity<GetPurchaseCountryCurrencyOutput> convert() {
+        return usecase.execute(purchaseId, "Brazil");
+    }
+
+    @Benchmark
+    public RequestTemplate interceptTreasuryCall() {
+        RequestTemplate template = new RequestTemplate()
+                .method(Request.HttpMethod.GET)
+                .uri("/v1/accounting/od/rates_of_exchange?fields=exchange_rate,record_date&filter=country:eq:Brazil,record_date:gte:2023-07-10&sort=-record_date")
+                .resolve(Collections.emptyMap());
+        interceptor.apply(template);
+        return template;
+    }
+
+    /**
+     * Configures Logback like the application, writing the formatted events to a discarding stream.
+     * The sync-info mode logs every INFO event on the calling thread, as the default console
+     * appender did, and the async-sampled mode mirrors logback-spring.xml.
+     */
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setName("CONSOLE");
+        console.setEncoder(encoder);
+        console.setOutputStream(OutputStream.nullOutputStream());
+        console.start();
+
+        Appender<ILoggingEvent> appender = console;
+        if ("async-sampled".equals(logging)) {
+            SampledRequestLogTurboFilter filter = new SampledRequestLogTurboFilter();
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC_CONSOLE");
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(0);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(console);
+            async.start();
+            appender = async;
+        }
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+    }
+
+    /**
+     * Purchase data provider always returning the same purchase.
+     */
+    private record StubPurchaseDataProvider(Purchase purchase) implements PurchaseDataProvider {
+        @Override
+        public Purchase getPurchaseById(UUID id) {
+            return purchase;
+        }
+
+        @Override
+        public List<Purchase> getPurchasesByIds(Collection<UUID> ids) {
+            return List.of(purchase);
+        }
+
+        @Override
+        public List<Purchase> getPurchasesPage(LocalDate from, LocalDate to, Purchase after, int size) {
+            return after == null ? List.of(purchase) : List.of();
+        }
+
+        @Override
+        public List<Purchase> getPurchasesCreatedPage(LocalDate from, LocalDate to, UUID after, int size) {
+            return after == null ? List.of(purchase) : List.of();
+        }
+
+        @Override
+        public Purchase createPurchase(CreatePurchaseInput createPurchaseInput) {
+            return purchase;
+        }
+
+        @Override
+        public int createPurchases(List<CreatePurchaseInput> createPurchaseInputs) {
+            return createPurchaseInputs.size();
+        }
+    }
+
+    /**
+     * Rate exchange data provider resolving every request from the local store.
+     */
+    private static class StubRateExchangeDataProvider implements RateExchangeDataProvider {
+        @Override
+        public long getLatestRate(String country, LocalDate dateLimit, LocalDate purchaseDate) {
+            return 4_852_000L; // 4.852 scaled by RATE_SCALE
+        }
+
+        @Override
+        public LocalDate getLatestRateEffectiveDate(String country, LocalDate dateLimit, LocalDate purchaseDate) {
+            return LocalDate.of(2023, 12, 31);
+        }
+
+        @Override
+        public boolean hasRates(String country) {
+            return true;
+        }
+
+        @Override
+        public LocalDate getLatestRecordDate() {
+            return LocalDate.of(2024, 1, 1);
+        }
+
+        @Override
+        public int saveRates(List<RateExchange> rates) {
+            return rates.size();
+        }
+
+        @Override
+        public void refreshIndex() {
+        }
+    }
+
+    /**
+     * Purchase conversion data provider with the conversion table disabled.
+     */
+    private static class StubPurchaseConversionDataProvider implements PurchaseConversionDataProvider {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public PurchaseConversion getConversion(UUID purchaseId, String country) {
+            return null;
+        }
+
+        @Override
+        public void saveConversion(PurchaseConversion conversion) {
+        }
+
+        @Override
+        public int recomputeConversions(String country, LocalDate from, LocalDate to, LocalDate newestEffectiveDate,
+                                        Predicate<PurchaseConversion> recompute) {
+            return 0;
+        }
+    }
+}
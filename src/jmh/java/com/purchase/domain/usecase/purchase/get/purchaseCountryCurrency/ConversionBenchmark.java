@@ -0,0 +1,59 @@
+package com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency;
+
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.valueobject.Money;
+import com.purchase.domain.valueobject.Rate;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversion math and output building of GetPurchaseCountryCurrencyUsecase,
+ * comparing the fixed-point Money and Rate math with the BigDecimal math it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+    private GetPurchaseCountryCurrencyUsecase usecase;
+    private Purchase purchase;
+    private Rate rate;
+    private BigDecimal bigDecimalPrice;
+    private BigDecimal bigDecimalRate;
+
+    @Setup
+    public void setup() {
+        usecase = new GetPurchaseCountryCurrencyUsecase(null, null, null, null, null);
+        purchase = new Purchase();
+        purchase.setId(UUID.randomUUID());
+        purchase.setDescription("Benchmark purchase");
+        purchase.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        purchase.setDolarPrice(Money.of(new BigDecimal("1234.56")));
+        rate = Rate.of(4.852);
+        bigDecimalPrice = new BigDecimal("1234.56");
+        bigDecimalRate = BigDecimal.valueOf(4.852);
+    }
+
+    @Benchmark
+    public Money calculateConvertedPrice() {
+        return usecase.calculateConvertedPrice(purchase.getDolarPrice(), rate);
+    }
+
+    @Benchmark
+    public BigDecimal calculateConvertedPriceBigDecimal() {
+        return bigDecimalPrice.multiply(bigDecimalRate).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public GetPurchaseCountryCurrencyOutput buildOutput() {
+        return usecase.buildOutput(purchase, rate);
+    }
+}
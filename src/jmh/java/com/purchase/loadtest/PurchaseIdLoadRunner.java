@@ -0,0 +1,142 @@
+package com.purchase.loadtest;
+
+import com.purchase.domain.entity.UuidV7Generator;
+import org.flywaydb.core.Flyway;
+
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compares the insert throughput and the index size of the purchase table with random UUIDv4 IDs
+ * and with time-ordered UUIDv7 IDs. Each generator inserts the same rows into a freshly migrated
+ * schema with JDBC batches, so the ID is the only difference.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.main=com.purchase.loadtest.PurchaseIdLoadRunner -Dbenchmark.args="10000000"
+ * <p>
+ * By default each generator writes to its own H2 file database under target, in PostgreSQL mode,
+ * and the size reported is the database file. Set -Dpurchase.db.url, -Dpurchase.db.username and
+ * -Dpurchase.db.password to run against PostgreSQL, where the size of each index is reported.
+ * Results are printed and written to target/purchase-id-load.csv.
+ */
+public final class PurchaseIdLoadRunner {
+
+    private static final Path RESULT_FILE = Path.of("target", "purchase-id-load.csv");
+    private static final int BATCH_SIZE = 1000;
+    private static final String INSERT = "insert into purchase (id, description, purchase_date, dolar_price) values (?, ?, ?, ?)";
+
+    private PurchaseIdLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String url = System.getProperty("purchase.db.url");
+        String username = System.getProperty("purchase.db.username", "purchase");
+        String password = System.getProperty("purchase.db.password", "");
+
+        List<String> results = new ArrayList<>();
+        results.add("generator,rows,rows_per_second,primary_key_bytes,purchase_date_index_bytes,database_file_bytes");
+        for (IdGenerator generator : IdGenerator.values()) {
+            Path file = Path.of("target", "purchase-id-load-" + generator.name().toLowerCase());
+            String jdbcUrl = url != null ? url
+                    : "jdbc:h2:file:" + file.toAbsolutePath() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+            if (url == null) {
+                Files.deleteIfExists(Path.of(file + ".mv.db"));
+            }
+            Flyway flyway = Flyway.configure().dataSource(jdbcUrl, username, password).cleanDisabled(false).load();
+            flyway.clean();
+            flyway.migrate();
+
+            String result;
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                double rowsPerSecond = insert(connection, rows, generator.supplier);
+                result = url != null
+                        ? String.format("%s,%d,%.0f,%d,%d,", generator, rows, rowsPerSecond,
+                            relationSize(connection, "pk_purchase"), relationSize(connection, "idx_purchase_purchase_date_id"))
+                        : String.format("%s,%d,%.0f,,,%d", generator, rows, rowsPerSecond, shutdownAndMeasure(connection, file));
+            }
+            System.out.println(result);
+            results.add(result);
+        }
+
+        Files.createDirectories(RESULT_FILE.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(RESULT_FILE))) {
+            results.forEach(writer::println);
+        }
+    }
+
+    /**
+     * Inserts the rows in JDBC batches, committing every batch.
+     *
+     * @return The rows inserted per second.
+     */
+    private static double insert(Connection connection, int rows, Supplier<UUID> ids) throws SQLException {
+        connection.setAutoCommit(false);
+        LocalDate firstDate = LocalDate.of(2020, 1, 1);
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < rows; i++) {
+                statement.setObject(1, ids.get());
+                statement.setString(2, "Load test purchase " + i);
+                statement.setDate(3, Date.valueOf(firstDate.plusDays(i % 1500)));
+                statement.setBigDecimal(4, BigDecimal.valueOf(i % 100_000 + 1, 2));
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Returns the on-disk size of a PostgreSQL relation.
+     */
+    private static long relationSize(Connection connection, String relation) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select pg_relation_size('" + relation + "')")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Closes the H2 database, so every page is written, and returns the size of its file.
+     */
+    private static long shutdownAndMeasure(Connection connection, Path file) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("shutdown");
+        }
+        return Files.size(Path.of(file + ".mv.db"));
+    }
+
+    /**
+     * Identifier generators compared.
+     */
+    private enum IdGenerator {
+        V4(UUID::randomUUID), V7(UuidV7Generator::next);
+
+        private final Supplier<UUID> supplier;
+
+        IdGenerator(Supplier<UUID> supplier) {
+            this.supplier = supplier;
+        }
+    }
+}
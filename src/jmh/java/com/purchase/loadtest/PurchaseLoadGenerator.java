@@ -0,0 +1,327 @@
+package com.purchase.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.purchase.PurchaseApplication;
+import com.purchase.integration.treasury.TreasurySimulator;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives scripted create and convert traffic against the application and reports the throughput
+ * and latency percentiles of each stage and operation. Requests are sent open-loop at a constant
+ * arrival rate, and each latency is measured from the time the request was due, so a slow server
+ * shows up in the percentiles instead of slowing the generator down.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.main=com.purchase.loadtest.PurchaseLoadGenerator
+ * -Dbenchmark.args="warmup:30s:50:create=30,convert=70 steady:2m:200:create=30,convert=70"
+ * <p>
+ * Each argument is a stage written name:duration:requests per second:operation=weight,... By
+ * default the application is started in process against a {@link TreasurySimulator} configured by
+ * the treasury.* system properties (dataset, latency, error-rate, rate-limit), so no network is
+ * needed. Set -Dload.url to drive an application already running instead, and -Dload.properties
+ * to pass space-separated key=value properties to the embedded one. -Dload.seed fixes the random
+ * sequence, -Dload.purchases sets the purchases created before the first stage, -Dload.countries
+ * the comma-separated conversion countries and -Dload.max-in-flight the requests outstanding at
+ * once, beyond which requests are dropped and counted. Results are printed and written to
+ * target/purchase-load.csv.
+ */
+public final class PurchaseLoadGenerator {
+
+    private static final Path RESULT_FILE = Path.of("target", "purchase-load.csv");
+    private static final String DEFAULT_STAGES = "warmup:30s:50:create=30,convert=70 steady:60s:200:create=30,convert=70";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final LocalDate FIRST_PURCHASE_DATE = LocalDate.of(2020, 1, 1);
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String baseUrl;
+    private final Random random;
+    private final List<String> countries;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Duration timeout;
+    private final List<UUID> purchaseIds = new CopyOnWriteArrayList<>();
+
+    private PurchaseLoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.random = new Random(Long.getLong("load.seed", 42));
+        this.countries = List.of(System.getProperty("load.countries", "Brazil,Canada,Mexico,Euro Zone").split(","));
+        this.maxInFlight = Integer.getInteger("load.max-in-flight", 1000);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeout = Duration.ofSeconds(Long.getLong("load.timeout.seconds", 30));
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Stage> stages = Arrays.stream(args.length > 0 ? args : DEFAULT_STAGES.split(" ")).map(Stage::parse).toList();
+        String url = System.getProperty("load.url");
+
+        TreasurySimulator simulator = null;
+        ConfigurableApplicationContext context = null;
+        if (url == null) {
+            simulator = TreasurySimulator.fromSystemProperties(0);
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--treasury.url=" + simulator.baseUrl(),
+                    "--treasury.sync.enabled=false",
+                    "--server.port=0",
+                    "--logging.level.root=WARN"));
+            for (String property : System.getProperty("load.properties", "").split(" ")) {
+                if (!property.isBlank()) {
+                    appArgs.add("--" + property);
+                }
+            }
+            context = new SpringApplicationBuilder(PurchaseApplication.class).run(appArgs.toArray(new String[0]));
+            url = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+        }
+
+        List<String> results = new ArrayList<>();
+        results.add("stage,operation,requests,errors,dropped,requests_per_second,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        try {
+            PurchaseLoadGenerator generator = new PurchaseLoadGenerator(url);
+            generator.seed(Integer.getInteger("load.purchases", 1000));
+            for (Stage stage : stages) {
+                Map<String, Recorder> recorders = generator.run(stage);
+                for (Map.Entry<String, Recorder> recorder : recorders.entrySet()) {
+                    String result = recorder.getValue().result(stage, recorder.getKey());
+                    System.out.println(result);
+                    results.add(result);
+                }
+                if (simulator != null) {
+                    System.out.printf("Treasury simulator after %s: %d served, %d failed, %d throttled%n",
+                            stage.name(), simulator.served(), simulator.failed(), simulator.throttled());
+                }
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (simulator != null) {
+                simulator.close();
+            }
+        }
+
+        Files.createDirectories(RESULT_FILE.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(RESULT_FILE))) {
+            results.forEach(writer::println);
+        }
+    }
+
+    /**
+     * Creates the purchases converted by the first stage, a few at a time.
+     */
+    private void seed(int count) {
+        List<CompletableFuture<Void>> creates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            creates.add(send(createRequest()).thenAccept(this::collectId).exceptionally(failure -> null));
+            if (creates.size() == 50) {
+                CompletableFuture.allOf(creates.toArray(new CompletableFuture[0])).join();
+                creates.clear();
+            }
+        }
+        CompletableFuture.allOf(creates.toArray(new CompletableFuture[0])).join();
+        if (purchaseIds.isEmpty() && count > 0) {
+            throw new IllegalStateException("No purchase could be created on " + baseUrl);
+        }
+        System.out.println("Seeded " + purchaseIds.size() + " purchases");
+    }
+
+    /**
+     * Sends the requests of a stage at its arrival rate, then waits for the outstanding ones.
+     *
+     * @return The recorder of each operation of the stage.
+     */
+    private Map<String, Recorder> run(Stage stage) throws InterruptedException {
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        stage.mix().keySet().forEach(operation -> recorders.put(operation, new Recorder()));
+        int totalWeight = stage.mix().values().stream().mapToInt(Integer::intValue).sum();
+        long intervalNanos = (long) (1e9 / stage.rate());
+        long requests = (long) (stage.duration().toNanos() / 1e9 * stage.rate());
+
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String operation = pick(stage.mix(), random.nextInt(totalWeight));
+            Recorder recorder = recorders.get(operation);
+            if (!inFlight.tryAcquire()) {
+                recorder.drop();
+                continue;
+            }
+            HttpRequest request = operation.equals("create") ? createRequest() : convertRequest();
+            send(request).whenComplete((response, failure) -> {
+                recorder.record(System.nanoTime() - due, failure == null && response.statusCode() / 100 == 2);
+                if (failure == null && operation.equals("create")) {
+                    collectId(response);
+                }
+                inFlight.release();
+            });
+        }
+        if (!inFlight.tryAcquire(maxInFlight, timeout.toSeconds(), TimeUnit.SECONDS)) {
+            System.out.println("Requests of stage " + stage.name() + " still outstanding after " + timeout);
+        } else {
+            inFlight.release(maxInFlight);
+        }
+        return recorders;
+    }
+
+    /**
+     * Returns the operation a weighted draw falls on.
+     */
+    private static String pick(Map<String, Integer> mix, int draw) {
+        for (Map.Entry<String, Integer> operation : mix.entrySet()) {
+            draw -= operation.getValue();
+            if (draw < 0) {
+                return operation.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private HttpRequest createRequest() {
+        String body = String.format("{\"description\":\"Load test purchase\",\"purchaseDate\":\"%s\",\"dolarPrice\":%d.%02d}",
+                FIRST_PURCHASE_DATE.plusDays(random.nextInt(1500)), 1 + random.nextInt(1000), random.nextInt(100));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/purchase/"))
+                .header("Content-Type", "application/json")
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest convertRequest() {
+        UUID purchaseId = purchaseIds.get(random.nextInt(purchaseIds.size()));
+        String country = URLEncoder.encode(countries.get(random.nextInt(countries.size())), StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/purchase/country_currency?purchaseId=" + purchaseId + "&country=" + country))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Keeps the ID of a created purchase, so later conversions can target it.
+     */
+    private void collectId(HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            return;
+        }
+        try {
+            String id = MAPPER.readTree(response.body()).path("id").asText(null);
+            if (id != null) {
+                purchaseIds.add(UUID.fromString(id));
+            }
+        } catch (Exception e) {
+            // A response without an ID only leaves fewer purchases to convert
+        }
+    }
+
+    /**
+     * A stage of the script: requests sent at a constant rate for a duration, the operation of
+     * each drawn from the weighted mix.
+     */
+    private record Stage(String name, Duration duration, double rate, Map<String, Integer> mix) {
+
+        static Stage parse(String spec) {
+            String[] parts = spec.split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Stage must be name:duration:rate:operation=weight,... but was " + spec);
+            }
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            for (String operation : parts[3].split(",")) {
+                String[] weight = operation.split("=", 2);
+                if (!weight[0].equals("create") && !weight[0].equals("convert")) {
+                    throw new IllegalArgumentException("Unknown operation " + weight[0] + ", expected create or convert");
+                }
+                mix.put(weight[0], weight.length > 1 ? Integer.parseInt(weight[1]) : 1);
+            }
+            return new Stage(parts[0], parseDuration(parts[1]), Double.parseDouble(parts[2]), mix);
+        }
+
+        /**
+         * Parses a duration such as 500ms, 30s, 2m or 1h.
+         */
+        private static Duration parseDuration(String value) {
+            if (value.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            }
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            return switch (value.charAt(value.length() - 1)) {
+                case 's' -> Duration.ofSeconds(amount);
+                case 'm' -> Duration.ofMinutes(amount);
+                case 'h' -> Duration.ofHours(amount);
+                default -> throw new IllegalArgumentException("Invalid duration " + value);
+            };
+        }
+    }
+
+    /**
+     * Latencies and outcomes of the requests of one operation in one stage.
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private int dropped;
+
+        synchronized void record(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized void drop() {
+            dropped++;
+        }
+
+        /**
+         * Returns the result of the operation as a CSV line.
+         */
+        synchronized String result(Stage stage, String operation) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return String.format("%s,%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f", stage.name(), operation, count, errors, dropped,
+                    (count - errors) / (stage.duration().toNanos() / 1e9),
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.90), percentileMillis(sorted, 0.99),
+                    percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0));
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.max(0, Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.purchase.loadtest;
+
+import com.purchase.BenchmarkContext;
+import com.purchase.adapter.gateway.repository.purchase.PurchaseRepository;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.valueobject.Money;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares conversion throughput with platform and virtual request threads while every request
+ * waits on a slow Treasury upstream. Each round fires its requests at once, and every request
+ * targets a purchase with its own date so it misses the rate cache and reaches the upstream.
+ * <p>
+ * Run with: mvn -Pbenchmark,java21 test-compile exec:exec
+ * -Dbenchmark.main=com.purchase.loadtest.VirtualThreadLoadRunner -Dbenchmark.args="1000 5000 10000"
+ * <p>
+ * The upstream latency defaults to 500 ms and is set with -Dtreasury.latency.ms. Results are
+ * printed and written to target/virtual-thread-load.csv.
+ */
+public final class VirtualThreadLoadRunner {
+
+    private static final Path RESULT_FILE = Path.of("target", "virtual-thread-load.csv");
+
+    private VirtualThreadLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] concurrencies = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1000, 5000, 10000};
+        Duration latency = Duration.ofMillis(Long.getLong("treasury.latency.ms", 500));
+        if (Runtime.version().feature() < 21) {
+            System.out.println("Java " + Runtime.version().feature() + " has no virtual threads, both modes will use platform threads");
+        }
+
+        List<String> results = new ArrayList<>();
+        results.add("mode,concurrency,requests_per_second,p50_ms,p99_ms,max_ms,errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (BenchmarkContext context = BenchmarkContext.start(latency,
+                    "spring.threads.virtual.enabled=" + virtual,
+                    "server.tomcat.max-connections=20000",
+                    "server.tomcat.accept-count=10000")) {
+                List<UUID> purchaseIds = createPurchases(context, Arrays.stream(concurrencies).sum());
+                int offset = 0;
+                for (int concurrency : concurrencies) {
+                    String result = runRound(context.getPort(), purchaseIds.subList(offset, offset + concurrency), virtual ? "virtual" : "platform");
+                    System.out.println(result);
+                    results.add(result);
+                    offset += concurrency;
+                }
+            }
+        }
+
+        Files.createDirectories(RESULT_FILE.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(RESULT_FILE))) {
+            results.forEach(writer::println);
+        }
+    }
+
+    /**
+     * Stores purchases with distinct dates, so each one resolves its own rate window.
+     */
+    private static List<UUID> createPurchases(BenchmarkContext context, int count) {
+        PurchaseRepository repository = context.getContext().getBean(PurchaseRepository.class);
+        List<Purchase> purchases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Purchase purchase = new Purchase();
+            purchase.setDescription("Load test purchase " + i);
+            purchase.setPurchaseDate(LocalDate.of(1980, 1, 1).plusDays(i));
+            purchase.setDolarPrice(Money.of(new BigDecimal("100.00")));
+            purchases.add(purchase);
+        }
+        return repository.saveAll(purchases).stream().map(Purchase::getId).toList();
+    }
+
+    /**
+     * Fires one conversion request per purchase at once and waits for all responses.
+     *
+     * @return The round result as a CSV line.
+     */
+    private static String runRound(int port, List<UUID> purchaseIds, String mode) throws IOException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long[] latencies = new long[purchaseIds.size()];
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> requests = new ArrayList<>(purchaseIds.size());
+        for (int i = 0; i < purchaseIds.size(); i++) {
+            int index = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                            + "/purchase/country_currency?country=Brazil&purchaseId=" + purchaseIds.get(i)))
+                    .timeout(Duration.ofMinutes(5))
+                    .build();
+            long sent = System.nanoTime();
+            requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() != 200) {
+                            if (errors.getAndIncrement() == 0) {
+                                System.out.println("First error: " + (failure != null ? failure : "HTTP " + response.statusCode()));
+                            }
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        return String.format("%s,%d,%.1f,%d,%d,%d,%d", mode, purchaseIds.size(), purchaseIds.size() / seconds,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                latencies[latencies.length - 1] / 1_000_000, errors.get());
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)] / 1_000_000;
+    }
+}
@@ -1,13 +1,22 @@
 package com.purchase.adapter.controller.purchase;
 
 import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseBulkOutput;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyBatchInput;
 import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsOutput;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RequestMapping("/purchase")
@@ -22,6 +31,15 @@ public interface PurchaseController {
     @PostMapping("/")
     ResponseEntity<Purchase> createPurchase(CreatePurchaseInput item);
 
+    /**
+     * Endpoint for creating purchases in bulk from a JSON array or newline-delimited JSON.
+     *
+     * @param body The request body stream.
+     * @return ResponseEntity with the accepted and rejected counts and the row errors.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    ResponseEntity<CreatePurchaseBulkOutput> createPurchasesBulk(InputStream body);
+
     /**
      * Endpoint for retrieving purchase country currency information.
      *
@@ -31,4 +49,50 @@ public interface PurchaseController {
      */
     @GetMapping("/country_currency")
     ResponseEntity<GetPurchaseCountryCurrencyOutput> getPurchaseCountryCurrency(UUID purchaseId, String country);
+
+    /**
+     * Endpoint for retrieving purchase country currency information without holding a request
+     * thread while the Treasury API answers.
+     *
+     * @param purchaseId The ID of the purchase.
+     * @param country    The country for currency conversion.
+     * @return Mono emitting the ResponseEntity with the output data.
+     */
+    @GetMapping("/country_currency/reactive")
+    Mono<ResponseEntity<GetPurchaseCountryCurrencyOutput>> getPurchaseCountryCurrencyReactive(UUID purchaseId, String country);
+
+    /**
+     * Endpoint for retrieving purchase country currency information of many purchases and countries.
+     *
+     * @param items The (purchaseId, country) pairs to convert.
+     * @return ResponseEntity streaming one result per line as newline-delimited JSON.
+     */
+    @PostMapping(value = "/country_currency/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> getPurchaseCountryCurrencyBatch(List<GetPurchaseCountryCurrencyBatchInput> items);
+
+    /**
+     * Endpoint for exporting the purchases within a purchase date range, optionally converted to a country's currency.
+     *
+     * @param format  The export format, ndjson or csv.
+     * @param order   The export order, date for purchase date order or created for creation order.
+     * @param country The country for currency conversion, if any.
+     * @param from    The oldest purchase date exported, if any.
+     * @param to      The newest purchase date exported, if any.
+     * @return ResponseEntity streaming one purchase per line as newline-delimited JSON or CSV.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    ResponseEntity<StreamingResponseBody> exportPurchases(String format, String order, String country, LocalDate from, LocalDate to);
+
+    /**
+     * Endpoint for totaling the dollar prices of the purchases per month or quarter, optionally
+     * converted to the currency of some countries.
+     *
+     * @param period    The period the purchases are grouped by, month or quarter.
+     * @param from      The oldest purchase date totaled.
+     * @param to        The newest purchase date totaled.
+     * @param countries The countries whose currency the totals are converted to, if any.
+     * @return ResponseEntity with the totals of every period of the range.
+     */
+    @GetMapping("/totals")
+    ResponseEntity<GetPurchaseTotalsOutput> getPurchaseTotals(String period, LocalDate from, LocalDate to, List<String> countries);
 }
@@ -1,18 +1,32 @@
 package com.purchase.adapter.controller.purchase;
 
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyBatchInput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyBatchUsecase;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyReactiveUsecase;
 import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
 import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseBulkOutput;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseBulkUsecase;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseUsecase;
+import com.purchase.domain.usecase.purchase.export.ExportPurchasesUsecase;
 import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsOutput;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsUsecase;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -22,9 +36,24 @@ public class PurchaseControllerImpl implements PurchaseController {
     @Autowired
     private CreatePurchaseUsecase createPurchase; // Autowired instance of the CreatePurchaseUsecase
 
+    @Autowired
+    private CreatePurchaseBulkUsecase createPurchaseBulk; // Autowired instance of the CreatePurchaseBulkUsecase
+
     @Autowired
     private GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase; // Autowired instance of the GetPurchaseCountryCurrencyUsecase
 
+    @Autowired
+    private GetPurchaseCountryCurrencyReactiveUsecase getPurchaseCountryCurrencyReactiveUsecase; // Autowired instance of the GetPurchaseCountryCurrencyReactiveUsecase
+
+    @Autowired
+    private GetPurchaseCountryCurrencyBatchUsecase getPurchaseCountryCurrencyBatchUsecase; // Autowired instance of the GetPurchaseCountryCurrencyBatchUsecase
+
+    @Autowired
+    private ExportPurchasesUsecase exportPurchasesUsecase; // Autowired instance of the ExportPurchasesUsecase
+
+    @Autowired
+    private GetPurchaseTotalsUsecase getPurchaseTotalsUsecase; // Autowired instance of the GetPurchaseTotalsUsecase
+
     /**
      * Endpoint implementation for creating a new purchase.
      *
@@ -36,6 +65,17 @@ public class PurchaseControllerImpl implements PurchaseController {
         return createPurchase.execute(item); // Delegate execution to the CreatePurchaseUsecase
     }
 
+    /**
+     * Endpoint implementation for creating purchases in bulk from a JSON array or newline-delimited JSON.
+     *
+     * @param body The request body stream.
+     * @return ResponseEntity with the accepted and rejected counts and the row errors.
+     */
+    @Override
+    public ResponseEntity<CreatePurchaseBulkOutput> createPurchasesBulk(InputStream body) {
+        return createPurchaseBulk.execute(body); // Delegate execution to the CreatePurchaseBulkUsecase
+    }
+
     /**
      * Endpoint implementation for retrieving purchase country currency information.
      *
@@ -47,4 +87,66 @@ public class PurchaseControllerImpl implements PurchaseController {
     public ResponseEntity<GetPurchaseCountryCurrencyOutput> getPurchaseCountryCurrency(@Valid @RequestParam UUID purchaseId, @Valid @RequestParam String country) {
         return getPurchaseCountryCurrencyUsecase.execute(purchaseId, country); // Delegate execution to the GetPurchaseCountryCurrencyUsecase
     }
+
+    /**
+     * Endpoint implementation for retrieving purchase country currency information without holding a
+     * request thread while the Treasury API answers.
+     *
+     * @param purchaseId The ID of the purchase.
+     * @param country    The country for currency conversion.
+     * @return Mono emitting the ResponseEntity with the output data.
+     */
+    @Override
+    public Mono<ResponseEntity<GetPurchaseCountryCurrencyOutput>> getPurchaseCountryCurrencyReactive(@Valid @RequestParam UUID purchaseId, @Valid @RequestParam String country) {
+        return getPurchaseCountryCurrencyReactiveUsecase.execute(purchaseId, country); // Delegate execution to the GetPurchaseCountryCurrencyReactiveUsecase
+    }
+
+    /**
+     * Endpoint implementation for retrieving purchase country currency information of many purchases and countries.
+     *
+     * @param items The (purchaseId, country) pairs to convert.
+     * @return ResponseEntity streaming one result per line as newline-delimited JSON.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> getPurchaseCountryCurrencyBatch(@RequestBody List<GetPurchaseCountryCurrencyBatchInput> items) {
+        return getPurchaseCountryCurrencyBatchUsecase.execute(items); // Delegate execution to the GetPurchaseCountryCurrencyBatchUsecase
+    }
+
+    /**
+     * Endpoint implementation for exporting the purchases within a purchase date range, optionally
+     * converted to a country's currency.
+     *
+     * @param format  The export format, ndjson or csv.
+     * @param order   The export order, date for purchase date order or created for creation order.
+     * @param country The country for currency conversion, if any.
+     * @param from    The oldest purchase date exported, if any.
+     * @param to      The newest purchase date exported, if any.
+     * @return ResponseEntity streaming one purchase per line as newline-delimited JSON or CSV.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportPurchases(@RequestParam(defaultValue = "ndjson") String format,
+                                                                 @RequestParam(defaultValue = "date") String order,
+                                                                 @RequestParam(required = false) String country,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return exportPurchasesUsecase.execute(format, order, country, from, to); // Delegate execution to the ExportPurchasesUsecase
+    }
+
+    /**
+     * Endpoint implementation for totaling the dollar prices of the purchases per month or quarter,
+     * optionally converted to the currency of some countries.
+     *
+     * @param period    The period the purchases are grouped by, month or quarter.
+     * @param from      The oldest purchase date totaled.
+     * @param to        The newest purchase date totaled.
+     * @param countries The countries whose currency the totals are converted to, if any.
+     * @return ResponseEntity with the totals of every period of the range.
+     */
+    @Override
+    public ResponseEntity<GetPurchaseTotalsOutput> getPurchaseTotals(@RequestParam(defaultValue = "month") String period,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                     @RequestParam(name = "country", required = false) List<String> countries) {
+        return getPurchaseTotalsUsecase.execute(period, from, to, countries); // Delegate execution to the GetPurchaseTotalsUsecase
+    }
 }
@@ -6,7 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(value = "treasury", url = "https://api.fiscaldata.treasury.gov/services/api/fiscal_service/")
+@FeignClient(value = "treasury", url = "${treasury.url}")
 public interface FiscalDataTreasuryRateExchangeClient {
 
     /**
@@ -23,4 +23,23 @@ public interface FiscalDataTreasuryRateExchangeClient {
             @RequestParam("filter") String filter,
             @RequestParam("sort") String sort
     );
+
+    /**
+     * Fetches one page of rate exchange data from the Treasury API.
+     *
+     * @param format     The response format.
+     * @param filter     The filter parameters for the request.
+     * @param sort       The sorting criteria for the response.
+     * @param pageNumber The page number to fetch, starting at 1.
+     * @param pageSize   The number of records per page.
+     * @return ResponseEntity containing the RateExchangeOutput object.
+     */
+    @GetMapping("v1/accounting/od/rates_of_exchange")
+    ResponseEntity<RateExchangeOutput> getRateExchangePage(
+            @RequestParam("format") String format,
+            @RequestParam("filter") String filter,
+            @RequestParam("sort") String sort,
+            @RequestParam("page[number]") int pageNumber,
+            @RequestParam("page[size]") int pageSize
+    );
 }
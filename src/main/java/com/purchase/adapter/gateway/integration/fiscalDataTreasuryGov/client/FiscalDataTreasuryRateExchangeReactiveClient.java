@@ -0,0 +1,83 @@
+package com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.client;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Component
+@Slf4j
+public class FiscalDataTreasuryRateExchangeReactiveClient {
+
+    private static final String LOG_PREFIX = "[TREASURY RATE EXCHANGE REACTIVE CLIENT] - ";
+
+    @Autowired
+    private WebClient.Builder webClientBuilder; // Autowired WebClient builder configured by Spring Boot
+
+    @Value("${treasury.url}")
+    private String treasuryUrl; // Base URL of the Treasury API
+
+    @Value("${treasury.reactive.timeout:PT10S}")
+    private Duration timeout; // Maximum time to wait for a Treasury response
+
+    @Value("${treasury.reactive.max-connections:100}")
+    private int maxConnections; // Maximum number of concurrent requests to the Treasury API
+
+    @Value("${treasury.reactive.max-pending:1000}")
+    private int maxPending; // Maximum number of requests waiting for a connection before new ones are rejected
+
+    private WebClient webClient; // Non-blocking client for the Treasury API
+
+    /**
+     * Builds the WebClient once the configuration properties are injected. The connection pool bounds
+     * the concurrency to the upstream, and its pending queue bounds the requests waiting for it, so
+     * excess load is rejected instead of queued without limit.
+     */
+    @PostConstruct
+    void initWebClient() {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("treasury")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPending)
+                .pendingAcquireTimeout(timeout)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeout.toMillis())
+                .responseTimeout(timeout);
+        webClient = webClientBuilder
+                .baseUrl(treasuryUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Fetches rate exchange data from the Treasury API without blocking the calling thread.
+     *
+     * @param format The response format.
+     * @param filter The filter parameters for the request.
+     * @param sort   The sorting criteria for the response.
+     * @return Mono emitting the RateExchangeOutput object, or an error if the request failed or timed out.
+     */
+    public Mono<RateExchangeOutput> getRateExchange(String format, String filter, String sort) {
+        log.debug("{}Outgoing request with filter: {}", LOG_PREFIX, filter);
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("v1/accounting/od/rates_of_exchange")
+                        .queryParam("format", format)
+                        .queryParam("filter", filter)
+                        .queryParam("sort", sort)
+                        .build())
+                .retrieve()
+                .bodyToMono(RateExchangeOutput.class)
+                .timeout(timeout);
+    }
+}
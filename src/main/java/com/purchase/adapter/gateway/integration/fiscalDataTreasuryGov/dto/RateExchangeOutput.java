@@ -1,10 +1,12 @@
 package com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
@@ -13,6 +15,7 @@ import java.util.List;
 @NoArgsConstructor
 public class RateExchangeOutput {
     private List<Data> data; // List of rate exchange data
+    private Meta meta; // Paging metadata of the response
 
     @lombok.Data
     @AllArgsConstructor
@@ -20,5 +23,21 @@ public class RateExchangeOutput {
     @Builder
     public static class Data {
         private double exchange_rate; // Exchange rate value
+        private String country; // Country of the exchange rate
+        private String currency; // Currency of the exchange rate
+        private LocalDate record_date; // Date the exchange rate was recorded
+        private LocalDate effective_date; // Date the exchange rate became effective
+    }
+
+    @lombok.Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Meta {
+        @JsonProperty("total-count")
+        private long totalCount; // Total number of records matching the filter
+
+        @JsonProperty("total-pages")
+        private int totalPages; // Total number of pages for the requested page size
     }
 }
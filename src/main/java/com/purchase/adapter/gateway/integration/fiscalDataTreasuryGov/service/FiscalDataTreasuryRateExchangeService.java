@@ -1,42 +1,283 @@
 package com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.client.FiscalDataTreasuryRateExchangeClient;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.client.FiscalDataTreasuryRateExchangeReactiveClient;
 import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class FiscalDataTreasuryRateExchangeService {
 
-    private static String LOG_PREFIX = "[TREASURY RATE EXCHANGE SERVICE] - ";
+    private static final String LOG_PREFIX = "[TREASURY RATE EXCHANGE SERVICE] - ";
+
+    private static final String RESILIENCE_INSTANCE = "treasury"; // Name of the circuit breaker, bulkhead and retry instances
 
     @Autowired
     private FiscalDataTreasuryRateExchangeClient client; // Autowired instance of the Feign client
 
+    @Autowired
+    private FiscalDataTreasuryRateExchangeReactiveClient reactiveClient; // Autowired instance of the WebClient based client
+
+    @Value("${treasury.rate-cache.ttl:PT6H}")
+    private Duration cacheTtl; // Time a cached rate exchange response stays valid
+
+    @Value("${treasury.rate-cache.maximum-size:10000}")
+    private long cacheMaximumSize; // Maximum number of (country, record date limit) entries kept in memory
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry of the Treasury fetch timers
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry; // Registry of circuit breakers configured by resilience4j.circuitbreaker.*
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry; // Registry of bulkheads configured by resilience4j.bulkhead.*
+
+    @Autowired
+    private RetryRegistry retryRegistry; // Registry of retries configured by resilience4j.retry.*
+
+    private AsyncCache<RateExchangeCacheKey, RateExchangeOutput> cache; // In-process cache of Treasury responses
+
+    private CircuitBreaker circuitBreaker; // Stops calling the Treasury API while it keeps failing
+
+    private Bulkhead bulkhead; // Bounds the number of concurrent Treasury calls
+
+    private Retry retry; // Retries failed Treasury calls with jittered exponential backoff
+
+    private final Map<String, RateExchangeOutput.Data> lastKnownGoodRates = new ConcurrentHashMap<>(); // Most recent rate received per country
+
     /**
-     * Retrieves rate exchange data from the Treasury API.
+     * Builds the rate exchange cache and resolves the resilience instances once the configuration properties are injected.
+     */
+    @PostConstruct
+    void initCache() {
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheMaximumSize)
+                .recordStats()
+                .buildAsync();
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE);
+        bulkhead = bulkheadRegistry.bulkhead(RESILIENCE_INSTANCE);
+        retry = retryRegistry.retry(RESILIENCE_INSTANCE);
+    }
+
+    /**
+     * Retrieves rate exchange data, serving it from the in-process cache when available.
+     * Concurrent misses for the same key trigger a single request to the Treasury API,
+     * and failed requests (null responses) are never cached. When the Treasury API is
+     * unavailable, the last known rate of the country is returned if it is within the window.
      *
      * @param country           The country for which rate exchange data is requested.
      * @param record_date_limit The date limit for rate exchange records.
-     * @return RateExchangeOutput containing rate exchange data.
+     * @return RateExchangeOutput containing rate exchange data, or null if neither the API nor the fallback has it.
      */
     public RateExchangeOutput getTreasureRate(String country, String record_date_limit) {
+        // Only the placeholder future is installed under the cache lock; the Treasury call runs
+        // outside of it so waiting callers park instead of pinning a (virtual) thread on a monitor
+        CompletableFuture<RateExchangeOutput> loading = new CompletableFuture<>();
+        CompletableFuture<RateExchangeOutput> future = cache.get(new RateExchangeCacheKey(country, record_date_limit), (key, executor) -> loading);
+        if (future == loading) {
+            // A null result removes the entry, so failed requests are retried by the next caller
+            loading.complete(fetchTreasureRate(country, record_date_limit));
+        }
+        RateExchangeOutput output = future.join();
+        return output != null ? output : lastKnownGoodRate(country, record_date_limit);
+    }
+
+    /**
+     * Retrieves rate exchange data without blocking the calling thread, sharing the cache and the
+     * single request per key with {@link #getTreasureRate(String, String)}.
+     *
+     * @param country           The country for which rate exchange data is requested.
+     * @param record_date_limit The date limit for rate exchange records.
+     * @return Mono emitting the RateExchangeOutput, or empty if neither the API nor the fallback has it.
+     */
+    public Mono<RateExchangeOutput> getTreasureRateReactive(String country, String record_date_limit) {
+        // A null result removes the entry, so failed requests are retried by the next caller
+        return Mono.fromFuture(() -> cache.get(new RateExchangeCacheKey(country, record_date_limit),
+                        (key, executor) -> fetchTreasureRateReactive(country, record_date_limit).toFuture()))
+                .switchIfEmpty(Mono.fromSupplier(() -> lastKnownGoodRate(country, record_date_limit)));
+    }
+
+    /**
+     * Tells whether the rate exchange data of the key is cached or being fetched.
+     *
+     * @param country           The country for which rate exchange data is requested.
+     * @param record_date_limit The date limit for rate exchange records.
+     * @return True if a response is cached or a request is in flight for the key.
+     */
+    public boolean isCached(String country, String record_date_limit) {
+        return cache.getIfPresent(new RateExchangeCacheKey(country, record_date_limit)) != null;
+    }
+
+    /**
+     * Returns the state of the circuit breaker protecting the Treasury API calls.
+     *
+     * @return The current circuit breaker state.
+     */
+    public CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the rate exchange cache.
+     *
+     * @return A snapshot of the cache statistics.
+     */
+    public CacheStats getCacheStats() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * Retrieves rate exchange data from the Treasury API.
+     *
+     * @param country           The country for which rate exchange data is requested.
+     * @param record_date_limit The date limit for rate exchange records.
+     * @return RateExchangeOutput containing rate exchange data, or null if the request failed.
+     */
+    private RateExchangeOutput fetchTreasureRate(String country, String record_date_limit) {
+        long start = System.nanoTime();
         try {
             // Constructing the filter parameter for the API request
             String filter = "country:eq:" + country + ",record_date:gt:" + record_date_limit;
 
-            log.info("{}Fetching rate exchange data for country: {} with record date limit: {}", LOG_PREFIX, country, record_date_limit);
+            log.debug(LOG_PREFIX + "Fetching rate exchange data for country: {} with record date limit: {}", country, record_date_limit);
 
-            // Making a request to the Treasury API through the Feign client
-            ResponseEntity<RateExchangeOutput> response = client.getRateExchange("json", filter, "-effective_date");
+            // Making a request to the Treasury API through the Feign client, guarded by the bulkhead,
+            // the circuit breaker and the retry (outermost, so each attempt is seen by the breaker)
+            Supplier<ResponseEntity<RateExchangeOutput>> call = Bulkhead.decorateSupplier(bulkhead,
+                    () -> client.getRateExchange("json", filter, "-effective_date"));
+            call = Retry.decorateSupplier(retry, CircuitBreaker.decorateSupplier(circuitBreaker, call));
+            ResponseEntity<RateExchangeOutput> response = call.get();
 
             // Extracting the response body which contains rate exchange data
-            return response != null ? response.getBody() : null;
+            RateExchangeOutput output = response != null ? response.getBody() : null;
+            rememberLastKnownGoodRate(country, output);
+            recordFetch("feign", country, start, output != null);
+            return output;
         } catch (Exception e) {
+            log.warn("{}Request failed for country: {} with record date limit: {}: {}", LOG_PREFIX, country, record_date_limit, e.toString());
+            recordFetch("feign", country, start, false);
             return null;
         }
     }
+
+    /**
+     * Retrieves rate exchange data from the Treasury API through the WebClient based client.
+     *
+     * @param country           The country for which rate exchange data is requested.
+     * @param record_date_limit The date limit for rate exchange records.
+     * @return Mono emitting the RateExchangeOutput, or empty if the request failed, timed out or was rejected.
+     */
+    private Mono<RateExchangeOutput> fetchTreasureRateReactive(String country, String record_date_limit) {
+        // Constructing the filter parameter for the API request
+        String filter = "country:eq:" + country + ",record_date:gt:" + record_date_limit;
+
+        log.debug(LOG_PREFIX + "Fetching rate exchange data reactively for country: {} with record date limit: {}", country, record_date_limit);
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return reactiveClient.getRateExchange("json", filter, "-effective_date")
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .transformDeferred(RetryOperator.of(retry))
+                    .doOnNext(output -> {
+                        rememberLastKnownGoodRate(country, output);
+                        recordFetch("webclient", country, start, true);
+                    })
+                    .onErrorResume(e -> {
+                        log.warn("{}Reactive request failed for country: {} with record date limit: {}: {}", LOG_PREFIX, country, record_date_limit, e.toString());
+                        recordFetch("webclient", country, start, false);
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    /**
+     * Records the duration of a Treasury fetch, retries included, tagged by client, country and outcome.
+     *
+     * @param clientName The client used for the fetch.
+     * @param country    The country of the fetch.
+     * @param start      The System.nanoTime() at which the fetch started.
+     * @param success    Whether the fetch returned rate exchange data.
+     */
+    private void recordFetch(String clientName, String country, long start, boolean success) {
+        Timer.builder("treasury.rate.fetch")
+                .tag("client", clientName)
+                .tag("country", country)
+                .tag("outcome", success ? "SUCCESS" : "ERROR")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Keeps the most recent rate of a successful Treasury response as the last known good rate of the country.
+     *
+     * @param country The country of the response.
+     * @param output  The Treasury response.
+     */
+    private void rememberLastKnownGoodRate(String country, RateExchangeOutput output) {
+        if (output == null || output.getData() == null) {
+            return;
+        }
+        output.getData().stream()
+                .filter(data -> data.getRecord_date() != null)
+                .max(Comparator.comparing(RateExchangeOutput.Data::getRecord_date))
+                .ifPresent(latest -> lastKnownGoodRates.merge(country, latest,
+                        (current, candidate) -> candidate.getRecord_date().isAfter(current.getRecord_date()) ? candidate : current));
+    }
+
+    /**
+     * Returns the last known good rate of the country when its record date is within the window,
+     * so the 6 months rule still holds while the Treasury API is unavailable.
+     *
+     * @param country           The country for which rate exchange data is requested.
+     * @param record_date_limit The date limit for rate exchange records.
+     * @return RateExchangeOutput with the last known good rate, or null if there is none within the window.
+     */
+    private RateExchangeOutput lastKnownGoodRate(String country, String record_date_limit) {
+        RateExchangeOutput.Data lastKnownGood = lastKnownGoodRates.get(country);
+        if (lastKnownGood == null || !lastKnownGood.getRecord_date().isAfter(LocalDate.parse(record_date_limit))) {
+            return null;
+        }
+        log.warn("{}Serving last known good rate for country: {} recorded on: {}", LOG_PREFIX, country, lastKnownGood.getRecord_date());
+        return RateExchangeOutput.builder().data(List.of(lastKnownGood)).build();
+    }
+
+    /**
+     * Cache key identifying a Treasury request by country and record date window.
+     */
+    private record RateExchangeCacheKey(String country, String recordDateLimit) {
+    }
 }
@@ -0,0 +1,123 @@
+package com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.client.FiscalDataTreasuryRateExchangeClient;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
+import com.purchase.domain.entity.RateExchange;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.conversion.RecomputePurchaseConversionsUsecase;
+import com.purchase.domain.usecase.purchase.conversion.RecomputePurchaseConversionsUsecase.IngestedRates;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsUsecase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@Slf4j
+public class FiscalDataTreasuryRateExchangeSyncService {
+
+    private static final String LOG_PREFIX = "[TREASURY RATE EXCHANGE SYNC SERVICE] - ";
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeClient client; // Autowired instance of the Feign client
+
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider; // Autowired instance of the local rate store
+
+    @Autowired
+    private RecomputePurchaseConversionsUsecase recomputePurchaseConversionsUsecase; // Recomputes the conversions the new rates affect
+
+    @Autowired
+    private GetPurchaseTotalsUsecase getPurchaseTotalsUsecase; // Holds the converted totals of closed periods the new rates may change
+
+    @Value("${treasury.sync.start-date:2001-01-01}")
+    private LocalDate startDate; // Oldest record date loaded by a full sync
+
+    @Value("${treasury.sync.page-size:1000}")
+    private int pageSize; // Number of records requested per page
+
+    private final AtomicBoolean running = new AtomicBoolean(); // Prevents overlapping syncs
+
+    /**
+     * Pages through the Treasury rates of exchange dataset and stores it in the local store.
+     * The first run loads everything since the configured start date, later runs only fetch
+     * records from the latest stored record date onwards. Once the new rates are published, the
+     * materialized conversions they affect are recomputed and the cached converted totals dropped.
+     *
+     * @return The number of rates stored, or -1 if a sync was already running.
+     */
+    public int synchronize() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("{}Sync already running, skipping", LOG_PREFIX);
+            return -1;
+        }
+        try {
+            LocalDate latestRecordDate = rateExchangeDataProvider.getLatestRecordDate();
+            LocalDate fromDate = latestRecordDate != null ? latestRecordDate : startDate;
+            String filter = "record_date:gte:" + fromDate;
+
+            log.info("{}Starting {} sync from record date: {}", LOG_PREFIX, latestRecordDate != null ? "incremental" : "full", fromDate);
+
+            int stored = 0;
+            int totalPages = 1;
+            Map<String, IngestedRates> ingestedRates = new HashMap<>(); // Effective date range fetched per country
+            for (int page = 1; page <= totalPages; page++) {
+                // Sorting by record date keeps pages in the order the local store expects
+                ResponseEntity<RateExchangeOutput> response = client.getRateExchangePage("json", filter, "record_date", page, pageSize);
+                RateExchangeOutput output = response != null ? response.getBody() : null;
+                if (output == null || output.getData() == null) {
+                    throw new IllegalStateException("Empty response for page " + page);
+                }
+                if (output.getMeta() != null) {
+                    totalPages = output.getMeta().getTotalPages();
+                }
+                List<RateExchange> rates = output.getData().stream().map(this::toRateExchange).toList();
+                stored += rateExchangeDataProvider.saveRates(rates);
+                rates.forEach(rate -> ingestedRates.merge(rate.getCountry(),
+                        new IngestedRates(rate.getCountry(), rate.getEffectiveDate(), rate.getEffectiveDate()), IngestedRates::merge));
+            }
+
+            // Publish the new rates to readers of the in-memory index
+            if (stored > 0 || latestRecordDate == null) {
+                rateExchangeDataProvider.refreshIndex();
+            }
+            if (stored > 0) {
+                try {
+                    recomputePurchaseConversionsUsecase.execute(ingestedRates.values());
+                } finally {
+                    // The cached totals were converted with the replaced rates, whether the recompute succeeded or not
+                    getPurchaseTotalsUsecase.evictConvertedTotals();
+                }
+            }
+
+            log.info("{}Sync completed, {} new rates stored", LOG_PREFIX, stored);
+            return stored;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Maps a Treasury record to the local rate exchange entity.
+     *
+     * @param data The Treasury record.
+     * @return The rate exchange entity.
+     */
+    private RateExchange toRateExchange(RateExchangeOutput.Data data) {
+        RateExchange rateExchange = new RateExchange();
+        rateExchange.setCountry(data.getCountry());
+        rateExchange.setCurrency(data.getCurrency());
+        rateExchange.setRecordDate(data.getRecord_date());
+        rateExchange.setEffectiveDate(data.getEffective_date());
+        rateExchange.setExchangeRate(BigDecimal.valueOf(data.getExchange_rate()));
+        return rateExchange;
+    }
+}
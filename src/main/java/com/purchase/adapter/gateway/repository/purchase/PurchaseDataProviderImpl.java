@@ -3,29 +3,130 @@ package com.purchase.adapter.gateway.repository.purchase;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
 import com.purchase.domain.entity.Purchase;
 import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseWriteBehindDataProvider;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Component
+@Timed("purchase.dataprovider")
 public class PurchaseDataProviderImpl implements PurchaseDataProvider {
 
     @Autowired
     private PurchaseRepository purchaseRepository; // Autowired instance of the PurchaseRepository
 
+    @Autowired
+    private PurchaseWriteBehindDataProvider purchaseWriteBehindDataProvider; // Holds the purchases queued and not written yet
+
+    @PersistenceContext
+    private EntityManager entityManager; // Entity manager used to persist purchases in batches
+
+    @Value("${purchase.bulk.batch-size:500}")
+    private int batchSize; // Number of purchases persisted between flushes, matching the JDBC batch size
+
     /**
-     * Retrieves a purchase by its ID.
+     * Retrieves a purchase by its ID, from the write-behind queue while it is not written yet, then
+     * from the second-level cache when it holds it.
+     * The read-only transaction skips the dirty-checking snapshot and the flush.
      *
      * @param id The ID of the purchase to retrieve.
      * @return The purchase object if found, otherwise null.
      */
     @Override
+    @Transactional(readOnly = true)
     public Purchase getPurchaseById(UUID id) {
+        // A purchase leaves the queue only once stored, so checking the queue first never misses it
+        Purchase queued = purchaseWriteBehindDataProvider.getQueuedPurchase(id);
+        if (queued != null) {
+            return queued;
+        }
         return purchaseRepository.findById(id).orElse(null); // Retrieves a purchase by its ID from the repository
     }
 
+    /**
+     * Retrieves the purchases with the given IDs, taking the queued ones from the write-behind queue,
+     * the cached ones from the second-level cache and loading the others in a single query.
+     *
+     * @param ids The IDs of the purchases to retrieve.
+     * @return The purchases found, in no particular order.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Purchase> getPurchasesByIds(Collection<UUID> ids) {
+        List<Purchase> purchases = new ArrayList<>();
+        List<UUID> stored = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Purchase queued = purchaseWriteBehindDataProvider.getQueuedPurchase(id);
+            if (queued != null) {
+                purchases.add(queued);
+            } else {
+                stored.add(id);
+            }
+        }
+        if (!stored.isEmpty()) {
+            entityManager.unwrap(Session.class).byMultipleIds(Purchase.class)
+                    .with(CacheMode.NORMAL) // The second-level cache is only checked with an explicit cache mode
+                    .multiLoad(stored).stream()
+                    .filter(Objects::nonNull) // Unknown IDs are returned as null
+                    .forEach(purchases::add);
+        }
+        return purchases;
+    }
+
+    /**
+     * Retrieves a page of the purchases with a purchase date within the range, ordered by purchase
+     * date and ID, starting right after the given purchase.
+     * Each page is read in its own transaction, so its persistence context is closed before the next page is read.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param after The last purchase of the previous page, or null for the first page.
+     * @param size  The maximum number of purchases returned.
+     * @return The page of purchases, shorter than size only when it is the last one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Purchase> getPurchasesPage(LocalDate from, LocalDate to, Purchase after, int size) {
+        return after == null
+                ? purchaseRepository.findFirstPage(from, to, Limit.of(size))
+                : purchaseRepository.findPageAfter(after.getPurchaseDate(), after.getId(), to, Limit.of(size));
+    }
+
+    /**
+     * Retrieves a page of the purchases with a purchase date within the range, ordered by their
+     * time-ordered ID, starting right after the given ID.
+     * Each page is read in its own transaction, so its persistence context is closed before the next page is read.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param after The ID of the last purchase of the previous page, or null for the first page.
+     * @param size  The maximum number of purchases returned.
+     * @return The page of purchases, shorter than size only when it is the last one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Purchase> getPurchasesCreatedPage(LocalDate from, LocalDate to, UUID after, int size) {
+        return after == null
+                ? purchaseRepository.findFirstCreatedPage(from, to, Limit.of(size))
+                : purchaseRepository.findCreatedPageAfter(after, from, to, Limit.of(size));
+    }
+
     /**
      * Creates or updates a purchase using the provided input.
      *
@@ -36,6 +137,36 @@ public class PurchaseDataProviderImpl implements PurchaseDataProvider {
     public Purchase createPurchase(CreatePurchaseInput createPurchaseInput) {
         Purchase purchase = new Purchase(); // Create a new Purchase object
         BeanUtils.copyProperties(createPurchaseInput, purchase); // Copy properties from the input to the Purchase object
+        purchase.setDolarPrice(Money.of(createPurchaseInput.getDolarPrice())); // The price is held in cents
         return purchaseRepository.save(purchase); // Save the purchase object to the repository
     }
+
+    /**
+     * Creates purchases in a single transaction using JDBC batch inserts.
+     * The persistence context is flushed and cleared every batch so memory stays flat
+     * regardless of the number of purchases.
+     *
+     * @param createPurchaseInputs The validated input data of the purchases to create.
+     * @return The number of purchases created.
+     */
+    @Override
+    @Transactional
+    public int createPurchases(List<CreatePurchaseInput> createPurchaseInputs) {
+        int count = 0;
+        for (CreatePurchaseInput createPurchaseInput : createPurchaseInputs) {
+            Purchase purchase = new Purchase();
+            purchase.setDescription(createPurchaseInput.getDescription());
+            purchase.setPurchaseDate(createPurchaseInput.getPurchaseDate());
+            purchase.setDolarPrice(Money.of(createPurchaseInput.getDolarPrice()));
+            entityManager.persist(purchase); // The id is generated in memory, the insert is queued in the batch
+
+            if (++count % batchSize == 0) {
+                entityManager.flush(); // Send the JDBC batch
+                entityManager.clear(); // Detach the persisted purchases
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return count;
+    }
 }
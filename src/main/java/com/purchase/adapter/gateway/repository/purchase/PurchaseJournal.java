@@ -0,0 +1,425 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.valueobject.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the purchases accepted and not stored yet, on fixed-size memory-mapped
+ * segment files. A record is a length, a CRC32C and the encoded purchase; a zero length ends a
+ * segment. Appends are copied into the mapping under a short lock and made durable by a group
+ * commit: the first waiting appender flushes the mapping for every record written so far, and the
+ * appenders arriving meanwhile wait for it instead of flushing again.
+ * <p>
+ * A segment is rolled when the next record does not fit, and deleted once it is rolled and every
+ * record in it is confirmed as stored. The segments found when the journal is opened are read back
+ * by {@link #recover()}, up to the first torn or corrupt record, which was never acknowledged.
+ */
+@Slf4j
+public class PurchaseJournal implements Closeable {
+    private static final String LOG_PREFIX = "[PURCHASE JOURNAL] - ";
+    private static final String SEGMENT_PREFIX = "purchase-journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_BYTES = Integer.BYTES * 2; // Payload length and CRC32C
+    private static final int FIXED_PAYLOAD_BYTES = Long.BYTES * 3 + Integer.BYTES + Short.BYTES; // ID, price, date and description length
+    private static final int MAX_DESCRIPTION_BYTES = 255 * 4; // The description column holds 255 characters of up to 4 UTF-8 bytes
+
+    private final Path directory; // Directory holding the segment files
+    private final int segmentSize; // Size of every segment file, in bytes
+    private final List<Path> recovered; // Segments found on open, read back by recover and deleted by discardRecovered
+
+    private final ReentrantLock appendLock = new ReentrantLock(); // Serializes the copies into the active segment
+    private Segment active; // Segment receiving the appends, guarded by appendLock
+    private long written; // Journal position after the last record copied, guarded by appendLock
+
+    private final Object syncMonitor = new Object(); // Coordinates the group commit
+    private long durable; // Journal position up to which the records are flushed, guarded by syncMonitor
+    private boolean syncing; // Whether an appender is flushing for the others, guarded by syncMonitor
+
+    /**
+     * Opens the journal in a directory, keeping the segments already there for recovery and
+     * starting a new segment after them.
+     *
+     * @param directory   The directory holding the segment files, created if missing.
+     * @param segmentSize The size of every segment file, in bytes.
+     * @throws IOException If the directory or the new segment cannot be created.
+     */
+    public PurchaseJournal(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < HEADER_BYTES + FIXED_PAYLOAD_BYTES + MAX_DESCRIPTION_BYTES + Integer.BYTES) {
+            throw new IllegalArgumentException("The segment size cannot hold a purchase: " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        try (Stream<Path> files = Files.list(directory)) {
+            this.recovered = files.filter(PurchaseJournal::isSegment).sorted().toList();
+        }
+        long next = recovered.isEmpty() ? 0 : index(recovered.get(recovered.size() - 1)) + 1;
+        this.active = Segment.create(segmentPath(next), next, segmentSize);
+        this.written = position(active, 0);
+        this.durable = written;
+    }
+
+    /**
+     * Reads back the purchases of the segments found when the journal was opened, in append order.
+     * The records following a torn or corrupt record of a segment are skipped.
+     *
+     * @return The purchases recovered, some of which may already be stored.
+     * @throws IOException If a segment cannot be read.
+     */
+    public List<Purchase> recover() throws IOException {
+        List<Purchase> purchases = new ArrayList<>();
+        for (Path path : recovered) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int records = read(buffer, purchases);
+                log.info("{}Recovered {} purchases from {}", LOG_PREFIX, records, path.getFileName());
+            }
+        }
+        return purchases;
+    }
+
+    /**
+     * Deletes the segments found when the journal was opened, once their purchases are stored.
+     *
+     * @throws IOException If a segment cannot be deleted.
+     */
+    public void discardRecovered() throws IOException {
+        for (Path path : recovered) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Appends a purchase and waits until it is durable.
+     *
+     * @param purchase The purchase to append, with its ID assigned.
+     * @return The segment holding the record, to confirm once the purchase is stored.
+     */
+    public Segment append(Purchase purchase) {
+        ByteBuffer record = encode(purchase); // Encoded outside the lock
+        Segment segment;
+        long end;
+        appendLock.lock();
+        try {
+            if (active.buffer.remaining() < record.remaining() + Integer.BYTES) {
+                roll(); // The zero length left after the last record ends the segment
+            }
+            segment = active;
+            segment.buffer.put(record);
+            segment.unconfirmed.incrementAndGet();
+            end = position(segment, segment.buffer.position());
+            written = end;
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(end);
+        return segment;
+    }
+
+    /**
+     * Confirms that a purchase appended in a segment is stored, deleting the segment once it is
+     * rolled and every purchase in it is confirmed.
+     *
+     * @param segment The segment returned by the append.
+     */
+    public void confirm(Segment segment) {
+        if (segment.unconfirmed.decrementAndGet() == 0 && segment.sealed) {
+            segment.delete();
+        }
+    }
+
+    /**
+     * Flushes and closes the active segment, deleting it when every purchase in it is confirmed.
+     */
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            active.buffer.force();
+            seal(active);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of segment files in the journal directory.
+     *
+     * @return The number of segment files.
+     * @throws IOException If the directory cannot be listed.
+     */
+    public long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(PurchaseJournal::isSegment).count();
+        }
+    }
+
+    /**
+     * Waits until the journal is flushed up to a position. When no appender is flushing, the caller
+     * flushes every record written so far, so appenders arriving during a flush share the next one.
+     *
+     * @param position The journal position after the record to make durable.
+     */
+    private void awaitDurable(long position) {
+        while (true) {
+            synchronized (syncMonitor) {
+                while (syncing && durable < position) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for the journal flush", e);
+                    }
+                }
+                if (durable >= position) {
+                    return;
+                }
+                syncing = true;
+            }
+
+            Segment segment;
+            long target;
+            appendLock.lock();
+            try {
+                segment = active; // Rolled segments are flushed by the roll
+                target = written;
+            } finally {
+                appendLock.unlock();
+            }
+            boolean flushed = false;
+            try {
+                segment.buffer.force();
+                flushed = true;
+            } finally {
+                synchronized (syncMonitor) {
+                    syncing = false;
+                    if (flushed) {
+                        durable = Math.max(durable, target);
+                    }
+                    syncMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes and seals the active segment and starts the next one.
+     */
+    private void roll() {
+        Segment previous = active;
+        previous.buffer.force();
+        try {
+            active = Segment.create(segmentPath(previous.index + 1), previous.index + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written = position(active, 0);
+        seal(previous);
+    }
+
+    /**
+     * Seals a segment, deleting it when every purchase in it is already confirmed.
+     *
+     * @param segment The segment to seal.
+     */
+    private void seal(Segment segment) {
+        segment.sealed = true;
+        if (segment.unconfirmed.get() == 0) {
+            segment.delete();
+        }
+    }
+
+    /**
+     * Reads the records of a segment up to its end or its first invalid record.
+     *
+     * @param buffer    The segment contents.
+     * @param purchases The list receiving the purchases read.
+     * @return The number of records read.
+     */
+    private int read(ByteBuffer buffer, List<Purchase> purchases) {
+        CRC32C crc = new CRC32C();
+        int records = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length == 0) {
+                break; // End of the segment
+            }
+            if (length < FIXED_PAYLOAD_BYTES || length > buffer.remaining()) {
+                log.warn("{}Invalid record length {} at position {}", LOG_PREFIX, length, buffer.position() - HEADER_BYTES);
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("{}Checksum mismatch at position {}", LOG_PREFIX, buffer.position() - HEADER_BYTES);
+                break;
+            }
+            purchases.add(decode(payload));
+            buffer.position(buffer.position() + length);
+            records++;
+        }
+        return records;
+    }
+
+    /**
+     * Encodes a purchase as a record: payload length, CRC32C of the payload, then the ID, the price
+     * in cents, the date as an epoch day and the UTF-8 description.
+     *
+     * @param purchase The purchase to encode.
+     * @return The record, ready to be read.
+     */
+    private static ByteBuffer encode(Purchase purchase) {
+        byte[] description = purchase.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (description.length > MAX_DESCRIPTION_BYTES) {
+            throw new IllegalArgumentException("The description is too long to be journaled");
+        }
+        int length = FIXED_PAYLOAD_BYTES + description.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+        record.putInt(length).putInt(0); // The checksum is set once the payload is written
+        record.putLong(purchase.getId().getMostSignificantBits())
+                .putLong(purchase.getId().getLeastSignificantBits())
+                .putLong(purchase.getDolarPrice().cents())
+                .putInt((int) purchase.getPurchaseDate().toEpochDay())
+                .putShort((short) description.length)
+                .put(description);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_BYTES, length);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        return record.flip();
+    }
+
+    /**
+     * Decodes the payload of a record.
+     *
+     * @param payload The payload, positioned at its start.
+     * @return The purchase.
+     */
+    private static Purchase decode(ByteBuffer payload) {
+        Purchase purchase = new Purchase();
+        purchase.setId(new UUID(payload.getLong(), payload.getLong()));
+        purchase.setDolarPrice(new Money(payload.getLong()));
+        purchase.setPurchaseDate(LocalDate.ofEpochDay(payload.getInt()));
+        byte[] description = new byte[payload.getShort()];
+        payload.get(description);
+        purchase.setDescription(new String(description, StandardCharsets.UTF_8));
+        return purchase;
+    }
+
+    /**
+     * Returns the journal position of an offset within a segment, increasing across segments.
+     *
+     * @param segment The segment.
+     * @param offset  The offset within the segment.
+     * @return The journal position.
+     */
+    private long position(Segment segment, int offset) {
+        return segment.index * segmentSize + offset;
+    }
+
+    /**
+     * Returns the path of a segment, named after its zero-padded index so that names sort in order.
+     *
+     * @param index The index of the segment.
+     * @return The path of the segment file.
+     */
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Checks whether a file is a journal segment.
+     *
+     * @param path The file.
+     * @return True if the file is named as a segment.
+     */
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the index of a segment from its file name.
+     *
+     * @param path The segment file.
+     * @return The index of the segment.
+     */
+    private static long index(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Segment file of the journal, mapped in memory while it is active.
+     */
+    public static final class Segment {
+        private final long index; // Position of the segment in the journal
+        private final Path path; // Segment file
+        private final MappedByteBuffer buffer; // Mapping of the whole file, positioned after the last record
+        private final AtomicInteger unconfirmed = new AtomicInteger(); // Records appended and not confirmed as stored
+        private final AtomicBoolean deleted = new AtomicBoolean(); // Whether the file was deleted
+        private volatile boolean sealed; // Whether the segment was rolled or closed and receives no more records
+
+        /**
+         * Wraps a mapped segment file.
+         *
+         * @param index  The index of the segment.
+         * @param path   The segment file.
+         * @param buffer The mapping of the file.
+         */
+        private Segment(long index, Path path, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Creates a zero-filled segment file of a fixed size and maps it. The mapping outlives the channel.
+         *
+         * @param path  The segment file.
+         * @param index The index of the segment.
+         * @param size  The size of the file, in bytes.
+         * @return The mapped segment.
+         * @throws IOException If the file cannot be created or mapped.
+         */
+        private static Segment create(Path path, long index, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        /**
+         * Deletes the segment file once. The mapping is released when the buffer is collected.
+         */
+        private void delete() {
+            if (deleted.compareAndSet(false, true)) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("{}Could not delete {}: {}", LOG_PREFIX, path.getFileName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,68 @@
 package com.purchase.adapter.gateway.repository.purchase;
 
 import com.purchase.domain.entity.Purchase;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PurchaseRepository extends JpaRepository<Purchase, UUID> {
+
+    /**
+     * Finds the first purchases with a purchase date within the range, ordered by purchase date and ID.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param limit The maximum number of purchases returned.
+     * @return The first page of purchases.
+     */
+    @Query("select p from Purchase p where p.purchaseDate between :from and :to order by p.purchaseDate, p.id")
+    List<Purchase> findFirstPage(@Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
+
+    /**
+     * Finds the purchases following the given (purchase date, ID) key up to the newest purchase date
+     * accepted, ordered by purchase date and ID. The key seeks the index instead of skipping rows.
+     *
+     * @param lastPurchaseDate The purchase date of the last purchase of the previous page.
+     * @param lastId           The ID of the last purchase of the previous page.
+     * @param to               The newest purchase date accepted, inclusive.
+     * @param limit            The maximum number of purchases returned.
+     * @return The next page of purchases.
+     */
+    @Query("select p from Purchase p where p.purchaseDate <= :to"
+            + " and (p.purchaseDate > :lastPurchaseDate or (p.purchaseDate = :lastPurchaseDate and p.id > :lastId))"
+            + " order by p.purchaseDate, p.id")
+    List<Purchase> findPageAfter(@Param("lastPurchaseDate") LocalDate lastPurchaseDate, @Param("lastId") UUID lastId,
+                                 @Param("to") LocalDate to, Limit limit);
+
+    /**
+     * Finds the first purchases with a purchase date within the range, ordered by ID, that is by creation.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param limit The maximum number of purchases returned.
+     * @return The first page of purchases.
+     */
+    @Query("select p from Purchase p where p.purchaseDate between :from and :to order by p.id")
+    List<Purchase> findFirstCreatedPage(@Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
+
+    /**
+     * Finds the purchases created after the given ID with a purchase date within the range, ordered by ID.
+     * The time-ordered ID alone is the key, so the page seeks the primary key index.
+     *
+     * @param lastId The ID of the last purchase of the previous page.
+     * @param from   The oldest purchase date accepted, inclusive.
+     * @param to     The newest purchase date accepted, inclusive.
+     * @param limit  The maximum number of purchases returned.
+     * @return The next page of purchases.
+     */
+    @Query("select p from Purchase p where p.id > :lastId and p.purchaseDate between :from and :to order by p.id")
+    List<Purchase> findCreatedPageAfter(@Param("lastId") UUID lastId, @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to, Limit limit);
 }
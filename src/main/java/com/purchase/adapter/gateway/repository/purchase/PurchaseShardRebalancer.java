@@ -0,0 +1,113 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.entity.Purchase;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "purchase.sharding.enabled", havingValue = "true")
+public class PurchaseShardRebalancer {
+    private static final String LOG_PREFIX = "[PURCHASE SHARD REBALANCER] - ";
+    private static final String SELECT = "select " + PurchaseShards.COLUMNS + " from purchase";
+
+    @Autowired
+    private PurchaseShards purchaseShards; // Connection pools of the shards and the routing of the IDs
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry of the timers and pool meters of the removed shards
+
+    @Value("${purchase.sharding.rebalance-batch-size:1000}")
+    private int batchSize; // Purchases read and moved at a time
+
+    @Value("${purchase.sharding.urls}")
+    private List<String> urls; // JDBC URLs of the current shards
+
+    @Value("${purchase.sharding.rebalance-from-urls:}")
+    private List<String> previousUrls; // JDBC URLs of the shards before the change, the ones no longer listed are emptied
+
+    @Value("${purchase.sharding.username}")
+    private String username; // Username of the shards
+
+    @Value("${purchase.sharding.password}")
+    private String password; // Password of the shards
+
+    @Value("${spring.flyway.locations:classpath:db/migration}")
+    private String migrations; // Flyway locations of the migrations
+
+    /**
+     * Moves every purchase stored on a shard other than the one its ID belongs to, after the shard
+     * list changed. The shards of purchase.sharding.rebalance-from-urls that are no longer listed
+     * are emptied into the current ones, so a shrunk list loses no purchase. It runs offline, while
+     * no purchase is created or read: a purchase is inserted on its shard before it is deleted from
+     * the old one, so an interrupted run leaves duplicates that the next run removes, and never
+     * loses a purchase.
+     *
+     * @return The number of purchases moved.
+     */
+    public long rebalance() {
+        long moved = 0;
+        Set<String> currentUrls = Set.copyOf(urls);
+        List<String> removedUrls = previousUrls.stream().filter(url -> !url.isBlank() && !currentUrls.contains(url)).toList();
+        if (!removedUrls.isEmpty()) {
+            try (PurchaseShards removedShards = new PurchaseShards(removedUrls, username, password, 2, migrations, meterRegistry, "purchase-shard-removed-")) {
+                for (int shard = 0; shard < removedShards.size(); shard++) {
+                    long movedFromShard = move(removedShards, shard);
+                    log.info("{}Moved {} purchases off removed shard {}", LOG_PREFIX, movedFromShard, removedUrls.get(shard));
+                    moved += movedFromShard;
+                }
+            }
+        }
+        for (int shard = 0; shard < purchaseShards.size(); shard++) {
+            long movedFromShard = move(purchaseShards, shard);
+            log.info("{}Moved {} purchases off shard {}", LOG_PREFIX, movedFromShard, shard);
+            moved += movedFromShard;
+        }
+        return moved;
+    }
+
+    /**
+     * Walks a shard in ID order, moving the purchases that belong to another current shard, which
+     * is every purchase of a removed shard.
+     *
+     * @param sources The shards the source belongs to, the current ones or the removed ones.
+     * @param source  The index of the shard to walk.
+     * @return The number of purchases moved off the shard.
+     */
+    private long move(PurchaseShards sources, int source) {
+        boolean removed = sources != purchaseShards;
+        long moved = 0;
+        UUID after = null;
+        while (true) {
+            UUID last = after;
+            List<Purchase> page = sources.on(source, "rebalance_read", template -> last == null
+                    ? template.query(SELECT + " order by id limit ?", PurchaseShards.ROW_MAPPER, batchSize)
+                    : template.query(SELECT + " where id > ? order by id limit ?", PurchaseShards.ROW_MAPPER, last, batchSize));
+            if (page.isEmpty()) {
+                return moved;
+            }
+            Map<Integer, List<Purchase>> misplaced = page.stream()
+                    .filter(purchase -> removed || purchaseShards.shardOf(purchase.getId()) != source)
+                    .collect(Collectors.groupingBy(purchase -> purchaseShards.shardOf(purchase.getId())));
+            for (Map.Entry<Integer, List<Purchase>> target : misplaced.entrySet()) {
+                purchaseShards.insert(target.getKey(), target.getValue());
+                List<UUID> ids = target.getValue().stream().map(Purchase::getId).toList();
+                sources.on(source, "rebalance_delete", template -> template.update(
+                        "delete from purchase where id in (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray()));
+                moved += ids.size();
+            }
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+}
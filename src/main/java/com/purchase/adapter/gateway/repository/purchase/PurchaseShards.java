@@ -0,0 +1,181 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.valueobject.Money;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Databases holding the purchases split by a hash of their ID, each with its own connection pool.
+ * The pools are named purchase-shard-N, so their hikaricp.* meters are tagged by shard, and every
+ * statement run through {@link #on} is timed as purchase.shard, tagged by shard and operation.
+ * <p>
+ * A purchase belongs to the shard given by its random low bits modulo the number of shards, so
+ * changing the number of shards moves most purchases, which {@link PurchaseShardRebalancer} does offline.
+ */
+@Slf4j
+public class PurchaseShards implements Closeable {
+    private static final String LOG_PREFIX = "[PURCHASE SHARDS] - ";
+    public static final String SHARD_TIMER = "purchase.shard"; // Timer of the statements run on a shard
+    public static final String COLUMNS = "id, description, purchase_date, dolar_price"; // Columns of a purchase, in the row mapper order
+
+    // IDs compared as unsigned bytes, the order of the uuid type in PostgreSQL and H2
+    public static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    public static final RowMapper<Purchase> ROW_MAPPER = (row, rowNum) -> {
+        Purchase purchase = new Purchase();
+        purchase.setId(row.getObject(1, UUID.class));
+        purchase.setDescription(row.getString(2));
+        purchase.setPurchaseDate(row.getObject(3, LocalDate.class));
+        purchase.setDolarPrice(Money.of(row.getBigDecimal(4)));
+        return purchase;
+    };
+
+    // Inserts of a purchase already on the shard are skipped, so a batch can be run again
+    private static final String INSERT_SQL = "insert into purchase (" + COLUMNS + ") values (?, ?, ?, ?) on conflict do nothing";
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>(); // Connection pool of each shard
+    private final List<JdbcTemplate> templates = new ArrayList<>(); // Statements of each shard
+    private final List<TransactionTemplate> transactions = new ArrayList<>(); // Transactions of each shard
+    private final MeterRegistry meterRegistry; // Registry of the shard timers and pool meters
+    private final int poolSize; // Maximum number of connections of each pool
+
+    /**
+     * Opens a connection pool on each shard and migrates its schema.
+     *
+     * @param urls            The JDBC URL of each shard, in shard order.
+     * @param username        The username of the shards.
+     * @param password        The password of the shards.
+     * @param poolSize        The maximum number of connections of each pool.
+     * @param migrations      The Flyway locations of the migrations.
+     * @param meterRegistry   The registry of the shard timers and pool meters.
+     */
+    public PurchaseShards(List<String> urls, String username, String password, int poolSize, String migrations, MeterRegistry meterRegistry) {
+        this(urls, username, password, poolSize, migrations, meterRegistry, "purchase-shard-");
+    }
+
+    /**
+     * Opens a connection pool on each shard and migrates its schema, naming the pools with the given prefix.
+     *
+     * @param urls           The JDBC URL of each shard, in shard order.
+     * @param username       The username of the shards.
+     * @param password       The password of the shards.
+     * @param poolSize       The maximum number of connections of each pool.
+     * @param migrations     The Flyway locations of the migrations.
+     * @param meterRegistry  The registry of the shard timers and pool meters.
+     * @param poolNamePrefix The prefix of the pool names, followed by the shard index.
+     */
+    public PurchaseShards(List<String> urls, String username, String password, int poolSize, String migrations,
+                          MeterRegistry meterRegistry, String poolNamePrefix) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard URL is required");
+        }
+        this.meterRegistry = meterRegistry;
+        this.poolSize = poolSize;
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(poolNamePrefix + shard);
+            config.setJdbcUrl(urls.get(shard));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            HikariDataSource dataSource = new HikariDataSource(config);
+            dataSources.add(dataSource);
+            templates.add(new JdbcTemplate(dataSource));
+            transactions.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+            Flyway.configure().dataSource(dataSource).locations(migrations).load().migrate();
+        }
+        log.info("{}Opened {} shards", LOG_PREFIX, urls.size());
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * Returns the maximum number of connections of each shard pool.
+     *
+     * @return The pool size of a shard.
+     */
+    public int poolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Returns the shard of a purchase from the random bits of its ID, as the leading bits of a
+     * UUIDv7 are its creation time.
+     *
+     * @param id The ID of the purchase.
+     * @return The index of the shard.
+     */
+    public int shardOf(UUID id) {
+        return Math.floorMod(Long.hashCode(id.getLeastSignificantBits()), templates.size());
+    }
+
+    /**
+     * Runs statements on a shard, timing them.
+     *
+     * @param shard     The index of the shard.
+     * @param operation The name of the operation, tagging the timer.
+     * @param action    The statements to run.
+     * @return The result of the statements.
+     */
+    public <T> T on(int shard, String operation, Function<JdbcTemplate, T> action) {
+        return Timer.builder(SHARD_TIMER)
+                .tag("shard", String.valueOf(shard))
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(() -> action.apply(templates.get(shard)));
+    }
+
+    /**
+     * Inserts purchases on a shard in a single JDBC batch and transaction, skipping the ones already
+     * there, so either every purchase given is on the shard afterwards or none of them was inserted.
+     *
+     * @param shard     The index of the shard.
+     * @param purchases The purchases to insert.
+     * @return The number of purchases given.
+     */
+    public int insert(int shard, List<Purchase> purchases) {
+        on(shard, "insert", template -> transactions.get(shard).execute(status -> template.batchUpdate(INSERT_SQL, purchases, purchases.size(), (statement, purchase) -> {
+            statement.setObject(1, purchase.getId());
+            statement.setString(2, purchase.getDescription());
+            statement.setObject(3, purchase.getPurchaseDate());
+            statement.setBigDecimal(4, purchase.getDolarPrice().toBigDecimal());
+        })));
+        return purchases.size();
+    }
+
+    /**
+     * Closes the connection pools.
+     */
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,88 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseTotalsDataProvider;
+import com.purchase.domain.usecase.purchase.totals.PurchasePeriodStats;
+import com.purchase.domain.usecase.purchase.totals.TotalsPeriod;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+@Component
+@Timed("purchase.dataprovider")
+public class PurchaseTotalsDataProviderImpl implements PurchaseTotalsDataProvider {
+    // Groups of a purchase date and price, served by the purchase date index without sorting
+    static final String DAILY_PRICES_SQL = "select purchase_date, dolar_price, count(*) from purchase"
+            + " where purchase_date between ? and ? group by purchase_date, dolar_price";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Plain JDBC aggregates, no entity is loaded in the persistence context
+
+    /**
+     * Aggregates the dollar prices of the purchases of each period within the range with a single
+     * GROUP BY, the percentiles computed by the database as ordered-set aggregates.
+     *
+     * @param from   The oldest purchase date accepted, inclusive.
+     * @param to     The newest purchase date accepted, inclusive.
+     * @param period The period the purchases are grouped by.
+     * @return The statistics of the periods holding purchases, in date order.
+     */
+    @Override
+    public List<PurchasePeriodStats> getPeriodStats(LocalDate from, LocalDate to, TotalsPeriod period) {
+        String periodColumns = periodColumns(period);
+        String sql = "select " + periodColumns + ", count(*), sum(dolar_price), min(dolar_price), max(dolar_price),"
+                + " percentile_cont(0.5) within group (order by dolar_price),"
+                + " percentile_cont(0.9) within group (order by dolar_price),"
+                + " percentile_cont(0.99) within group (order by dolar_price)"
+                + " from purchase where purchase_date between ? and ?"
+                + " group by " + periodColumns + " order by " + periodColumns;
+        return jdbcTemplate.query(sql, (row, rowNum) -> new PurchasePeriodStats(
+                period.startOf(row.getInt(1), row.getInt(2)),
+                row.getLong(3),
+                Money.of(row.getBigDecimal(4)),
+                Money.of(row.getBigDecimal(5)),
+                Money.of(row.getBigDecimal(6)),
+                Money.of(row.getBigDecimal(7)),
+                Money.of(row.getBigDecimal(8)),
+                Money.of(row.getBigDecimal(9))), from, to);
+    }
+
+    /**
+     * Streams the number of purchases of each purchase date and dollar price within the range, the rows
+     * handled as they are read.
+     *
+     * @param from    The oldest purchase date accepted, inclusive.
+     * @param to      The newest purchase date accepted, inclusive.
+     * @param handler The handler of each group.
+     */
+    @Override
+    public void forEachDailyPrice(LocalDate from, LocalDate to, DailyPriceHandler handler) {
+        jdbcTemplate.query(DAILY_PRICES_SQL, dailyPriceCallback(handler), from, to);
+    }
+
+    /**
+     * Returns the columns of the year and the position in the year of the period of a purchase date.
+     *
+     * @param period The period the purchases are grouped by.
+     * @return The two comma-separated columns.
+     */
+    static String periodColumns(TotalsPeriod period) {
+        return "extract(year from purchase_date), extract(" + period.name().toLowerCase(Locale.ROOT) + " from purchase_date)";
+    }
+
+    /**
+     * Adapts a daily price handler to the rows of {@link #DAILY_PRICES_SQL}.
+     *
+     * @param handler The handler of each group.
+     * @return The row callback.
+     */
+    static RowCallbackHandler dailyPriceCallback(DailyPriceHandler handler) {
+        return row -> handler.accept(row.getObject(1, LocalDate.class), Money.of(row.getBigDecimal(2)), row.getLong(3));
+    }
+}
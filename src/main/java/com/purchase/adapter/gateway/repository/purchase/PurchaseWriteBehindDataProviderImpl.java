@@ -0,0 +1,311 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseWriteBehindDataProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+@Slf4j
+public class PurchaseWriteBehindDataProviderImpl implements PurchaseWriteBehindDataProvider {
+    private static final String LOG_PREFIX = "[PURCHASE WRITE BEHIND] - ";
+    public static final String WRITE_BEHIND_COUNTER = "purchase.write_behind"; // Counter of the purchases by result
+    public static final String QUEUE_GAUGE = "purchase.write_behind.queue"; // Gauge of the purchases queued or being written
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(200); // Pause before a new attempt, times the attempt
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5); // Longest pause between two attempts
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100); // Longest idle wait of the writer between checks
+
+    // Inserts already written by an earlier attempt are skipped, so a batch can be retried as a whole
+    private static final String INSERT_SQL = "insert into purchase (id, description, purchase_date, dolar_price) values (?, ?, ?, ?) on conflict do nothing";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Plain JDBC batches, which leave the second-level cache untouched
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry of the write-behind counters and queue gauge
+
+    @Value("${purchase.write-behind.enabled:false}")
+    private boolean enabled; // Whether new purchases are written in the background
+
+    @Value("${purchase.write-behind.capacity:10000}")
+    private int capacity; // Purchases queued or being written, beyond which callers write synchronously
+
+    @Value("${purchase.write-behind.batch-size:500}")
+    private int batchSize; // Largest number of purchases written in a JDBC batch
+
+    @Value("${purchase.write-behind.drain-timeout:PT30S}")
+    private Duration drainTimeout; // Longest wait on shutdown for the queue to be written
+
+    @Value("${purchase.journal.enabled:false}")
+    private boolean journalEnabled; // Whether queued purchases are journaled before being acknowledged
+
+    @Value("${purchase.journal.directory:data/purchase-journal}")
+    private Path journalDirectory; // Directory of the journal segment files
+
+    @Value("${purchase.journal.segment-size:64MB}")
+    private DataSize journalSegmentSize; // Size of every journal segment file
+
+    private final Queue<QueuedPurchase> queue = new ConcurrentLinkedQueue<>(); // Lock-free queue of the purchases to write
+    private final Map<UUID, Purchase> queued = new ConcurrentHashMap<>(); // Purchases not written yet, by ID, for reads of their own writes
+    private final AtomicInteger size = new AtomicInteger(); // Slots taken in the queue, released once the purchase is written
+
+    private volatile boolean running; // Cleared on shutdown, after which callers write synchronously
+    private volatile boolean idle; // Whether the writer is about to park and needs to be woken up
+    private volatile long drainDeadline; // System.nanoTime() after which a failing batch is given up on shutdown
+    private Thread writer; // Background thread draining the queue
+    private PurchaseJournal journal; // Journal of the queued purchases, or null when journaling is disabled
+
+    /**
+     * Starts the background writer when the write-behind mode is enabled, after storing the
+     * purchases a previous run journaled and did not confirm. The journal only covers queued
+     * purchases, so enabling it without the write-behind mode stops the startup rather than
+     * leave the operator believing it is in effect.
+     *
+     * @throws IOException If the journal cannot be opened or read.
+     */
+    @PostConstruct
+    void startWriter() throws IOException {
+        if (!enabled) {
+            if (journalEnabled) {
+                throw new IllegalStateException("The purchase journal only covers write-behind creation, enable purchase.write-behind.enabled or disable purchase.journal.enabled");
+            }
+            return;
+        }
+        if (journalEnabled) {
+            openJournal();
+        }
+        Gauge.builder(QUEUE_GAUGE, size, AtomicInteger::get).register(meterRegistry);
+        running = true;
+        writer = new Thread(this::drain, "purchase-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting new purchases and waits for the writer to write the queued ones.
+     *
+     * @throws InterruptedException If interrupted while waiting for the writer.
+     */
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(drainTimeout.toMillis());
+        if (writer.isAlive()) {
+            log.error("{}Shutdown drain timed out with {} purchases not written", LOG_PREFIX, size.get());
+        } else {
+            log.info("{}Shutdown drain completed", LOG_PREFIX);
+        }
+        if (journal != null) {
+            journal.close(); // The segment is kept while a purchase in it is not confirmed
+        }
+    }
+
+    /**
+     * Opens the journal and stores the purchases it holds, some of which may already be stored,
+     * before any new purchase is journaled. A failure stops the startup rather than lose them.
+     *
+     * @throws IOException If the journal cannot be opened or read.
+     */
+    private void openJournal() throws IOException {
+        journal = new PurchaseJournal(journalDirectory, (int) journalSegmentSize.toBytes());
+        List<Purchase> recovered = journal.recover();
+        for (int from = 0; from < recovered.size(); from += batchSize) {
+            insert(recovered.subList(from, Math.min(from + batchSize, recovered.size())));
+        }
+        journal.discardRecovered();
+        if (!recovered.isEmpty()) {
+            log.info("{}Replayed {} journaled purchases", LOG_PREFIX, recovered.size());
+            count("replayed", recovered.size());
+        }
+    }
+
+    /**
+     * Checks whether new purchases are written in the background.
+     *
+     * @return True if purchases are queued and written in batches by a background writer.
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a purchase with an assigned ID to be written in the background. A slot is taken before
+     * the writer state is checked, so the writer does not stop while a purchase is being queued. When
+     * the queue is full or the writer is shutting down, the purchase is written by the calling thread,
+     * which slows the callers down to the pace of the database. With the journal enabled, a queued
+     * purchase is durable in the journal before this returns.
+     *
+     * @param purchase The purchase to write, with its ID assigned.
+     * @return True if the purchase was queued, false if it was written before returning.
+     */
+    @Override
+    public boolean write(Purchase purchase) {
+        if (size.incrementAndGet() > capacity || !running) {
+            size.decrementAndGet();
+            insert(List.of(purchase));
+            count(running ? "saturated" : "stopped", 1);
+            return false;
+        }
+        PurchaseJournal.Segment segment = null;
+        if (journal != null) {
+            try {
+                segment = journal.append(purchase);
+            } catch (RuntimeException e) {
+                size.decrementAndGet();
+                throw e;
+            }
+        }
+        queued.put(purchase.getId(), purchase);
+        queue.offer(new QueuedPurchase(purchase, segment));
+        count("queued", 1);
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves a purchase that is queued and not written yet.
+     *
+     * @param id The ID of the purchase.
+     * @return The queued purchase, or null if it is not queued.
+     */
+    @Override
+    public Purchase getQueuedPurchase(UUID id) {
+        return queued.get(id);
+    }
+
+    /**
+     * Writes the queued purchases in batches until the writer is stopped and every slot is released.
+     * Batches grow with the backlog: a single purchase is written right away when the database keeps
+     * up, and up to the batch size are written together during a burst.
+     */
+    private void drain() {
+        List<QueuedPurchase> batch = new ArrayList<>(batchSize);
+        while (running || size.get() > 0) {
+            QueuedPurchase purchase;
+            while (batch.size() < batchSize && (purchase = queue.poll()) != null) {
+                batch.add(purchase);
+            }
+            if (batch.isEmpty()) {
+                park();
+                continue;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Parks the writer until a purchase is queued, checking the queue again after announcing it.
+     */
+    private void park() {
+        idle = true;
+        if (queue.isEmpty() && running) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        idle = false;
+    }
+
+    /**
+     * Writes a batch, retrying it with a growing pause capped at a few seconds, and confirms it in the
+     * journal. The purchases were acknowledged, so a failing batch is retried for as long as the
+     * application runs, holding its slots: once the queue is full, callers write synchronously and
+     * see the database errors themselves. Only on shutdown, past the drain timeout, is a failing batch
+     * logged with its purchase IDs and dropped; when journaled, it stays unconfirmed and is stored
+     * again by the replay of the next startup. The purchases are visible to readers until this returns.
+     *
+     * @param batch The purchases to write.
+     */
+    private void writeBatch(List<QueuedPurchase> batch) {
+        List<Purchase> purchases = batch.stream().map(QueuedPurchase::purchase).toList();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(purchases);
+                count("written", batch.size());
+                if (journal != null) {
+                    batch.forEach(purchase -> journal.confirm(purchase.segment()));
+                }
+                break;
+            } catch (RuntimeException e) {
+                if (!running && System.nanoTime() - drainDeadline >= 0) {
+                    log.error("{}Dropping {} purchases after {} attempts{}: {} {}", LOG_PREFIX, batch.size(), attempt,
+                            journal != null ? ", left in the journal" : "", purchases.stream().map(Purchase::getId).toList(), e.getMessage());
+                    count("failed", batch.size());
+                    break;
+                }
+                log.warn("{}Could not write {} purchases, attempt {}: {}", LOG_PREFIX, batch.size(), attempt, e.getMessage());
+                long pause = Math.min(RETRY_BACKOFF_NANOS * attempt, MAX_RETRY_BACKOFF_NANOS);
+                LockSupport.parkNanos(running ? pause : Math.min(pause, drainDeadline - System.nanoTime()));
+            }
+        }
+        // Released only after the insert, so a purchase is always either queued or stored
+        purchases.forEach(purchase -> queued.remove(purchase.getId()));
+        size.addAndGet(-batch.size());
+    }
+
+    /**
+     * Inserts purchases in a single JDBC batch.
+     *
+     * @param purchases The purchases to insert.
+     */
+    private void insert(List<Purchase> purchases) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, purchases, purchases.size(), (statement, purchase) -> {
+            statement.setObject(1, purchase.getId());
+            statement.setString(2, purchase.getDescription());
+            statement.setObject(3, purchase.getPurchaseDate());
+            statement.setBigDecimal(4, purchase.getDolarPrice().toBigDecimal());
+        });
+    }
+
+    /**
+     * Counts purchases, tagged by result.
+     *
+     * @param result The result of the purchases.
+     * @param amount The number of purchases.
+     */
+    private void count(String result, int amount) {
+        Counter.builder(WRITE_BEHIND_COUNTER)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment(amount);
+    }
+
+    /**
+     * Purchase waiting in the queue with the journal segment holding it.
+     *
+     * @param purchase The purchase to write.
+     * @param segment  The journal segment to confirm once it is written, or null when journaling is disabled.
+     */
+    private record QueuedPurchase(Purchase purchase, PurchaseJournal.Segment segment) {
+    }
+}
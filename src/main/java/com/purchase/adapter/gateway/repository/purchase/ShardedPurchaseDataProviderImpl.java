@@ -0,0 +1,251 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.UuidV7Generator;
+import com.purchase.domain.interfaces.dataprovider.purchase.PartialPurchasesCreationException;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseWriteBehindDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Component
+@Primary
+@ConditionalOnProperty(value = "purchase.sharding.enabled", havingValue = "true")
+@Timed("purchase.dataprovider")
+public class ShardedPurchaseDataProviderImpl implements PurchaseDataProvider {
+    private static final Comparator<Purchase> DATE_ORDER = Comparator.comparing(Purchase::getPurchaseDate)
+            .thenComparing(Purchase::getId, PurchaseShards.ID_ORDER); // Order of the date pages, as in the purchase date index
+    private static final Comparator<Purchase> CREATED_ORDER = Comparator.comparing(Purchase::getId, PurchaseShards.ID_ORDER); // Order of the created pages
+
+    private static final String SELECT = "select " + PurchaseShards.COLUMNS + " from purchase";
+    private static final String FIRST_PAGE_SQL = SELECT + " where purchase_date between ? and ? order by purchase_date, id limit ?";
+    private static final String PAGE_AFTER_SQL = SELECT + " where purchase_date <= ?"
+            + " and (purchase_date > ? or (purchase_date = ? and id > ?)) order by purchase_date, id limit ?";
+    private static final String FIRST_CREATED_PAGE_SQL = SELECT + " where purchase_date between ? and ? order by id limit ?";
+    private static final String CREATED_PAGE_AFTER_SQL = SELECT + " where id > ? and purchase_date between ? and ? order by id limit ?";
+
+    @Autowired
+    private PurchaseShards purchaseShards; // Connection pools of the shards and the routing of the IDs
+
+    @Autowired
+    private PurchaseWriteBehindDataProvider purchaseWriteBehindDataProvider; // Checked to refuse a write-behind queue on the primary database
+
+    private ExecutorService scatterExecutor; // Runs the statements of the scatter-gather calls on every shard at once
+
+    /**
+     * Starts the scatter-gather threads, as many as the connections of every shard pool, so concurrent
+     * calls queue on the shard pools rather than on the threads.
+     */
+    @PostConstruct
+    void initExecutor() {
+        if (purchaseWriteBehindDataProvider.isEnabled()) {
+            throw new IllegalStateException("Write-behind creation stores purchases in the primary database and cannot be combined with sharding");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        scatterExecutor = Executors.newFixedThreadPool(purchaseShards.size() * purchaseShards.poolSize(), runnable -> {
+            Thread thread = new Thread(runnable, "purchase-shard-scatter-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the scatter-gather threads on shutdown.
+     */
+    @PreDestroy
+    void shutdownExecutor() {
+        scatterExecutor.shutdownNow();
+    }
+
+    /**
+     * Retrieves a purchase by its ID from the shard it belongs to.
+     *
+     * @param id The ID of the purchase to retrieve.
+     * @return The purchase object if found, otherwise null.
+     */
+    @Override
+    public Purchase getPurchaseById(UUID id) {
+        List<Purchase> purchases = purchaseShards.on(purchaseShards.shardOf(id), "get_by_id",
+                template -> template.query(SELECT + " where id = ?", PurchaseShards.ROW_MAPPER, id));
+        return purchases.isEmpty() ? null : purchases.get(0);
+    }
+
+    /**
+     * Retrieves the purchases with the given IDs with a single query on each shard holding some of them.
+     *
+     * @param ids The IDs of the purchases to retrieve.
+     * @return The purchases found, in no particular order.
+     */
+    @Override
+    public List<Purchase> getPurchasesByIds(Collection<UUID> ids) {
+        Map<Integer, List<UUID>> idsByShard = ids.stream().distinct().collect(Collectors.groupingBy(purchaseShards::shardOf));
+        List<CompletableFuture<List<Purchase>>> reads = idsByShard.entrySet().stream()
+                .map(shardIds -> CompletableFuture.supplyAsync(() -> purchaseShards.on(shardIds.getKey(), "get_by_ids", template -> template.query(
+                        SELECT + " where id in (" + String.join(", ", Collections.nCopies(shardIds.getValue().size(), "?")) + ")",
+                        PurchaseShards.ROW_MAPPER, shardIds.getValue().toArray())), scatterExecutor))
+                .toList();
+        return reads.stream().map(CompletableFuture::join).flatMap(List::stream).toList();
+    }
+
+    /**
+     * Retrieves a page of the purchases with a purchase date within the range, ordered by purchase
+     * date and ID, starting right after the given purchase. Each shard returns its own first page
+     * and the pages are merged, as the global page is made of the first purchases of the shards.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param after The last purchase of the previous page, or null for the first page.
+     * @param size  The maximum number of purchases returned.
+     * @return The page of purchases, shorter than size only when it is the last one.
+     */
+    @Override
+    public List<Purchase> getPurchasesPage(LocalDate from, LocalDate to, Purchase after, int size) {
+        return gather(scatter("page", template -> after == null
+                ? template.query(FIRST_PAGE_SQL, PurchaseShards.ROW_MAPPER, from, to, size)
+                : template.query(PAGE_AFTER_SQL, PurchaseShards.ROW_MAPPER, to, after.getPurchaseDate(), after.getPurchaseDate(), after.getId(), size)),
+                DATE_ORDER, size);
+    }
+
+    /**
+     * Retrieves a page of the purchases with a purchase date within the range, ordered by their
+     * time-ordered ID, starting right after the given ID, merged from the pages of every shard.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param after The ID of the last purchase of the previous page, or null for the first page.
+     * @param size  The maximum number of purchases returned.
+     * @return The page of purchases, shorter than size only when it is the last one.
+     */
+    @Override
+    public List<Purchase> getPurchasesCreatedPage(LocalDate from, LocalDate to, UUID after, int size) {
+        return gather(scatter("created_page", template -> after == null
+                ? template.query(FIRST_CREATED_PAGE_SQL, PurchaseShards.ROW_MAPPER, from, to, size)
+                : template.query(CREATED_PAGE_AFTER_SQL, PurchaseShards.ROW_MAPPER, after, from, to, size)),
+                CREATED_ORDER, size);
+    }
+
+    /**
+     * Creates a purchase on the shard its new ID belongs to.
+     *
+     * @param createPurchaseInput The input data for creating the purchase.
+     * @return The created purchase object.
+     */
+    @Override
+    public Purchase createPurchase(CreatePurchaseInput createPurchaseInput) {
+        Purchase purchase = toPurchase(createPurchaseInput);
+        purchaseShards.insert(purchaseShards.shardOf(purchase.getId()), List.of(purchase));
+        return purchase;
+    }
+
+    /**
+     * Creates purchases with a JDBC batch insert on each shard, the shards written at once.
+     * Each shard commits its own batch, so every shard is waited for, and when some of them fail
+     * while others committed, the purchases committed are listed in the exception thrown.
+     *
+     * @param createPurchaseInputs The validated input data of the purchases to create.
+     * @return The number of purchases created.
+     */
+    @Override
+    public int createPurchases(List<CreatePurchaseInput> createPurchaseInputs) {
+        List<Purchase> purchases = createPurchaseInputs.stream().map(this::toPurchase).toList();
+        Map<Integer, List<Integer>> positionsByShard = IntStream.range(0, purchases.size()).boxed()
+                .collect(Collectors.groupingBy(position -> purchaseShards.shardOf(purchases.get(position).getId())));
+        Map<List<Integer>, CompletableFuture<Integer>> writes = new LinkedHashMap<>();
+        positionsByShard.forEach((shard, positions) -> writes.put(positions, CompletableFuture.supplyAsync(
+                () -> purchaseShards.insert(shard, positions.stream().map(purchases::get).toList()), scatterExecutor)));
+
+        List<Integer> created = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Map.Entry<List<Integer>, CompletableFuture<Integer>> write : writes.entrySet()) {
+            try {
+                write.getValue().join();
+                created.addAll(write.getKey());
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtime ? runtime : e;
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure == null) {
+            return created.size();
+        }
+        if (created.isEmpty()) {
+            throw failure;
+        }
+        Collections.sort(created);
+        throw new PartialPurchasesCreationException(created, failure);
+    }
+
+    /**
+     * Runs a read on every shard at once.
+     *
+     * @param operation The name of the operation, tagging the shard timers.
+     * @param read      The read to run on each shard.
+     * @return The results of the shards.
+     */
+    private List<List<Purchase>> scatter(String operation, Function<JdbcTemplate, List<Purchase>> read) {
+        List<CompletableFuture<List<Purchase>>> reads = IntStream.range(0, purchaseShards.size())
+                .mapToObj(shard -> CompletableFuture.supplyAsync(() -> purchaseShards.on(shard, operation, read), scatterExecutor))
+                .toList();
+        return reads.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Merges the pages of the shards into the first purchases of the global order.
+     *
+     * @param pages The pages of the shards, each in the global order.
+     * @param order The global order.
+     * @param size  The maximum number of purchases returned.
+     * @return The merged page.
+     */
+    private static List<Purchase> gather(List<List<Purchase>> pages, Comparator<Purchase> order, int size) {
+        List<Purchase> merged = new ArrayList<>();
+        pages.forEach(merged::addAll);
+        merged.sort(order);
+        return merged.size() > size ? new ArrayList<>(merged.subList(0, size)) : merged;
+    }
+
+    /**
+     * Builds a purchase with a new ID from its input.
+     *
+     * @param createPurchaseInput The input data for creating the purchase.
+     * @return The purchase, not stored yet.
+     */
+    private Purchase toPurchase(CreatePurchaseInput createPurchaseInput) {
+        Purchase purchase = new Purchase();
+        purchase.setId(UuidV7Generator.next()); // Assigned before the insert to route the purchase
+        purchase.setDescription(createPurchaseInput.getDescription());
+        purchase.setPurchaseDate(createPurchaseInput.getPurchaseDate());
+        purchase.setDolarPrice(Money.of(createPurchaseInput.getDolarPrice()));
+        return purchase;
+    }
+}
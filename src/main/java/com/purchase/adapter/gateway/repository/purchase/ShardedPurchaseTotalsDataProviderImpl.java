@@ -0,0 +1,138 @@
+package com.purchase.adapter.gateway.repository.purchase;
+
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseTotalsDataProvider;
+import com.purchase.domain.usecase.purchase.totals.PurchasePeriodStats;
+import com.purchase.domain.usecase.purchase.totals.TotalsPeriod;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+@Primary
+@ConditionalOnProperty(value = "purchase.sharding.enabled", havingValue = "true")
+@Timed("purchase.dataprovider")
+public class ShardedPurchaseTotalsDataProviderImpl implements PurchaseTotalsDataProvider {
+    private static final BigDecimal[] PERCENTILES = {new BigDecimal("0.5"), new BigDecimal("0.9"), new BigDecimal("0.99")};
+
+    @Autowired
+    private PurchaseShards purchaseShards; // Connection pools of the shards
+
+    /**
+     * Aggregates the dollar prices of the purchases of each period within the range. Percentiles of
+     * the shards cannot be merged, so each shard counts the purchases of each period and price with a
+     * GROUP BY, and the statistics are computed from the merged counts, interpolating the percentiles
+     * as percentile_cont does.
+     *
+     * @param from   The oldest purchase date accepted, inclusive.
+     * @param to     The newest purchase date accepted, inclusive.
+     * @param period The period the purchases are grouped by.
+     * @return The statistics of the periods holding purchases, in date order.
+     */
+    @Override
+    public List<PurchasePeriodStats> getPeriodStats(LocalDate from, LocalDate to, TotalsPeriod period) {
+        String periodColumns = PurchaseTotalsDataProviderImpl.periodColumns(period);
+        String sql = "select " + periodColumns + ", dolar_price, count(*) from purchase where purchase_date between ? and ?"
+                + " group by " + periodColumns + ", dolar_price";
+        Map<LocalDate, TreeMap<Long, Long>> counts = new TreeMap<>(); // Purchases of each price in cents, by period
+        for (int shard = 0; shard < purchaseShards.size(); shard++) {
+            purchaseShards.on(shard, "period_stats", template -> {
+                template.query(sql, row -> {
+                    counts.computeIfAbsent(period.startOf(row.getInt(1), row.getInt(2)), start -> new TreeMap<>())
+                            .merge(Money.of(row.getBigDecimal(3)).cents(), row.getLong(4), Long::sum);
+                }, from, to);
+                return null;
+            });
+        }
+        List<PurchasePeriodStats> stats = new ArrayList<>(counts.size());
+        counts.forEach((start, prices) -> stats.add(toStats(start, prices)));
+        return stats;
+    }
+
+    /**
+     * Streams the number of purchases of each purchase date and dollar price within the range from
+     * every shard in turn, so a date and price held by several shards is given once per shard.
+     *
+     * @param from    The oldest purchase date accepted, inclusive.
+     * @param to      The newest purchase date accepted, inclusive.
+     * @param handler The handler of each group.
+     */
+    @Override
+    public void forEachDailyPrice(LocalDate from, LocalDate to, DailyPriceHandler handler) {
+        for (int shard = 0; shard < purchaseShards.size(); shard++) {
+            purchaseShards.on(shard, "daily_prices", template -> {
+                template.query(PurchaseTotalsDataProviderImpl.DAILY_PRICES_SQL, PurchaseTotalsDataProviderImpl.dailyPriceCallback(handler), from, to);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Computes the statistics of a period from the number of purchases of each price.
+     *
+     * @param start  The first day of the period.
+     * @param prices The number of purchases of each price in cents, in price order.
+     * @return The statistics of the period.
+     */
+    private static PurchasePeriodStats toStats(LocalDate start, TreeMap<Long, Long> prices) {
+        long count = 0;
+        long total = 0;
+        for (Map.Entry<Long, Long> price : prices.entrySet()) {
+            count += price.getValue();
+            total = Math.addExact(total, Math.multiplyExact(price.getKey(), price.getValue()));
+        }
+        Money[] percentiles = new Money[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles[i] = percentile(prices, count, PERCENTILES[i]);
+        }
+        return new PurchasePeriodStats(start, count, new Money(total), new Money(prices.firstKey()), new Money(prices.lastKey()),
+                percentiles[0], percentiles[1], percentiles[2]);
+    }
+
+    /**
+     * Computes a percentile as percentile_cont does, interpolating between the two prices around
+     * its position in the sorted prices, rounded HALF_UP to cents.
+     *
+     * @param prices     The number of purchases of each price in cents, in price order.
+     * @param count      The number of purchases.
+     * @param percentile The percentile, between 0 and 1.
+     * @return The percentile price.
+     */
+    private static Money percentile(TreeMap<Long, Long> prices, long count, BigDecimal percentile) {
+        BigDecimal position = percentile.multiply(BigDecimal.valueOf(count - 1));
+        long lower = position.setScale(0, RoundingMode.FLOOR).longValueExact();
+        BigDecimal fraction = position.subtract(BigDecimal.valueOf(lower));
+        long lowerPrice = priceAt(prices, lower);
+        long upperPrice = fraction.signum() == 0 ? lowerPrice : priceAt(prices, lower + 1);
+        BigDecimal cents = BigDecimal.valueOf(lowerPrice).add(fraction.multiply(BigDecimal.valueOf(upperPrice - lowerPrice)));
+        return Money.of(cents.movePointLeft(Money.SCALE));
+    }
+
+    /**
+     * Returns the price at a position of the sorted prices.
+     *
+     * @param prices   The number of purchases of each price in cents, in price order.
+     * @param position The position, starting at 0.
+     * @return The price in cents.
+     */
+    private static long priceAt(TreeMap<Long, Long> prices, long position) {
+        long seen = 0;
+        for (Map.Entry<Long, Long> price : prices.entrySet()) {
+            seen += price.getValue();
+            if (position < seen) {
+                return price.getKey();
+            }
+        }
+        return prices.lastKey();
+    }
+}
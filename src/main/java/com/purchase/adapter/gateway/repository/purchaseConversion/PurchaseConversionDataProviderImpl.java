@@ -0,0 +1,105 @@
+package com.purchase.adapter.gateway.repository.purchaseConversion;
+
+import com.purchase.domain.entity.PurchaseConversion;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+@Component
+@Timed("purchase.dataprovider")
+public class PurchaseConversionDataProviderImpl implements PurchaseConversionDataProvider {
+
+    @Autowired
+    private PurchaseConversionRepository purchaseConversionRepository; // Autowired instance of the PurchaseConversionRepository
+
+    @PersistenceContext
+    private EntityManager entityManager; // Entity manager used to insert conversions without a prior select
+
+    @Value("${purchase.conversion-table.enabled:false}")
+    private boolean enabled; // Whether conversions are materialized in the conversion table
+
+    @Value("${purchase.conversion-table.recompute-page-size:1000}")
+    private int recomputePageSize; // Conversions loaded at a time by a recompute
+
+    /**
+     * Checks whether conversions are materialized.
+     *
+     * @return True if conversions are read from and stored in the conversion table.
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Retrieves the materialized conversion of a purchase to a country's currency by its primary key.
+     *
+     * @param purchaseId The ID of the purchase.
+     * @param country    The country for currency conversion.
+     * @return The conversion if found, otherwise null.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PurchaseConversion getConversion(UUID purchaseId, String country) {
+        return purchaseConversionRepository.findById(new PurchaseConversion.Key(purchaseId, country)).orElse(null);
+    }
+
+    /**
+     * Stores a new conversion with a plain insert. When a concurrent request stored the same
+     * conversion first, the insert fails on the primary key.
+     *
+     * @param conversion The conversion to store.
+     */
+    @Override
+    @Transactional
+    public void saveConversion(PurchaseConversion conversion) {
+        entityManager.persist(conversion); // The key is assigned, so save would select before inserting
+    }
+
+    /**
+     * Recomputes the conversions of a country with a purchase date within the range that were converted
+     * with a rate effective no later than the given date, in a single transaction. The conversions are
+     * walked in keyset pages, and each page is flushed, writing its changed conversions in JDBC
+     * batches, then cleared, so a recompute over the whole table holds a single page in memory.
+     *
+     * @param country             The country of the conversions.
+     * @param from                The oldest purchase date, inclusive.
+     * @param to                  The newest purchase date, inclusive.
+     * @param newestEffectiveDate The newest effective date of the ingested rates.
+     * @param recompute           Updates a conversion in place, returning whether it changed.
+     * @return The number of conversions changed.
+     */
+    @Override
+    @Transactional
+    public int recomputeConversions(String country, LocalDate from, LocalDate to, LocalDate newestEffectiveDate, Predicate<PurchaseConversion> recompute) {
+        Limit limit = Limit.of(recomputePageSize);
+        List<PurchaseConversion> page = purchaseConversionRepository.findFirstConvertedBeforePage(country, from, to, newestEffectiveDate, limit);
+        int changed = 0;
+        while (!page.isEmpty()) {
+            for (PurchaseConversion conversion : page) {
+                if (recompute.test(conversion)) {
+                    changed++; // Dirty checking updates the conversion on the flush
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            if (page.size() < recomputePageSize) {
+                break;
+            }
+            PurchaseConversion last = page.get(page.size() - 1);
+            page = purchaseConversionRepository.findConvertedBeforePageAfter(country, last.getPurchaseDate(), last.getPurchaseId(), to, newestEffectiveDate, limit);
+        }
+        return changed;
+    }
+}
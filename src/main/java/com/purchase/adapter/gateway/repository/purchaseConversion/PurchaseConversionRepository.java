@@ -0,0 +1,55 @@
+package com.purchase.adapter.gateway.repository.purchaseConversion;
+
+import com.purchase.domain.entity.PurchaseConversion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PurchaseConversionRepository extends JpaRepository<PurchaseConversion, PurchaseConversion.Key> {
+
+    /**
+     * Finds the first conversions of a country with a purchase date within the range, converted with a
+     * rate effective no later than the given date or with a rate of unknown effective date, ordered by
+     * purchase date and purchase ID.
+     *
+     * @param country             The country of the conversions.
+     * @param from                The oldest purchase date, inclusive.
+     * @param to                  The newest purchase date, inclusive.
+     * @param newestEffectiveDate The newest effective date of the rates used.
+     * @param limit               The maximum number of conversions returned.
+     * @return The first page of conversions.
+     */
+    @Query("select c from PurchaseConversion c where c.country = :country and c.purchaseDate between :from and :to"
+            + " and (c.effectiveDate is null or c.effectiveDate <= :newestEffectiveDate)"
+            + " order by c.purchaseDate, c.purchaseId")
+    List<PurchaseConversion> findFirstConvertedBeforePage(@Param("country") String country, @Param("from") LocalDate from,
+                                                          @Param("to") LocalDate to, @Param("newestEffectiveDate") LocalDate newestEffectiveDate,
+                                                          Limit limit);
+
+    /**
+     * Finds the conversions following the given (purchase date, purchase ID) key, with the filters of
+     * {@link #findFirstConvertedBeforePage}. The key seeks the country and purchase date index.
+     *
+     * @param country             The country of the conversions.
+     * @param lastPurchaseDate    The purchase date of the last conversion of the previous page.
+     * @param lastPurchaseId      The purchase ID of the last conversion of the previous page.
+     * @param to                  The newest purchase date, inclusive.
+     * @param newestEffectiveDate The newest effective date of the rates used.
+     * @param limit               The maximum number of conversions returned.
+     * @return The next page of conversions.
+     */
+    @Query("select c from PurchaseConversion c where c.country = :country and c.purchaseDate <= :to"
+            + " and (c.purchaseDate > :lastPurchaseDate or (c.purchaseDate = :lastPurchaseDate and c.purchaseId > :lastPurchaseId))"
+            + " and (c.effectiveDate is null or c.effectiveDate <= :newestEffectiveDate)"
+            + " order by c.purchaseDate, c.purchaseId")
+    List<PurchaseConversion> findConvertedBeforePageAfter(@Param("country") String country, @Param("lastPurchaseDate") LocalDate lastPurchaseDate,
+                                                          @Param("lastPurchaseId") UUID lastPurchaseId, @Param("to") LocalDate to,
+                                                          @Param("newestEffectiveDate") LocalDate newestEffectiveDate, Limit limit);
+}
@@ -0,0 +1,24 @@
+package com.purchase.adapter.gateway.repository.purchaseConversion;
+
+import com.purchase.domain.valueobject.Rate;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores Rate attributes in decimal columns, so the schema keeps the 6 decimal places of the rate store.
+ */
+@Converter(autoApply = true)
+public class RateConverter implements AttributeConverter<Rate, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Rate rate) {
+        return rate == null ? null : BigDecimal.valueOf(rate.scaled(), Rate.SCALE);
+    }
+
+    @Override
+    public Rate convertToEntityAttribute(BigDecimal rate) {
+        return rate == null ? null : Rate.of(rate);
+    }
+}
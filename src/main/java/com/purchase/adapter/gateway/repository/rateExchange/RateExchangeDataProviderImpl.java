@@ -0,0 +1,107 @@
+package com.purchase.adapter.gateway.repository.rateExchange;
+
+import com.purchase.domain.entity.RateExchange;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class RateExchangeDataProviderImpl implements RateExchangeDataProvider {
+
+    @Autowired
+    private RateExchangeRepository rateExchangeRepository; // Autowired instance of the RateExchangeRepository
+
+    private volatile RateExchangeIndex index = RateExchangeIndex.EMPTY; // Copy-on-write snapshot of the local store
+
+    /**
+     * Loads the in-memory rate index with the rates already stored.
+     */
+    @PostConstruct
+    void initIndex() {
+        refreshIndex();
+    }
+
+    /**
+     * Retrieves the most recent rate of a country effective between the date limit and the purchase date.
+     * The lookup is answered by the in-memory index and does not touch the database.
+     *
+     * @param country      The country for currency conversion.
+     * @param dateLimit    The oldest effective date accepted.
+     * @param purchaseDate The date of the purchase.
+     * @return The rate as a fixed-point value scaled by RATE_SCALE, or NO_RATE if not found.
+     */
+    @Override
+    public long getLatestRate(String country, LocalDate dateLimit, LocalDate purchaseDate) {
+        return index.findLatestRate(country, (int) dateLimit.toEpochDay(), (int) purchaseDate.toEpochDay());
+    }
+
+    /**
+     * Retrieves the effective date of the rate returned by getLatestRate, from the in-memory index.
+     *
+     * @param country      The country for currency conversion.
+     * @param dateLimit    The oldest effective date accepted.
+     * @param purchaseDate The date of the purchase.
+     * @return The effective date of the most recent rate, or null if not found.
+     */
+    @Override
+    public LocalDate getLatestRateEffectiveDate(String country, LocalDate dateLimit, LocalDate purchaseDate) {
+        int epochDay = index.findLatestEffectiveDay(country, (int) dateLimit.toEpochDay(), (int) purchaseDate.toEpochDay());
+        return epochDay == RateExchangeIndex.NO_EFFECTIVE_DAY ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Checks whether the local store holds any rate for the given country.
+     *
+     * @param country The country to check.
+     * @return True if at least one rate is stored for the country.
+     */
+    @Override
+    public boolean hasRates(String country) {
+        return index.hasCountry(country);
+    }
+
+    /**
+     * Retrieves the most recent record date held by the local store.
+     *
+     * @return The most recent record date, or null if the store is empty.
+     */
+    @Override
+    public LocalDate getLatestRecordDate() {
+        return rateExchangeRepository.findMaxRecordDate();
+    }
+
+    /**
+     * Stores the given rates, skipping the ones already present.
+     * Only rates recorded on the latest stored date can overlap with an incremental sync,
+     * so the existence check is limited to them.
+     *
+     * @param rates The rates to store.
+     * @return The number of rates actually stored.
+     */
+    @Override
+    @Transactional
+    public int saveRates(List<RateExchange> rates) {
+        LocalDate latestRecordDate = rateExchangeRepository.findMaxRecordDate();
+        List<RateExchange> newRates = rates.stream()
+                .filter(rate -> latestRecordDate == null
+                        || rate.getRecordDate().isAfter(latestRecordDate)
+                        || (rate.getRecordDate().isEqual(latestRecordDate)
+                        && !rateExchangeRepository.existsByCountryAndCurrencyAndRecordDate(rate.getCountry(), rate.getCurrency(), rate.getRecordDate())))
+                .toList();
+        rateExchangeRepository.saveAll(newRates);
+        return newRates.size();
+    }
+
+    /**
+     * Rebuilds the in-memory rate index from the local store and swaps it in for readers.
+     */
+    @Override
+    public void refreshIndex() {
+        index = RateExchangeIndex.build(rateExchangeRepository.findAll());
+    }
+}
@@ -0,0 +1,137 @@
+package com.purchase.adapter.gateway.repository.rateExchange;
+
+import com.purchase.domain.entity.RateExchange;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.valueobject.Rate;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory index of the local rate store. Each country holds its effective dates
+ * as sorted epoch days with the rates, scaled by {@link RateExchangeDataProvider#RATE_SCALE},
+ * in a parallel array, so lookups are a binary search over primitives with no allocation.
+ * A refresh builds a new index and swaps the reference, readers never lock.
+ */
+public final class RateExchangeIndex {
+
+    public static final RateExchangeIndex EMPTY = new RateExchangeIndex(Map.of());
+    public static final int NO_EFFECTIVE_DAY = Integer.MIN_VALUE; // Returned by findLatestEffectiveDay when no rate is found
+
+    private final Map<String, CountryRates> countries; // Rates indexed by country
+
+    private RateExchangeIndex(Map<String, CountryRates> countries) {
+        this.countries = countries;
+    }
+
+    /**
+     * Builds an index from the given rates. When a country has several rates effective on
+     * the same day, the most recently recorded one wins, as with the Treasury API ordering.
+     *
+     * @param rates The rates to index.
+     * @return The built index.
+     */
+    public static RateExchangeIndex build(List<RateExchange> rates) {
+        RateExchange[] sorted = rates.toArray(new RateExchange[0]);
+        Arrays.sort(sorted, Comparator.comparing(RateExchange::getCountry)
+                .thenComparing(RateExchange::getEffectiveDate)
+                .thenComparing(RateExchange::getRecordDate));
+
+        Map<String, CountryRates> countries = new HashMap<>();
+        int start = 0;
+        while (start < sorted.length) {
+            String country = sorted[start].getCountry();
+            int end = start;
+            while (end < sorted.length && sorted[end].getCountry().equals(country)) {
+                end++;
+            }
+
+            int[] epochDays = new int[end - start];
+            long[] rateValues = new long[end - start];
+            int size = 0;
+            for (int i = start; i < end; i++) {
+                int epochDay = (int) sorted[i].getEffectiveDate().toEpochDay();
+                long rateValue = Rate.of(sorted[i].getExchangeRate()).scaled();
+                if (size > 0 && epochDays[size - 1] == epochDay) {
+                    rateValues[size - 1] = rateValue; // Same effective day, keep the latest record
+                } else {
+                    epochDays[size] = epochDay;
+                    rateValues[size] = rateValue;
+                    size++;
+                }
+            }
+            countries.put(country, new CountryRates(Arrays.copyOf(epochDays, size), Arrays.copyOf(rateValues, size)));
+            start = end;
+        }
+        return new RateExchangeIndex(countries);
+    }
+
+    /**
+     * Finds the most recent rate of a country effective within the given epoch day range.
+     *
+     * @param country      The country for currency conversion.
+     * @param fromEpochDay The oldest effective epoch day accepted, inclusive.
+     * @param toEpochDay   The newest effective epoch day accepted, inclusive.
+     * @return The rate scaled by RATE_SCALE, or NO_RATE if none is effective in the range.
+     */
+    public long findLatestRate(String country, int fromEpochDay, int toEpochDay) {
+        CountryRates rates = countries.get(country);
+        int latest = findLatest(rates, fromEpochDay, toEpochDay);
+        return latest < 0 ? RateExchangeDataProvider.NO_RATE : rates.rateValues[latest];
+    }
+
+    /**
+     * Finds the effective day of the most recent rate of a country effective within the given epoch day range,
+     * that is the effective day of the rate returned by {@link #findLatestRate(String, int, int)}.
+     *
+     * @param country      The country for currency conversion.
+     * @param fromEpochDay The oldest effective epoch day accepted, inclusive.
+     * @param toEpochDay   The newest effective epoch day accepted, inclusive.
+     * @return The effective epoch day, or NO_EFFECTIVE_DAY if no rate is effective in the range.
+     */
+    public int findLatestEffectiveDay(String country, int fromEpochDay, int toEpochDay) {
+        CountryRates rates = countries.get(country);
+        int latest = findLatest(rates, fromEpochDay, toEpochDay);
+        return latest < 0 ? NO_EFFECTIVE_DAY : rates.epochDays[latest];
+    }
+
+    /**
+     * Finds the position of the most recent rate effective within the given epoch day range.
+     *
+     * @param rates        The rates of the country, or null if the country is unknown.
+     * @param fromEpochDay The oldest effective epoch day accepted, inclusive.
+     * @param toEpochDay   The newest effective epoch day accepted, inclusive.
+     * @return The position in the parallel arrays, or -1 if none is effective in the range.
+     */
+    private static int findLatest(CountryRates rates, int fromEpochDay, int toEpochDay) {
+        if (rates == null) {
+            return -1;
+        }
+        int position = Arrays.binarySearch(rates.epochDays, toEpochDay);
+        // When the day is absent, take the last entry before the insertion point
+        int latest = position >= 0 ? position : -position - 2;
+        if (latest < 0 || rates.epochDays[latest] < fromEpochDay) {
+            return -1;
+        }
+        return latest;
+    }
+
+    /**
+     * Checks whether the index holds any rate for the given country.
+     *
+     * @param country The country to check.
+     * @return True if at least one rate is indexed for the country.
+     */
+    public boolean hasCountry(String country) {
+        return countries.containsKey(country);
+    }
+
+    /**
+     * Sorted effective epoch days of a country with their scaled rates in a parallel array.
+     */
+    private record CountryRates(int[] epochDays, long[] rateValues) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.purchase.adapter.gateway.repository.rateExchange;
+
+import com.purchase.domain.entity.RateExchange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface RateExchangeRepository extends JpaRepository<RateExchange, Long> {
+
+    /**
+     * Checks whether a rate is already stored for the given country, currency and record date.
+     */
+    boolean existsByCountryAndCurrencyAndRecordDate(String country, String currency, LocalDate recordDate);
+
+    /**
+     * Returns the most recent record date stored, or null if the store is empty.
+     */
+    @Query("select max(r.recordDate) from RateExchange r")
+    LocalDate findMaxRecordDate();
+}
@@ -0,0 +1,78 @@
+package com.purchase.application.configuration.concurrency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one computation between the concurrent callers of the same key. The first caller of a key
+ * runs the computation, and the callers arriving while it is in flight wait for it and receive the
+ * same result or exception. A key is only held while its computation is in flight, so memory is
+ * bounded by the number of concurrent callers, and nothing is cached once the computation completes.
+ * Callers of different keys never wait on each other.
+ *
+ * @param <K> The type of the key identifying identical computations.
+ * @param <V> The type of the computed value.
+ */
+public class RequestCoalescer<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>(); // Computation in flight per key
+
+    /**
+     * Runs the computation of the key, or waits for the one already in flight for the key.
+     *
+     * @param key         The key identifying identical computations.
+     * @param computation The computation, run by the first caller of the key only.
+     * @param onCoalesced Called when the caller waits for a computation in flight instead of running it.
+     * @return The value computed for the key.
+     */
+    public V execute(K key, Supplier<V> computation, Runnable onCoalesced) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            onCoalesced.run();
+            return await(running);
+        }
+
+        try {
+            V value = computation.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future); // Callers arriving from now on run a new computation
+        }
+    }
+
+    /**
+     * Returns the number of computations in flight.
+     *
+     * @return The number of keys being computed.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Waits for a computation in flight, rethrowing its exception as thrown by the computation.
+     *
+     * @param running The computation in flight.
+     * @return The computed value.
+     */
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
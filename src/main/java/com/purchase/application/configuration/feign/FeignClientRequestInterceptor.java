@@ -5,7 +5,6 @@ import feign.RequestTemplate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 
@@ -20,17 +19,13 @@ public class FeignClientRequestInterceptor implements RequestInterceptor {
      */
     @Override
     public void apply(RequestTemplate template) {
-        try {
-            // Decode the request URL from URL encoding
-            String decodedUrl = URLDecoder.decode(template.request().url(), StandardCharsets.UTF_8.toString());
-            // Set the URI of the request template to the decoded URL
-            template.uri(decodedUrl);
-            // Log the decoded URL
-            log.info("Outgoing request URL: {}", decodedUrl);
-        } catch (UnsupportedEncodingException e) {
-            // If decoding fails, throw a RuntimeException
-            throw new RuntimeException(e);
-        }
+        // Decode the request URL from URL encoding, reading it from the template rather than
+        // building a full Request with a copy of the headers just to get the URL
+        String decodedUrl = URLDecoder.decode(template.url(), StandardCharsets.UTF_8);
+        // Set the URI of the request template to the decoded URL
+        template.uri(decodedUrl);
+        // Log the decoded URL, only when debug logging is enabled
+        log.debug("Outgoing request URL: {}", decodedUrl);
     }
 }
 
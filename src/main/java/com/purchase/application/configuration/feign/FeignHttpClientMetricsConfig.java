@@ -0,0 +1,30 @@
+package com.purchase.application.configuration.feign;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FeignHttpClientMetricsConfig {
+
+    /**
+     * Publishes the state of the Feign connection pool (available, leased, pending and maximum
+     * connections) as httpcomponents.httpclient.pool.* gauges, so pool saturation is visible
+     * next to the http.client.requests latency timers recorded by Feign.
+     *
+     * @param connectionManager The pooled connection manager shared by the Feign clients, when HttpClient 5 is enabled.
+     * @return The binder registering the pool gauges.
+     */
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> {
+            if (connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.purchase.application.configuration.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter keeping one in every sampleRate INFO events of the request loggers.
+ * It runs before the event is created, so dropped events cost a counter increment and no
+ * formatting. Warnings and errors are always logged.
+ */
+@Getter
+@Setter
+public class SampledRequestLogTurboFilter extends TurboFilter {
+
+    private String loggerPrefix = "com.purchase.domain.usecase.purchase.get"; // Loggers whose INFO events are sampled
+    private int sampleRate = 100; // One INFO event in this many is logged, 1 or less logs them all
+
+    private final AtomicLong counter = new AtomicLong(); // Number of sampled INFO events seen so far
+
+    /**
+     * Decides whether an event of a request logger is sampled out.
+     *
+     * @return DENY for INFO events outside the sample, NEUTRAL otherwise.
+     */
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Level checks (isInfoEnabled) come without a format and must not consume samples
+        if (format == null || level != Level.INFO || sampleRate <= 1 || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,48 @@
+package com.purchase.application.configuration.metrics;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    private static final int MAX_COUNTRIES = 300; // Upper bound of country tag values, above the number of Treasury countries
+
+    /**
+     * Caps the country tag of the use case timers, as the country comes from the request and
+     * unknown values would otherwise create one time series each.
+     *
+     * @return The meter filter denying new use case meters past the limit.
+     */
+    @Bean
+    public MeterFilter usecaseCountryCardinalityFilter() {
+        return MeterFilter.maximumAllowableTags(UsecaseMetrics.USECASE_TIMER, "country", MAX_COUNTRIES, MeterFilter.deny());
+    }
+
+    /**
+     * Caps the country tag of the Treasury fetch timers for the same reason.
+     *
+     * @return The meter filter denying new Treasury meters past the limit.
+     */
+    @Bean
+    public MeterFilter treasuryCountryCardinalityFilter() {
+        return MeterFilter.maximumAllowableTags("treasury.rate.fetch", "country", MAX_COUNTRIES, MeterFilter.deny());
+    }
+
+    /**
+     * Publishes the Hibernate statistics, among them the second-level cache hits, misses and puts
+     * per region, as hibernate.* meters.
+     *
+     * @param entityManagerFactory The entity manager factory of the application.
+     * @return The binder registering the Hibernate meters.
+     */
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "purchase", Tags.empty());
+    }
+}
@@ -0,0 +1,72 @@
+package com.purchase.application.configuration.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+@AllArgsConstructor
+public class UsecaseMetrics {
+    public static final String USECASE_TIMER = "purchase.usecase"; // Timer of the use cases and their phases
+    public static final String PHASE_EXECUTE = "execute"; // Phase covering the whole use case execution
+    public static final String NO_COUNTRY = "none"; // Country tag of use cases without a country
+    public static final String COALESCED_COUNTER = "purchase.usecase.coalesced"; // Counter of the executions served by an identical one in flight
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Runs a use case phase and records its duration, tagged by use case, phase, country and outcome.
+     * The outcome follows the HTTP status of a thrown ResponseStatusException, and any other
+     * exception is recorded as a server error.
+     *
+     * @param usecase The name of the use case.
+     * @param phase   The name of the phase, or {@link #PHASE_EXECUTE} for the whole execution.
+     * @param country The country of the request, if any.
+     * @param action  The phase to run.
+     * @return The result of the phase.
+     */
+    public <T> T record(String usecase, String phase, String country, Supplier<T> action) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return action.get();
+        } catch (ResponseStatusException e) {
+            outcome = Outcome.forStatus(e.getStatusCode().value());
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = Outcome.SERVER_ERROR;
+            throw e;
+        } finally {
+            Timer.builder(USECASE_TIMER)
+                    .tag("usecase", usecase)
+                    .tag("phase", phase)
+                    .tag("country", country == null || country.isBlank() ? NO_COUNTRY : country)
+                    .tag("outcome", outcome.name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Counts a use case execution that waited for an identical execution in flight instead of running.
+     *
+     * @param usecase The name of the use case.
+     * @param country The country of the request, if any.
+     */
+    public void recordCoalesced(String usecase, String country) {
+        Counter.builder(COALESCED_COUNTER)
+                .tag("usecase", usecase)
+                .tag("country", country == null || country.isBlank() ? NO_COUNTRY : country)
+                .register(meterRegistry)
+                .increment();
+    }
+}
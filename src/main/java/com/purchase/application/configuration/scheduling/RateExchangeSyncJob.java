@@ -0,0 +1,72 @@
+package com.purchase.application.configuration.scheduling;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeSyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.CompletableFuture;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(value = "treasury.sync.enabled", havingValue = "true")
+@Slf4j
+public class RateExchangeSyncJob implements ApplicationRunner {
+
+    private static final String LOG_PREFIX = "[RATE EXCHANGE SYNC JOB] - ";
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeSyncService syncService; // Autowired instance of the sync service
+
+    @Value("${treasury.sync.startup-mode:ASYNC}")
+    private StartupMode startupMode; // How the local store is preloaded on startup
+
+    /**
+     * Preloads the local store on startup. Application runners complete before the
+     * application reports ready, so the BLOCKING mode delays readiness until the load is done.
+     *
+     * @param args The application arguments.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        switch (startupMode) {
+            case BLOCKING -> synchronize();
+            case ASYNC -> CompletableFuture.runAsync(this::synchronize);
+            case NONE -> log.info("{}Startup sync disabled", LOG_PREFIX);
+        }
+    }
+
+    /**
+     * Incrementally syncs the local store at a fixed delay.
+     */
+    @Scheduled(initialDelayString = "${treasury.sync.interval:PT6H}", fixedDelayString = "${treasury.sync.interval:PT6H}")
+    public void scheduledSync() {
+        synchronize();
+    }
+
+    /**
+     * Runs a sync, logging failures so the next run can retry.
+     */
+    private void synchronize() {
+        try {
+            syncService.synchronize();
+        } catch (Exception e) {
+            log.error("{}Error occurred while syncing rate exchange data: {}", LOG_PREFIX, e.getMessage());
+        }
+    }
+
+    /**
+     * Startup preload modes of the local rate store.
+     */
+    public enum StartupMode {
+        BLOCKING, // Load before the application reports ready
+        ASYNC, // Load in the background after startup
+        NONE // Wait for the first scheduled sync
+    }
+}
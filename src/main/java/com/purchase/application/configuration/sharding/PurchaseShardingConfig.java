@@ -0,0 +1,61 @@
+package com.purchase.application.configuration.sharding;
+
+import com.purchase.adapter.gateway.repository.purchase.PurchaseShardRebalancer;
+import com.purchase.adapter.gateway.repository.purchase.PurchaseShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(value = "purchase.sharding.enabled", havingValue = "true")
+@Slf4j
+public class PurchaseShardingConfig {
+    private static final String LOG_PREFIX = "[PURCHASE SHARDING CONFIG] - ";
+
+    /**
+     * Opens the connection pools of the purchase shards, closed with the application context.
+     *
+     * @param urls          The JDBC URL of each shard, in shard order.
+     * @param username      The username of the shards.
+     * @param password      The password of the shards.
+     * @param poolSize      The maximum number of connections of each shard pool.
+     * @param migrations    The Flyway locations of the migrations run on each shard.
+     * @param meterRegistry The registry of the shard timers and pool meters.
+     * @return The purchase shards.
+     */
+    @Bean(destroyMethod = "close")
+    public PurchaseShards purchaseShards(@Value("${purchase.sharding.urls}") List<String> urls,
+                                         @Value("${purchase.sharding.username}") String username,
+                                         @Value("${purchase.sharding.password}") String password,
+                                         @Value("${purchase.sharding.pool-size:10}") int poolSize,
+                                         @Value("${spring.flyway.locations:classpath:db/migration}") String migrations,
+                                         MeterRegistry meterRegistry) {
+        return new PurchaseShards(urls, username, password, poolSize, migrations, meterRegistry);
+    }
+
+    /**
+     * Rebalances the shards on startup and stops the application, for an offline run after the
+     * shard URLs changed, started with purchase.sharding.rebalance=true and no web server.
+     *
+     * @param rebalancer The shard rebalancer.
+     * @param context    The application context, closed once the shards are rebalanced.
+     * @return The runner rebalancing the shards.
+     */
+    @Bean
+    @ConditionalOnProperty(value = "purchase.sharding.rebalance", havingValue = "true")
+    public ApplicationRunner purchaseShardRebalanceRunner(PurchaseShardRebalancer rebalancer, ApplicationContext context) {
+        return args -> {
+            long moved = rebalancer.rebalance();
+            log.info("{}Rebalance completed, {} purchases moved", LOG_PREFIX, moved);
+            SpringApplication.exit(context, () -> 0);
+        };
+    }
+}
@@ -1,21 +1,30 @@
 package com.purchase.domain.entity;
 
+import com.purchase.domain.valueobject.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Getter
 @Setter
 @Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = Purchase.CACHE_REGION)
+@Table(indexes = @Index(name = "idx_purchase_purchase_date_id", columnList = "purchaseDate, id"))
 public class Purchase {
+    public static final String CACHE_REGION = "purchase"; // Second-level cache region, bounded in application.conf
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    private UUID id; // Unique identifier for the purchase
+    @UuidV7
+    private UUID id; // Time-ordered unique identifier for the purchase, generated by the application before the insert
 
     @NotNull
     private String description; // Description of the purchase
@@ -25,5 +34,5 @@ public class Purchase {
 
     @Column(precision = 12, scale = 2)
     @NotNull
-    private BigDecimal dolarPrice; // Price in dolar of the purchase
+    private Money dolarPrice; // Price in dolar of the purchase, in cents
 }
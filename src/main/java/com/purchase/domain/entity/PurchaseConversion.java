@@ -0,0 +1,59 @@
+package com.purchase.domain.entity;
+
+import com.purchase.domain.valueobject.Money;
+import com.purchase.domain.valueobject.Rate;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+@IdClass(PurchaseConversion.Key.class)
+@Table(indexes = @Index(name = "idx_purchase_conversion_country_purchase_date", columnList = "country, purchaseDate"))
+public class PurchaseConversion {
+    @Id
+    private UUID purchaseId; // ID of the converted purchase
+
+    @Id
+    private String country; // Country of the currency the purchase is converted to
+
+    @NotNull
+    private String description; // Description of the purchase, copied as purchases are immutable
+
+    @NotNull
+    private LocalDate purchaseDate; // Date of the purchase, copied as purchases are immutable
+
+    @Column(precision = 12, scale = 2)
+    @NotNull
+    private Money dolarPrice; // Price in dolar of the purchase, copied as purchases are immutable
+
+    @Column(precision = 19, scale = 6)
+    @NotNull
+    private Rate rate; // Exchange rate used for the conversion
+
+    private LocalDate effectiveDate; // Date the exchange rate became effective, null when the Treasury API did not tell
+
+    @Column(precision = 19, scale = 2)
+    @NotNull
+    private Money convertedPrice; // Price converted with the exchange rate
+
+    /**
+     * Composite primary key of a conversion, the purchase and the country.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID purchaseId; // ID of the converted purchase
+        private String country; // Country of the currency the purchase is converted to
+    }
+}
@@ -0,0 +1,41 @@
+package com.purchase.domain.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(columnNames = {"country", "currency", "recordDate"}),
+        indexes = {
+                @Index(name = "idx_rate_exchange_country_effective_date", columnList = "country, effectiveDate"),
+                @Index(name = "idx_rate_exchange_record_date", columnList = "recordDate")
+        }
+)
+public class RateExchange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Unique identifier for the rate exchange record
+
+    @NotNull
+    private String country; // Country of the exchange rate
+
+    @NotNull
+    private String currency; // Currency of the exchange rate
+
+    @NotNull
+    private LocalDate recordDate; // Date the exchange rate was recorded by the Treasury
+
+    @NotNull
+    private LocalDate effectiveDate; // Date the exchange rate became effective
+
+    @Column(precision = 19, scale = 6)
+    @NotNull
+    private BigDecimal exchangeRate; // Exchange rate value
+}
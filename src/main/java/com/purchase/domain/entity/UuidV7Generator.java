@@ -0,0 +1,77 @@
+package com.purchase.domain.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered UUIDv7 identifiers (RFC 9562): a 48-bit Unix timestamp in milliseconds,
+ * a 12-bit counter and 62 random bits. Identifiers are strictly increasing within the JVM, so
+ * inserts append to the right of the primary key index and the ID orders purchases by creation.
+ * <p>
+ * The timestamp and the counter are issued together from a single atomic value, so concurrent
+ * threads never block. When more than 4096 IDs are generated within a millisecond, the counter
+ * carries into the timestamp, which runs slightly ahead of the clock until the clock catches up.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+    private static final int COUNTER_BITS = 12; // Bits of the counter within a millisecond, the rand_a field
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VERSION = 0x7000L; // Version 7 in the most significant bits
+    private static final long VARIANT = 0x8000_0000_0000_0000L; // RFC 9562 variant in the least significant bits
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL; // The 62 random bits after the variant
+
+    private static final AtomicLong LAST_STAMP = new AtomicLong(); // Last timestamp and counter issued, as (millis << 12) | counter
+
+    /**
+     * Generates the next identifier, greater than any identifier generated before in this JVM.
+     *
+     * @return The UUIDv7.
+     */
+    public static UUID next() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long stamp = LAST_STAMP.updateAndGet(last -> now > last ? now : last + 1);
+        long mostSigBits = (stamp >>> COUNTER_BITS) << 16 | VERSION | (stamp & COUNTER_MASK);
+        long leastSigBits = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Returns the creation time of a UUIDv7 identifier.
+     *
+     * @param id The UUIDv7.
+     * @return The Unix timestamp in milliseconds.
+     */
+    public static long timestamp(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * Generates the identifier of an entity being inserted.
+     *
+     * @param session      The session of the insert.
+     * @param owner        The entity being inserted.
+     * @param currentValue The current identifier, null for a new entity.
+     * @param eventType    The insert event.
+     * @return The UUIDv7.
+     */
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    /**
+     * Returns the events the identifier is generated on.
+     *
+     * @return The insert event only.
+     */
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
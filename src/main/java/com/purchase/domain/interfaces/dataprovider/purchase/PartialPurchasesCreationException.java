@@ -0,0 +1,25 @@
+package com.purchase.domain.interfaces.dataprovider.purchase;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when a creation of purchases in bulk failed after committing some of them, as when
+ * each shard commits its own batch and only some of the shards fail.
+ */
+@Getter
+public class PartialPurchasesCreationException extends RuntimeException {
+    private final List<Integer> created; // Positions in the input list of the purchases committed, in ascending order
+
+    /**
+     * Creates the exception.
+     *
+     * @param created The positions in the input list of the purchases committed, in ascending order.
+     * @param cause   The failure of the purchases not committed.
+     */
+    public PartialPurchasesCreationException(List<Integer> created, Throwable cause) {
+        super("Only " + created.size() + " purchases were created: " + cause.getMessage(), cause);
+        this.created = List.copyOf(created);
+    }
+}
@@ -3,6 +3,9 @@ package com.purchase.domain.interfaces.dataprovider.purchase;
 import com.purchase.domain.entity.Purchase;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface PurchaseDataProvider {
@@ -14,6 +17,38 @@ public interface PurchaseDataProvider {
      */
     Purchase getPurchaseById(UUID id);
 
+    /**
+     * Retrieves the purchases with the given IDs in a single query.
+     *
+     * @param ids The IDs of the purchases to retrieve.
+     * @return The purchases found, in no particular order.
+     */
+    List<Purchase> getPurchasesByIds(Collection<UUID> ids);
+
+    /**
+     * Retrieves a page of the purchases with a purchase date within the range, ordered by purchase
+     * date and ID, starting right after the given purchase. The returned purchases are detached.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param after The last purchase of the previous page, or null for the first page.
+     * @param size  The maximum number of purchases returned.
+     * @return The page of purchases, shorter than size only when it is the last one.
+     */
+    List<Purchase> getPurchasesPage(LocalDate from, LocalDate to, Purchase after, int size);
+
+    /**
+     * Retrieves a page of the purchases with a purchase date within the range, ordered by their
+     * time-ordered ID, that is by creation, starting right after the given ID. The returned purchases are detached.
+     *
+     * @param from  The oldest purchase date accepted, inclusive.
+     * @param to    The newest purchase date accepted, inclusive.
+     * @param after The ID of the last purchase of the previous page, or null for the first page.
+     * @param size  The maximum number of purchases returned.
+     * @return The page of purchases, shorter than size only when it is the last one.
+     */
+    List<Purchase> getPurchasesCreatedPage(LocalDate from, LocalDate to, UUID after, int size);
+
     /**
      * Creates or updates a purchase using the provided input.
      *
@@ -21,4 +56,14 @@ public interface PurchaseDataProvider {
      * @return The created or updated purchase object.
      */
     Purchase createPurchase(CreatePurchaseInput createPurchaseInput);
+
+    /**
+     * Creates purchases in a single transaction using JDBC batch inserts. An implementation that
+     * commits them in several transactions throws a PartialPurchasesCreationException listing the
+     * purchases committed when only some of the transactions fail.
+     *
+     * @param createPurchaseInputs The validated input data of the purchases to create.
+     * @return The number of purchases created.
+     */
+    int createPurchases(List<CreatePurchaseInput> createPurchaseInputs);
 }
@@ -0,0 +1,46 @@
+package com.purchase.domain.interfaces.dataprovider.purchase;
+
+import com.purchase.domain.usecase.purchase.totals.PurchasePeriodStats;
+import com.purchase.domain.usecase.purchase.totals.TotalsPeriod;
+import com.purchase.domain.valueobject.Money;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PurchaseTotalsDataProvider {
+    /**
+     * Aggregates the dollar prices of the purchases of each period within the range in the database.
+     *
+     * @param from   The oldest purchase date accepted, inclusive.
+     * @param to     The newest purchase date accepted, inclusive.
+     * @param period The period the purchases are grouped by.
+     * @return The statistics of the periods holding purchases, in date order.
+     */
+    List<PurchasePeriodStats> getPeriodStats(LocalDate from, LocalDate to, TotalsPeriod period);
+
+    /**
+     * Streams the number of purchases of each purchase date and dollar price within the range, grouped
+     * in the database, so a pass over tens of millions of purchases never loads them one by one.
+     * A purchase date and price may be given more than once, the counts then add up.
+     *
+     * @param from    The oldest purchase date accepted, inclusive.
+     * @param to      The newest purchase date accepted, inclusive.
+     * @param handler The handler of each group.
+     */
+    void forEachDailyPrice(LocalDate from, LocalDate to, DailyPriceHandler handler);
+
+    /**
+     * Handler of the purchases of a purchase date sharing a dollar price.
+     */
+    @FunctionalInterface
+    interface DailyPriceHandler {
+        /**
+         * Handles the purchases of a purchase date sharing a dollar price.
+         *
+         * @param purchaseDate The purchase date.
+         * @param dolarPrice   The dollar price.
+         * @param count        The number of purchases.
+         */
+        void accept(LocalDate purchaseDate, Money dolarPrice, long count);
+    }
+}
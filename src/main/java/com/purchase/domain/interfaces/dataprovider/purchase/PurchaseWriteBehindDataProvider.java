@@ -0,0 +1,31 @@
+package com.purchase.domain.interfaces.dataprovider.purchase;
+
+import com.purchase.domain.entity.Purchase;
+
+import java.util.UUID;
+
+public interface PurchaseWriteBehindDataProvider {
+    /**
+     * Checks whether new purchases are written in the background.
+     *
+     * @return True if purchases are queued and written in batches by a background writer.
+     */
+    boolean isEnabled();
+
+    /**
+     * Queues a purchase with an assigned ID to be written in the background. When the queue is
+     * full or the writer is shutting down, the purchase is written by the calling thread instead.
+     *
+     * @param purchase The purchase to write, with its ID assigned.
+     * @return True if the purchase was queued, false if it was written before returning.
+     */
+    boolean write(Purchase purchase);
+
+    /**
+     * Retrieves a purchase that is queued and not written yet.
+     *
+     * @param id The ID of the purchase.
+     * @return The queued purchase, or null if it is not queued.
+     */
+    Purchase getQueuedPurchase(UUID id);
+}
@@ -0,0 +1,45 @@
+package com.purchase.domain.interfaces.dataprovider.purchaseConversion;
+
+import com.purchase.domain.entity.PurchaseConversion;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+public interface PurchaseConversionDataProvider {
+    /**
+     * Checks whether conversions are materialized.
+     *
+     * @return True if conversions are read from and stored in the conversion table.
+     */
+    boolean isEnabled();
+
+    /**
+     * Retrieves the materialized conversion of a purchase to a country's currency.
+     *
+     * @param purchaseId The ID of the purchase.
+     * @param country    The country for currency conversion.
+     * @return The conversion if found, otherwise null.
+     */
+    PurchaseConversion getConversion(UUID purchaseId, String country);
+
+    /**
+     * Stores a new conversion. Storing a conversion that already exists fails.
+     *
+     * @param conversion The conversion to store.
+     */
+    void saveConversion(PurchaseConversion conversion);
+
+    /**
+     * Recomputes the conversions of a country with a purchase date within the range that were converted
+     * with a rate effective no later than the given date, storing the ones the recompute changed.
+     *
+     * @param country             The country of the conversions.
+     * @param from                The oldest purchase date, inclusive.
+     * @param to                  The newest purchase date, inclusive.
+     * @param newestEffectiveDate The newest effective date of the ingested rates.
+     * @param recompute           Updates a conversion in place, returning whether it changed.
+     * @return The number of conversions changed.
+     */
+    int recomputeConversions(String country, LocalDate from, LocalDate to, LocalDate newestEffectiveDate, Predicate<PurchaseConversion> recompute);
+}
@@ -0,0 +1,67 @@
+package com.purchase.domain.interfaces.dataprovider.rateExchange;
+
+import com.purchase.domain.entity.RateExchange;
+import com.purchase.domain.valueobject.Rate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RateExchangeDataProvider {
+    /**
+     * Number of decimal places of the fixed-point rates returned by getLatestRate, the scaled value of a Rate.
+     */
+    int RATE_SCALE = Rate.SCALE;
+
+    /**
+     * Value returned by getLatestRate when no rate is found. Exchange rates are always positive.
+     */
+    long NO_RATE = 0L;
+
+    /**
+     * Retrieves the most recent rate of a country effective between the date limit and the purchase date.
+     *
+     * @param country      The country for currency conversion.
+     * @param dateLimit    The oldest effective date accepted.
+     * @param purchaseDate The date of the purchase.
+     * @return The rate as a fixed-point value scaled by RATE_SCALE, or NO_RATE if not found.
+     */
+    long getLatestRate(String country, LocalDate dateLimit, LocalDate purchaseDate);
+
+    /**
+     * Retrieves the effective date of the rate returned by getLatestRate.
+     *
+     * @param country      The country for currency conversion.
+     * @param dateLimit    The oldest effective date accepted.
+     * @param purchaseDate The date of the purchase.
+     * @return The effective date of the most recent rate, or null if not found.
+     */
+    LocalDate getLatestRateEffectiveDate(String country, LocalDate dateLimit, LocalDate purchaseDate);
+
+    /**
+     * Checks whether the local store holds any rate for the given country.
+     *
+     * @param country The country to check.
+     * @return True if at least one rate is stored for the country.
+     */
+    boolean hasRates(String country);
+
+    /**
+     * Retrieves the most recent record date held by the local store.
+     *
+     * @return The most recent record date, or null if the store is empty.
+     */
+    LocalDate getLatestRecordDate();
+
+    /**
+     * Stores the given rates, skipping the ones already present.
+     *
+     * @param rates The rates to store.
+     * @return The number of rates actually stored.
+     */
+    int saveRates(List<RateExchange> rates);
+
+    /**
+     * Rebuilds the in-memory rate index from the local store.
+     */
+    void refreshIndex();
+}
@@ -0,0 +1,107 @@
+package com.purchase.domain.usecase.purchase.conversion;
+
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
+import com.purchase.domain.entity.PurchaseConversion;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.valueobject.Rate;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Objects;
+
+@Service
+@Slf4j
+@AllArgsConstructor
+public class RecomputePurchaseConversionsUsecase {
+    private static final String LOG_PREFIX = "[RECOMPUTE PURCHASE CONVERSIONS USECASE] - ";
+    private static final String METRICS_NAME = "recompute_purchase_conversions"; // Use case tag of the timer
+    private static final int WINDOW_MARGIN_DAYS = 3; // Covers month ends, where minusMonths(6) is not the inverse of plusMonths(6)
+
+    @Autowired
+    private PurchaseConversionDataProvider purchaseConversionDataProvider;
+
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Autowired
+    private UsecaseMetrics usecaseMetrics;
+
+    /**
+     * Executes the use case to recompute the materialized conversions after rates were ingested in the
+     * local store and its index refreshed. Only the conversions whose 6 months window covers an ingested
+     * rate and that used a rate effective no later than it are read, and only the ones whose rate
+     * changed are written.
+     *
+     * @param ingestedRates The effective date range of the ingested rates of each country.
+     * @return The number of conversions changed.
+     */
+    public int execute(Collection<IngestedRates> ingestedRates) {
+        if (!purchaseConversionDataProvider.isEnabled() || ingestedRates.isEmpty()) {
+            return 0;
+        }
+        return usecaseMetrics.record(METRICS_NAME, UsecaseMetrics.PHASE_EXECUTE, UsecaseMetrics.NO_COUNTRY, () -> {
+            int changed = 0;
+            for (IngestedRates rates : ingestedRates) {
+                // A rate effective on day E applies to the purchases of E up to 6 months later
+                changed += purchaseConversionDataProvider.recomputeConversions(rates.country(),
+                        rates.oldestEffectiveDate(),
+                        rates.newestEffectiveDate().plusMonths(6).plusDays(WINDOW_MARGIN_DAYS),
+                        rates.newestEffectiveDate(),
+                        this::recompute);
+            }
+            log.info("{}Recomputed conversions of {} countries, {} changed", LOG_PREFIX, ingestedRates.size(), changed);
+            return changed;
+        });
+    }
+
+    /**
+     * Recomputes a conversion with the latest rate of the local store within its 6 months window.
+     *
+     * @param conversion The conversion, updated in place.
+     * @return True if the rate used changed.
+     */
+    private boolean recompute(PurchaseConversion conversion) {
+        LocalDate purchaseDate = conversion.getPurchaseDate();
+        LocalDate dateLimit = purchaseDate.minusMonths(6);
+        long scaledRate = rateExchangeDataProvider.getLatestRate(conversion.getCountry(), dateLimit, purchaseDate);
+        if (scaledRate == RateExchangeDataProvider.NO_RATE) {
+            return false; // Converted with a Treasury rate the local store does not cover
+        }
+        Rate rate = new Rate(scaledRate);
+        LocalDate effectiveDate = rateExchangeDataProvider.getLatestRateEffectiveDate(conversion.getCountry(), dateLimit, purchaseDate);
+        if (rate.equals(conversion.getRate()) && Objects.equals(effectiveDate, conversion.getEffectiveDate())) {
+            return false;
+        }
+        conversion.setRate(rate);
+        conversion.setEffectiveDate(effectiveDate);
+        conversion.setConvertedPrice(conversion.getDolarPrice().convert(rate));
+        return true;
+    }
+
+    /**
+     * Effective date range of the rates of a country ingested in the local store.
+     *
+     * @param country             The country of the rates.
+     * @param oldestEffectiveDate The oldest effective date ingested.
+     * @param newestEffectiveDate The newest effective date ingested.
+     */
+    public record IngestedRates(String country, LocalDate oldestEffectiveDate, LocalDate newestEffectiveDate) {
+
+        /**
+         * Widens the range to cover another ingested rate of the country.
+         *
+         * @param other The range of the other rate.
+         * @return The widened range.
+         */
+        public IngestedRates merge(IngestedRates other) {
+            return new IngestedRates(country,
+                    oldestEffectiveDate.isBefore(other.oldestEffectiveDate) ? oldestEffectiveDate : other.oldestEffectiveDate,
+                    newestEffectiveDate.isAfter(other.newestEffectiveDate) ? newestEffectiveDate : other.newestEffectiveDate);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.purchase.domain.usecase.purchase.create;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class CreatePurchaseBulkOutput {
+    private long accepted; // Number of rows stored
+    private long rejected; // Number of rows rejected
+    private List<RowError> errors = new ArrayList<>(); // Errors of the rejected rows
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long row; // Position of the row in the request, starting at 1
+        private List<String> errors; // Error messages of the row
+    }
+}
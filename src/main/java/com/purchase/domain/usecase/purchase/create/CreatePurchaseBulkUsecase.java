@@ -0,0 +1,157 @@
+package com.purchase.domain.usecase.purchase.create;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.purchase.domain.interfaces.dataprovider.purchase.PartialPurchasesCreationException;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Slf4j
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreatePurchaseBulkUsecase {
+    private static final String LOG_PREFIX = "[CREATE PURCHASE BULK USECASE] - ";
+    private static final int MAX_REPORTED_ERRORS = 1000; // Row errors kept in the response
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${purchase.bulk.chunk-size:5000}")
+    private int chunkSize; // Rows stored per transaction
+
+    /**
+     * Executes the use case to create purchases in bulk. The body is either a JSON array or
+     * newline-delimited JSON objects, read as a stream so memory stays flat. Valid rows are
+     * stored in chunks with JDBC batch inserts and invalid rows are reported individually. When a
+     * chunk cannot be stored, the chunks stored before it stay stored, and the response reports them
+     * as accepted with an error on the first row of the failed chunk, from which a client can resume.
+     * When only part of the chunk was committed, as with sharding, that part is accepted too and each
+     * row of the chunk not stored is reported, followed by the row from which a client can resume.
+     *
+     * @param body The request body stream.
+     * @return ResponseEntity with the accepted and rejected counts and the row errors.
+     */
+    public ResponseEntity<CreatePurchaseBulkOutput> execute(InputStream body) {
+        CreatePurchaseBulkOutput output = new CreatePurchaseBulkOutput();
+        List<CreatePurchaseInput> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkRows = new ArrayList<>(chunkSize); // Positions of the rows of the chunk
+        long row = 0;
+
+        // A root level array is unwrapped, otherwise consecutive root level objects are read
+        try (MappingIterator<CreatePurchaseInput> rows = objectMapper.readerFor(CreatePurchaseInput.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                CreatePurchaseInput item = rows.nextValue();
+                row++;
+                Set<ConstraintViolation<CreatePurchaseInput>> violations = item == null ? Set.of() : validator.validate(item);
+                if (item == null || !violations.isEmpty()) {
+                    reject(output, row, item == null
+                            ? List.of("Row is empty")
+                            : violations.stream().map(ConstraintViolation::getMessage).sorted().toList());
+                    continue;
+                }
+                chunk.add(item);
+                chunkRows.add(row);
+                if (chunk.size() == chunkSize && !store(output, chunk, chunkRows)) {
+                    return new ResponseEntity<>(output, HttpStatus.INTERNAL_SERVER_ERROR);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Rows read before the malformed one are still stored, the malformed one is the next row
+            if (!store(output, chunk, chunkRows)) {
+                return new ResponseEntity<>(output, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            reject(output, row + 1, List.of("Malformed JSON: " + e.getOriginalMessage()));
+            log.warn("{}Bulk ingestion stopped at row {}: {}", LOG_PREFIX, row + 1, e.getOriginalMessage());
+            return new ResponseEntity<>(output, HttpStatus.BAD_REQUEST);
+        } catch (IOException e) {
+            log.error("{}Some error occurred while reading the bulk request: {}", LOG_PREFIX, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Some error occurred while creating the purchases");
+        }
+        if (!store(output, chunk, chunkRows)) {
+            return new ResponseEntity<>(output, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        log.info("{}Bulk ingestion completed with {} accepted and {} rejected rows", LOG_PREFIX, output.getAccepted(), output.getRejected());
+        return new ResponseEntity<>(output, HttpStatus.OK);
+    }
+
+    /**
+     * Stores a chunk of valid rows and clears it. A chunk that cannot be stored is reported as an
+     * error on its first row, as neither it nor the rows after it are stored. A chunk partly
+     * committed has its committed rows accepted and an error on each of its other rows.
+     *
+     * @param output    The bulk output to update.
+     * @param chunk     The rows to store.
+     * @param chunkRows The positions of the rows of the chunk.
+     * @return True if the chunk was stored, false if the ingestion must stop.
+     */
+    private boolean store(CreatePurchaseBulkOutput output, List<CreatePurchaseInput> chunk, List<Long> chunkRows) {
+        if (chunk.isEmpty()) {
+            return true;
+        }
+        try {
+            output.setAccepted(output.getAccepted() + purchaseDataProvider.createPurchases(chunk));
+        } catch (PartialPurchasesCreationException e) {
+            output.setAccepted(output.getAccepted() + e.getCreated().size());
+            log.error("{}Bulk ingestion stopped at rows {} to {} after {} accepted rows: {}", LOG_PREFIX,
+                    chunkRows.get(0), chunkRows.get(chunkRows.size() - 1), output.getAccepted(), e.getMessage());
+            Set<Integer> created = new HashSet<>(e.getCreated());
+            for (int position = 0; position < chunk.size(); position++) {
+                if (!created.contains(position)) {
+                    output.getErrors().add(new CreatePurchaseBulkOutput.RowError(chunkRows.get(position),
+                            List.of("Some error occurred while creating the purchase, this row was not stored")));
+                }
+            }
+            output.getErrors().add(new CreatePurchaseBulkOutput.RowError(chunkRows.get(chunkRows.size() - 1) + 1,
+                    List.of("The ingestion stopped, this row and the rows after it were not stored")));
+            return false;
+        } catch (Exception e) {
+            log.error("{}Bulk ingestion stopped at row {} after {} accepted rows: {}", LOG_PREFIX, chunkRows.get(0), output.getAccepted(), e.getMessage());
+            output.getErrors().add(new CreatePurchaseBulkOutput.RowError(chunkRows.get(0),
+                    List.of("Some error occurred while creating the purchases, this row and the rows after it were not stored")));
+            return false;
+        }
+        chunk.clear();
+        chunkRows.clear();
+        return true;
+    }
+
+    /**
+     * Records a rejected row, keeping at most MAX_REPORTED_ERRORS row errors.
+     *
+     * @param output The bulk output to update.
+     * @param row    The position of the row, starting at 1.
+     * @param errors The error messages of the row.
+     */
+    private void reject(CreatePurchaseBulkOutput output, long row, List<String> errors) {
+        output.setRejected(output.getRejected() + 1);
+        if (output.getErrors().size() < MAX_REPORTED_ERRORS) {
+            output.getErrors().add(new CreatePurchaseBulkOutput.RowError(row, errors));
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.purchase.domain.usecase.purchase.create;
 
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
 import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.UuidV7Generator;
 import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseWriteBehindDataProvider;
+import com.purchase.domain.valueobject.Money;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,20 +19,47 @@ import org.springframework.web.server.ResponseStatusException;
 @AllArgsConstructor
 public class CreatePurchaseUsecase {
     private static final String LOG_PREFIX = "[CREATE PURCHASE USECASE] - ";
+    private static final String METRICS_NAME = "create_purchase"; // Use case tag of the timer
 
     @Autowired
     private PurchaseDataProvider purchaseDataProvider;
 
+    @Autowired
+    private UsecaseMetrics usecaseMetrics;
+
+    @Autowired
+    private PurchaseRatePrefetcher purchaseRatePrefetcher;
+
+    @Autowired
+    private PurchaseWriteBehindDataProvider purchaseWriteBehindDataProvider;
+
     /**
-     * Executes the use case to create a new purchase.
+     * Executes the use case to create a new purchase, timing the execution. In write-behind mode the
+     * purchase is queued and returned with HTTP status ACCEPTED (202) before it is stored.
      *
      * @param item The input data for creating the purchase.
      * @return ResponseEntity with the created Purchase object.
      */
     public ResponseEntity<Purchase> execute(CreatePurchaseInput item) {
+        return usecaseMetrics.record(METRICS_NAME, UsecaseMetrics.PHASE_EXECUTE, UsecaseMetrics.NO_COUNTRY, () -> createPurchase(item));
+    }
+
+    /**
+     * Creates the purchase through the data provider, then schedules the prefetch of the rates of
+     * the hot countries for its date. The prefetch runs in the background and cannot fail the creation.
+     *
+     * @param item The input data for creating the purchase.
+     * @return ResponseEntity with the created Purchase object.
+     */
+    private ResponseEntity<Purchase> createPurchase(CreatePurchaseInput item) {
         try {
+            if (purchaseWriteBehindDataProvider.isEnabled()) {
+                return queuePurchase(item);
+            }
+
             // Attempt to create the purchase using the provided input
             Purchase createdPurchase = purchaseDataProvider.createPurchase(item);
+            prefetchRates(createdPurchase);
 
             // Return a ResponseEntity with the created purchase and HTTP status CREATED (201)
             return new ResponseEntity<>(createdPurchase, HttpStatus.CREATED);
@@ -38,4 +69,36 @@ public class CreatePurchaseUsecase {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Some error occurred while creating the purchase");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Assigns the ID of the purchase and queues it to be written in the background. When the queue
+     * is full, the purchase is written before returning and the status is CREATED (201) instead.
+     *
+     * @param item The validated input data for creating the purchase.
+     * @return ResponseEntity with the queued Purchase object.
+     */
+    private ResponseEntity<Purchase> queuePurchase(CreatePurchaseInput item) {
+        Purchase purchase = new Purchase();
+        purchase.setId(UuidV7Generator.next()); // Assigned here, since no insert generates it before the response
+        purchase.setDescription(item.getDescription());
+        purchase.setPurchaseDate(item.getPurchaseDate());
+        purchase.setDolarPrice(Money.of(item.getDolarPrice()));
+
+        boolean queued = purchaseWriteBehindDataProvider.write(purchase);
+        prefetchRates(purchase);
+        return new ResponseEntity<>(purchase, queued ? HttpStatus.ACCEPTED : HttpStatus.CREATED);
+    }
+
+    /**
+     * Schedules the prefetch of the rates for the purchase date, logging any failure.
+     *
+     * @param purchase The created purchase.
+     */
+    private void prefetchRates(Purchase purchase) {
+        try {
+            purchaseRatePrefetcher.prefetch(purchase.getPurchaseDate());
+        } catch (RuntimeException e) {
+            log.warn("{}Could not prefetch the rates for the purchase: {}", LOG_PREFIX, e.toString());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.purchase.domain.usecase.purchase.create;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class PurchaseRatePrefetcher {
+    private static final String LOG_PREFIX = "[PURCHASE RATE PREFETCHER] - ";
+    public static final String PREFETCH_COUNTER = "purchase.rate.prefetch"; // Counter of the prefetches by result
+
+    @Autowired
+    private GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase; // Resolves the rates as a conversion request would
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService; // Tells which Treasury windows are cached
+
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider; // Tells which windows the local store already serves
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry of the prefetch counters
+
+    @Value("${purchase.rate-prefetch.countries:}")
+    private List<String> countries; // Hot countries whose rates are prefetched for every new purchase
+
+    @Value("${purchase.rate-prefetch.threads:2}")
+    private int threads; // Threads fetching the rates, bounding the upstream calls made by prefetches
+
+    @Value("${purchase.rate-prefetch.queue-capacity:1000}")
+    private int queueCapacity; // Prefetches waiting for a thread, beyond which new ones are dropped
+
+    private final Set<PrefetchWindow> pending = ConcurrentHashMap.newKeySet(); // Windows queued or being fetched
+
+    private ThreadPoolExecutor executor; // Bounded pool running the prefetches off the request thread
+
+    /**
+     * Builds the bounded prefetch pool once the configuration properties are injected.
+     */
+    @PostConstruct
+    void initExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "rate-prefetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true); // No idle threads when no purchase is created
+    }
+
+    /**
+     * Stops the prefetches in flight on shutdown.
+     */
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedules the prefetch of the rates of the hot countries for the 6 months window of a purchase
+     * date, so the first conversion of the purchase does not wait on the Treasury API. Windows the local
+     * store serves, the Treasury cache holds or a prefetch is already fetching are skipped, and when
+     * the queue is full the prefetch is dropped. It never blocks and never throws.
+     *
+     * @param purchaseDate The date of the new purchase.
+     */
+    public void prefetch(LocalDate purchaseDate) {
+        for (String country : countries) {
+            try {
+                schedule(new PrefetchWindow(country, purchaseDate.minusMonths(6)), purchaseDate);
+            } catch (RuntimeException e) {
+                log.warn("{}Could not schedule the prefetch for country: {} and purchase date: {}: {}", LOG_PREFIX, country, purchaseDate, e.toString());
+                count(country, "failed");
+            }
+        }
+    }
+
+    /**
+     * Schedules the prefetch of a window unless it is already served or being fetched.
+     *
+     * @param window       The window to prefetch.
+     * @param purchaseDate The date of the new purchase.
+     */
+    private void schedule(PrefetchWindow window, LocalDate purchaseDate) {
+        if (rateExchangeDataProvider.getLatestRate(window.country(), window.dateLimit(), purchaseDate) != RateExchangeDataProvider.NO_RATE
+                || fiscalDataTreasuryRateExchangeService.isCached(window.country(), window.dateLimit().toString())
+                || !pending.add(window)) {
+            count(window.country(), "skipped");
+            return;
+        }
+        try {
+            executor.execute(() -> fetch(window, purchaseDate));
+            count(window.country(), "scheduled");
+        } catch (RejectedExecutionException e) {
+            pending.remove(window);
+            count(window.country(), "rejected");
+        }
+    }
+
+    /**
+     * Fetches the rate of a window through the same path as a conversion request, which caches it.
+     *
+     * @param window       The window to prefetch.
+     * @param purchaseDate The date of the new purchase.
+     */
+    private void fetch(PrefetchWindow window, LocalDate purchaseDate) {
+        try {
+            getPurchaseCountryCurrencyUsecase.fetchRateExchange(window.country(), purchaseDate);
+            count(window.country(), "completed");
+        } catch (RuntimeException e) {
+            // A missing rate is cached as well, any other failure is left to the conversion request
+            log.debug(LOG_PREFIX + "Prefetch ended without a rate for country: {} and date limit: {}: {}", window.country(), window.dateLimit(), e.getMessage());
+            count(window.country(), "failed");
+        } finally {
+            pending.remove(window);
+        }
+    }
+
+    /**
+     * Counts a prefetch, tagged by country and result.
+     *
+     * @param country The country of the prefetch.
+     * @param result  The result of the prefetch.
+     */
+    private void count(String country, String result) {
+        Counter.builder(PREFETCH_COUNTER)
+                .tag("country", country)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Rate window of a country, identified by its date limit like the Treasury cache.
+     */
+    private record PrefetchWindow(String country, LocalDate dateLimit) {
+    }
+}
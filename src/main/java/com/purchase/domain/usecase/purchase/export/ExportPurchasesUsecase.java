@@ -0,0 +1,288 @@
+package com.purchase.domain.usecase.purchase.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import com.purchase.domain.valueobject.Rate;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+@Slf4j
+@AllArgsConstructor
+public class ExportPurchasesUsecase {
+    private static final String LOG_PREFIX = "[EXPORT PURCHASES USECASE] - ";
+    public static final int PAGE_SIZE = 1000; // Purchases read per keyset page
+    private static final LocalDate MIN_PURCHASE_DATE = LocalDate.of(1, 1, 1); // Lower bound of an open range
+    private static final LocalDate MAX_PURCHASE_DATE = LocalDate.of(9999, 12, 31); // Upper bound of an open range
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Executes the use case to export the purchases within a purchase date range as newline-delimited
+     * JSON or CSV. Purchases are read in pages with keyset pagination and written to the response as
+     * they are read, so memory stays flat whatever the number of purchases. In date order the key is
+     * (purchase date, ID); in creation order it is the time-ordered ID alone.
+     * When a country is given, each purchase is converted with the rate of its purchase date, resolved
+     * once per date; purchases without a rate within 6 months are exported without rate and converted price.
+     *
+     * @param format  The export format, ndjson or csv.
+     * @param order   The export order, date or created.
+     * @param country The country for currency conversion, or null to export the purchases only.
+     * @param from    The oldest purchase date exported, inclusive, or null for no lower bound.
+     * @param to      The newest purchase date exported, inclusive, or null for no upper bound.
+     * @return ResponseEntity streaming one purchase per line.
+     */
+    public ResponseEntity<StreamingResponseBody> execute(String format, String order, String country, LocalDate from, LocalDate to) {
+        ExportFormat exportFormat = parseFormat(format);
+        ExportOrder exportOrder = parseOrder(order);
+        LocalDate fromDate = from == null ? MIN_PURCHASE_DATE : from;
+        LocalDate toDate = to == null ? MAX_PURCHASE_DATE : to;
+        validateInput(country, fromDate, toDate); // Validate the request before the response starts streaming
+
+        StreamingResponseBody body = outputStream -> export(exportFormat, exportOrder, country, fromDate, toDate, outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportFormat.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Parses the export format.
+     *
+     * @param format The export format, ndjson or csv, case insensitive.
+     * @return The parsed export format.
+     */
+    private ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format must be ndjson or csv");
+        }
+    }
+
+    /**
+     * Parses the export order.
+     *
+     * @param order The export order, date or created, case insensitive.
+     * @return The parsed export order.
+     */
+    private ExportOrder parseOrder(String order) {
+        try {
+            return ExportOrder.valueOf(order.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order must be date or created");
+        }
+    }
+
+    /**
+     * Validates the country and the purchase date range.
+     *
+     * @param country The country for currency conversion, or null.
+     * @param from    The oldest purchase date exported.
+     * @param to      The newest purchase date exported.
+     */
+    private void validateInput(String country, LocalDate from, LocalDate to) {
+        if (country != null && country.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Country must not be blank");
+        }
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The start date must not be after the end date");
+        }
+    }
+
+    /**
+     * Walks every page of purchases within the range and writes them to the output stream,
+     * flushing once per page.
+     *
+     * @param format       The export format.
+     * @param order        The export order.
+     * @param country      The country for currency conversion, or null.
+     * @param from         The oldest purchase date exported.
+     * @param to           The newest purchase date exported.
+     * @param outputStream The response output stream.
+     */
+    private void export(ExportFormat format, ExportOrder order, String country, LocalDate from, LocalDate to, OutputStream outputStream) throws IOException {
+        log.info("{}Exporting purchases from {} to {} as {} in {} order with country: {}", LOG_PREFIX, from, to, format, order, country);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writer();
+        if (format == ExportFormat.CSV) {
+            writer.write(country == null
+                    ? "purchaseId,description,purchaseDate,dolarPrice\n"
+                    : "purchaseId,description,purchaseDate,dolarPrice,rate,convertedPrice\n");
+        }
+
+        Map<LocalDate, Rate> rates = new HashMap<>(); // Rate of each purchase date exported, null when none is found
+        long count = 0;
+        Purchase last = null;
+        List<Purchase> page;
+        do {
+            page = order == ExportOrder.DATE
+                    ? purchaseDataProvider.getPurchasesPage(from, to, last, PAGE_SIZE)
+                    : purchaseDataProvider.getPurchasesCreatedPage(from, to, last == null ? null : last.getId(), PAGE_SIZE);
+            for (Purchase purchase : page) {
+                if (country == null) {
+                    writePurchase(format, jsonWriter, writer, purchase);
+                } else {
+                    LocalDate purchaseDate = purchase.getPurchaseDate();
+                    if (!rates.containsKey(purchaseDate)) {
+                        rates.put(purchaseDate, fetchRate(country, purchaseDate));
+                    }
+                    writeConversion(format, jsonWriter, writer, purchase, rates.get(purchaseDate));
+                }
+            }
+            count += page.size();
+            if (!page.isEmpty()) {
+                last = page.get(page.size() - 1);
+            }
+            writer.flush(); // Send the page to the client
+        } while (page.size() == PAGE_SIZE);
+        log.info("{}Export completed with {} purchases", LOG_PREFIX, count);
+    }
+
+    /**
+     * Fetches the rate of a purchase date.
+     *
+     * @param country      The country for currency conversion.
+     * @param purchaseDate The purchase date.
+     * @return The rate, or null when there is no rate within 6 months before the purchase date.
+     */
+    private Rate fetchRate(String country, LocalDate purchaseDate) {
+        try {
+            return getPurchaseCountryCurrencyUsecase.fetchRateExchange(country, purchaseDate);
+        } catch (ResponseStatusException e) {
+            if (e.getStatusCode().value() != HttpStatus.NOT_FOUND.value()) {
+                // The response has started, so the export is aborted instead of silently missing rates
+                log.error("{}Some error occurred while converting currency for country: {}: {}", LOG_PREFIX, country, e.getReason());
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Writes a purchase as a JSON line or a CSV row.
+     *
+     * @param format     The export format.
+     * @param jsonWriter The JSON writer of the lines.
+     * @param writer     The buffered response writer.
+     * @param purchase   The purchase to write.
+     */
+    private void writePurchase(ExportFormat format, ObjectWriter jsonWriter, Writer writer, Purchase purchase) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            writer.write(jsonWriter.writeValueAsString(purchase));
+        } else {
+            writeCsvPrefix(writer, purchase);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a converted purchase as a JSON line or a CSV row, with empty rate and converted price when no rate is found.
+     *
+     * @param format     The export format.
+     * @param jsonWriter The JSON writer of the lines.
+     * @param writer     The buffered response writer.
+     * @param purchase   The purchase to write.
+     * @param rate       The rate of the purchase date, or null.
+     */
+    private void writeConversion(ExportFormat format, ObjectWriter jsonWriter, Writer writer, Purchase purchase, Rate rate) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            GetPurchaseCountryCurrencyOutput output = rate == null
+                    ? GetPurchaseCountryCurrencyOutput.builder()
+                        .purchaseId(purchase.getId())
+                        .description(purchase.getDescription())
+                        .purchaseDate(purchase.getPurchaseDate())
+                        .dolarPrice(purchase.getDolarPrice())
+                        .build()
+                    : getPurchaseCountryCurrencyUsecase.buildOutput(purchase, rate);
+            writer.write(jsonWriter.writeValueAsString(output));
+        } else {
+            writeCsvPrefix(writer, purchase);
+            writer.write(',');
+            if (rate != null) {
+                writer.write(rate.toString());
+                writer.write(',');
+                writer.write(purchase.getDolarPrice().convert(rate).toString());
+            } else {
+                writer.write(',');
+            }
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Writes the purchase columns of a CSV row.
+     *
+     * @param writer   The buffered response writer.
+     * @param purchase The purchase to write.
+     */
+    private void writeCsvPrefix(Writer writer, Purchase purchase) throws IOException {
+        writer.write(purchase.getId().toString());
+        writer.write(',');
+        writeCsvField(writer, purchase.getDescription());
+        writer.write(',');
+        writer.write(purchase.getPurchaseDate().toString());
+        writer.write(',');
+        writer.write(purchase.getDolarPrice().toString());
+    }
+
+    /**
+     * Writes a text CSV field, quoting it when it contains a separator, a quote or a line break.
+     *
+     * @param writer The buffered response writer.
+     * @param value  The field value.
+     */
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Formats of the export.
+     */
+    private enum ExportFormat {
+        NDJSON, CSV
+    }
+
+    /**
+     * Orders of the export, by purchase date or by creation.
+     */
+    private enum ExportOrder {
+        DATE, CREATED
+    }
+}
@@ -0,0 +1,15 @@
+package com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetPurchaseCountryCurrencyBatchInput {
+    private UUID purchaseId; // The ID of the purchase
+    private String country; // The country for currency conversion
+}
@@ -0,0 +1,16 @@
+package com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class GetPurchaseCountryCurrencyBatchOutput {
+    private UUID purchaseId; // The ID of the requested purchase
+    private String country; // The requested country
+    private int status; // The HTTP status of this item
+    private String error; // The error message when the item could not be converted
+    private GetPurchaseCountryCurrencyOutput result; // The conversion result when the item succeeded
+}
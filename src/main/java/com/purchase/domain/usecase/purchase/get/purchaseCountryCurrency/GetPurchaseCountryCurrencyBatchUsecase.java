@@ -0,0 +1,174 @@
+package com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.valueobject.Rate;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+@AllArgsConstructor
+public class GetPurchaseCountryCurrencyBatchUsecase {
+    private static final String LOG_PREFIX = "[GET PURCHASE COUNTRY CURRENCY BATCH USECASE] - ";
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final byte[] LINE_SEPARATOR = {'\n'};
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Executes the use case to convert many purchases into many countries' currencies.
+     * All purchases are loaded with a single query and each distinct (country, purchase date)
+     * rate is resolved once. Results are streamed as newline-delimited JSON as soon as they
+     * are produced, and failures are reported per item.
+     *
+     * @param items The (purchaseId, country) pairs to convert.
+     * @return ResponseEntity streaming one GetPurchaseCountryCurrencyBatchOutput per line.
+     */
+    public ResponseEntity<StreamingResponseBody> execute(List<GetPurchaseCountryCurrencyBatchInput> items) {
+        validateInput(items); // Validate the batch before the response starts streaming
+
+        StreamingResponseBody body = outputStream -> convert(items, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Validates the batch.
+     *
+     * @param items The (purchaseId, country) pairs to convert.
+     */
+    private void validateInput(List<GetPurchaseCountryCurrencyBatchInput> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one item is required");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch must not exceed " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    /**
+     * Converts every item of the batch, writing each result to the output stream as it is produced.
+     *
+     * @param items        The (purchaseId, country) pairs to convert.
+     * @param outputStream The response output stream.
+     */
+    private void convert(List<GetPurchaseCountryCurrencyBatchInput> items, OutputStream outputStream) throws IOException {
+        log.info("{}Executing batch with {} items", LOG_PREFIX, items.size());
+
+        // Load every requested purchase with a single query
+        List<UUID> purchaseIds = items.stream()
+                .map(GetPurchaseCountryCurrencyBatchInput::getPurchaseId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<UUID, Purchase> purchases = purchaseDataProvider.getPurchasesByIds(purchaseIds).stream()
+                .collect(Collectors.toMap(Purchase::getId, Function.identity()));
+
+        // Group the convertible items by the inputs that determine their rate
+        Map<RateKey, List<Purchase>> groups = new LinkedHashMap<>();
+        for (GetPurchaseCountryCurrencyBatchInput item : items) {
+            if (item.getPurchaseId() == null || item.getCountry() == null || item.getCountry().isBlank()) {
+                write(outputStream, failure(item.getPurchaseId(), item.getCountry(), HttpStatus.BAD_REQUEST, "Purchase ID and country are required"));
+                continue;
+            }
+            Purchase purchase = purchases.get(item.getPurchaseId());
+            if (purchase == null) {
+                write(outputStream, failure(item.getPurchaseId(), item.getCountry(), HttpStatus.NOT_FOUND, "The purchase cannot be found"));
+                continue;
+            }
+            groups.computeIfAbsent(new RateKey(item.getCountry(), purchase.getPurchaseDate()), key -> new ArrayList<>()).add(purchase);
+        }
+
+        // Resolve each distinct rate once and stream the results of its group
+        for (Map.Entry<RateKey, List<Purchase>> group : groups.entrySet()) {
+            String country = group.getKey().country();
+            Rate rate;
+            try {
+                rate = getPurchaseCountryCurrencyUsecase.fetchRateExchange(country, group.getKey().purchaseDate());
+            } catch (ResponseStatusException e) {
+                for (Purchase purchase : group.getValue()) {
+                    write(outputStream, failure(purchase.getId(), country, HttpStatus.valueOf(e.getStatusCode().value()), e.getReason()));
+                }
+                continue;
+            } catch (Exception e) {
+                log.error("{}Some error occurred while converting currency for country: {}: {}", LOG_PREFIX, country, e.getMessage());
+                for (Purchase purchase : group.getValue()) {
+                    write(outputStream, failure(purchase.getId(), country, HttpStatus.INTERNAL_SERVER_ERROR, "Some error occurred while converting currency. Try again later."));
+                }
+                continue;
+            }
+            for (Purchase purchase : group.getValue()) {
+                write(outputStream, GetPurchaseCountryCurrencyBatchOutput.builder()
+                        .purchaseId(purchase.getId())
+                        .country(country)
+                        .status(HttpStatus.OK.value())
+                        .result(getPurchaseCountryCurrencyUsecase.buildOutput(purchase, rate))
+                        .build());
+            }
+        }
+        log.info("{}Batch execution completed", LOG_PREFIX);
+    }
+
+    /**
+     * Builds the output of an item that could not be converted.
+     *
+     * @param purchaseId The ID of the requested purchase.
+     * @param country    The requested country.
+     * @param status     The HTTP status of the failure.
+     * @param error      The error message.
+     * @return The failed item output.
+     */
+    private GetPurchaseCountryCurrencyBatchOutput failure(UUID purchaseId, String country, HttpStatus status, String error) {
+        return GetPurchaseCountryCurrencyBatchOutput.builder()
+                .purchaseId(purchaseId)
+                .country(country)
+                .status(status.value())
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Writes one item as a JSON line and flushes it to the client.
+     *
+     * @param outputStream The response output stream.
+     * @param output       The item output.
+     */
+    private void write(OutputStream outputStream, GetPurchaseCountryCurrencyBatchOutput output) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(output));
+        outputStream.write(LINE_SEPARATOR);
+        outputStream.flush();
+    }
+
+    /**
+     * Inputs that determine the rate of a conversion.
+     */
+    private record RateKey(String country, LocalDate purchaseDate) {
+    }
+}
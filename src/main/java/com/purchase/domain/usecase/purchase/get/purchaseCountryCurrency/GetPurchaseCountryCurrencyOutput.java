@@ -1,9 +1,10 @@
 package com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency;
 
+import com.purchase.domain.valueobject.Money;
+import com.purchase.domain.valueobject.Rate;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -13,7 +14,7 @@ public class GetPurchaseCountryCurrencyOutput {
     private UUID purchaseId; // The ID of the purchase
     private String description; // The description of the purchase
     private LocalDate purchaseDate; // The date of the purchase
-    private BigDecimal dolarPrice; // The price in dolar of the purchase
-    private BigDecimal rate; // The currency exchange rate
-    private BigDecimal convertedPrice; // The price converted to the target currency
+    private Money dolarPrice; // The price in dolar of the purchase
+    private Rate rate; // The currency exchange rate
+    private Money convertedPrice; // The price converted to the target currency
 }
@@ -0,0 +1,119 @@
+package com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.valueobject.Rate;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+@Service
+@Slf4j
+@AllArgsConstructor
+public class GetPurchaseCountryCurrencyReactiveUsecase {
+    private static final String LOG_PREFIX = "[GET PURCHASE COUNTRY CURRENCY REACTIVE USECASE] - ";
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService;
+
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Autowired
+    private GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase;
+
+    /**
+     * Executes the use case to get purchase country currency without holding a thread while the
+     * Treasury API answers. The blocking purchase lookup runs on the bounded elastic scheduler and
+     * the rate is fetched through the non-blocking Treasury client.
+     *
+     * @param purchaseId The ID of the purchase.
+     * @param country    The country for currency conversion.
+     * @return Mono emitting the ResponseEntity with the output data.
+     */
+    public Mono<ResponseEntity<GetPurchaseCountryCurrencyOutput>> execute(UUID purchaseId, String country) {
+        log.debug(LOG_PREFIX + "Executing with purchaseId: {} and country: {}", purchaseId, country);
+
+        getPurchaseCountryCurrencyUsecase.validateInput(purchaseId, country); // Validate input parameters
+
+        return fetchPurchase(purchaseId)
+                // The rate window depends on the purchase date, so the rate is fetched once the purchase is known
+                .flatMap(purchase -> fetchRateExchange(country, purchase.getPurchaseDate())
+                        .map(rate -> getPurchaseCountryCurrencyUsecase.buildOutput(purchase, rate)))
+                .map(output -> {
+                    log.info(LOG_PREFIX + "Execution completed for purchaseId: {} and country: {}", purchaseId, country);
+                    return new ResponseEntity<>(output, HttpStatus.OK);
+                });
+    }
+
+    /**
+     * Fetches the purchase data on the bounded elastic scheduler, as the data provider blocks.
+     *
+     * @param purchaseId The ID of the purchase.
+     * @return Mono emitting the fetched Purchase object, or a not found error.
+     */
+    private Mono<Purchase> fetchPurchase(UUID purchaseId) {
+        return Mono.fromCallable(() -> purchaseDataProvider.getPurchaseById(purchaseId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.error(() -> {
+                    log.warn("{}No purchase found for ID: {}", LOG_PREFIX, purchaseId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "The purchase cannot be found");
+                }));
+    }
+
+    /**
+     * Fetches the rate exchange, resolving it from the in-memory index of the local store and
+     * falling back to the Treasury API only when the local store holds no rate for the country.
+     *
+     * @param country      The country for currency conversion.
+     * @param purchaseDate The date of the purchase.
+     * @return Mono emitting the fetched exchange rate, or a not found or internal server error.
+     */
+    Mono<Rate> fetchRateExchange(String country, LocalDate purchaseDate) {
+        // Calculate the date limit 6 months prior to the purchase date
+        LocalDate dateLimit = purchaseDate.minusMonths(6);
+
+        // Resolve the rate from the local store, an in-memory lookup that never blocks
+        long localRate = rateExchangeDataProvider.getLatestRate(country, dateLimit, purchaseDate);
+        if (localRate != RateExchangeDataProvider.NO_RATE) {
+            return Mono.just(new Rate(localRate));
+        }
+        if (rateExchangeDataProvider.hasRates(country)) {
+            // The local store knows the country but holds no rate within the 6 months window
+            log.warn("{}No local rate exchange data found for country: {} and date limit: {}", LOG_PREFIX, country, dateLimit);
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "The rate exchange data cannot be found"));
+        }
+
+        String dateLimitStr = dateLimit.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+
+        return fiscalDataTreasuryRateExchangeService.getTreasureRateReactive(country, dateLimitStr)
+                .switchIfEmpty(Mono.error(() -> {
+                    // An empty result means the request failed, timed out or was rejected by the bounded pool
+                    log.error("{}Error occurred while accessing the API", LOG_PREFIX);
+                    return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Some error occurred while converting currency. Try again later.");
+                }))
+                .flatMap(rateExchangeOutput -> {
+                    if (rateExchangeOutput.getData().isEmpty()) {
+                        log.warn("{}No rate exchange data found for country: {} and date limit: {}", LOG_PREFIX, country, dateLimitStr);
+                        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "The rate exchange data cannot be found"));
+                    }
+                    // Return the most recent exchange rate
+                    return Mono.just(Rate.of(rateExchangeOutput.getData().get(0).getExchange_rate()));
+                });
+    }
+}
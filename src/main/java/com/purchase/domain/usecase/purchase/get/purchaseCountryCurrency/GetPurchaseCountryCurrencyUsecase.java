@@ -2,18 +2,25 @@ package com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency;
 
 import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
 import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.application.configuration.concurrency.RequestCoalescer;
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
 import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.PurchaseConversion;
 import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.valueobject.Money;
+import com.purchase.domain.valueobject.Rate;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
@@ -23,6 +30,8 @@ import java.util.UUID;
 @AllArgsConstructor
 public class GetPurchaseCountryCurrencyUsecase {
     private static final String LOG_PREFIX = "[GET PURCHASE COUNTRY CURRENCY USECASE] - ";
+    private static final String METRICS_NAME = "get_purchase_country_currency"; // Use case tag of the timers
+    private static final String UNIQUE_VIOLATION = "23505"; // SQL state of a unique violation, shared by PostgreSQL and H2
 
     @Autowired
     private PurchaseDataProvider purchaseDataProvider;
@@ -30,31 +39,119 @@ public class GetPurchaseCountryCurrencyUsecase {
     @Autowired
     private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService;
 
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Autowired
+    private UsecaseMetrics usecaseMetrics;
+
+    @Autowired
+    private PurchaseConversionDataProvider purchaseConversionDataProvider;
+
+    private final RequestCoalescer<ConversionKey, GetPurchaseCountryCurrencyOutput> inFlight = new RequestCoalescer<>(); // Conversions in flight, shared by identical concurrent requests
+
     /**
-     * Executes the use case to get purchase country currency.
+     * Executes the use case to get purchase country currency. The execution and each of its
+     * purchase fetch, rate fetch and compute phases are timed separately.
+     * Concurrent requests for the same purchase and country share a single conversion and its
+     * result or exception, so a burst of identical requests fetches the purchase and the rate once.
+     * When the conversion table is enabled, a conversion already materialized is returned as stored.
      *
      * @param purchaseId The ID of the purchase.
      * @param country    The country for currency conversion.
      * @return ResponseEntity with the output data.
      */
     public ResponseEntity<GetPurchaseCountryCurrencyOutput> execute(UUID purchaseId, String country) {
-        log.info("{}Executing with purchaseId: {} and country: {}", LOG_PREFIX, purchaseId, country);
+        return usecaseMetrics.record(METRICS_NAME, UsecaseMetrics.PHASE_EXECUTE, country, () -> {
+            // The prefix is concatenated at compile time, so these calls take two arguments and
+            // allocate nothing when their level is off; the completion line is sampled at INFO
+            log.debug(LOG_PREFIX + "Executing with purchaseId: {} and country: {}", purchaseId, country);
+
+            validateInput(purchaseId, country); // Validate input parameters
+
+            GetPurchaseCountryCurrencyOutput output = inFlight.execute(new ConversionKey(purchaseId, country),
+                    () -> convert(purchaseId, country),
+                    () -> usecaseMetrics.recordCoalesced(METRICS_NAME, country));
+            log.info(LOG_PREFIX + "Execution completed for purchaseId: {} and country: {}", purchaseId, country);
+            return new ResponseEntity<>(output, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Converts the purchase, timing its purchase fetch, rate fetch and compute phases. When the
+     * conversion table is enabled, it is read first and filled with the conversion on a miss.
+     *
+     * @param purchaseId The ID of the purchase.
+     * @param country    The country for currency conversion.
+     * @return The converted purchase.
+     */
+    private GetPurchaseCountryCurrencyOutput convert(UUID purchaseId, String country) {
+        boolean materialized = purchaseConversionDataProvider.isEnabled();
+        if (materialized) {
+            PurchaseConversion conversion = usecaseMetrics.record(METRICS_NAME, "conversion_fetch", country,
+                    () -> purchaseConversionDataProvider.getConversion(purchaseId, country));
+            if (conversion != null) {
+                return buildOutput(conversion);
+            }
+        }
 
-        validateInput(purchaseId, country); // Validate input parameters
+        Purchase purchase = usecaseMetrics.record(METRICS_NAME, "purchase_fetch", country,
+                () -> fetchPurchase(purchaseId)); // Fetch purchase data
 
-        Purchase purchase = fetchPurchase(purchaseId); // Fetch purchase data
+        ResolvedRate rate = usecaseMetrics.record(METRICS_NAME, "rate_fetch", country,
+                () -> resolveRate(country, purchase.getPurchaseDate())); // Fetch rate exchange
 
-        LocalDate purchaseDate = purchase.getPurchaseDate();
-        RateExchangeOutput rateExchangeOutput = fetchRateExchange(country, purchaseDate); // Fetch rate exchange
+        GetPurchaseCountryCurrencyOutput output = usecaseMetrics.record(METRICS_NAME, "compute", country,
+                () -> buildOutput(purchase, rate.rate()));
+        if (materialized) {
+            storeConversion(output, country, rate.effectiveDate());
+        }
+        return output;
+    }
 
-        if (rateExchangeOutput.getData().isEmpty()) {
-            log.warn("{}No rate exchange data found for country: {} and purchase date: {}", LOG_PREFIX, country, purchaseDate);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The purchase cannot be converted to the target currency");
+    /**
+     * Stores a conversion in the conversion table. A concurrent request storing the same conversion
+     * first is expected and ignored, any other failure is logged as an error and does not fail the request.
+     *
+     * @param output        The converted purchase.
+     * @param country       The country for currency conversion.
+     * @param effectiveDate The effective date of the rate used, or null if unknown.
+     */
+    private void storeConversion(GetPurchaseCountryCurrencyOutput output, String country, LocalDate effectiveDate) {
+        PurchaseConversion conversion = new PurchaseConversion();
+        conversion.setPurchaseId(output.getPurchaseId());
+        conversion.setCountry(country);
+        conversion.setDescription(output.getDescription());
+        conversion.setPurchaseDate(output.getPurchaseDate());
+        conversion.setDolarPrice(output.getDolarPrice());
+        conversion.setRate(output.getRate());
+        conversion.setEffectiveDate(effectiveDate);
+        conversion.setConvertedPrice(output.getConvertedPrice());
+        try {
+            purchaseConversionDataProvider.saveConversion(conversion);
+        } catch (RuntimeException e) {
+            if (e instanceof DataIntegrityViolationException violation && isDuplicateKey(violation)) {
+                log.debug(LOG_PREFIX + "Conversion already stored for purchaseId: {} and country: {}", output.getPurchaseId(), country);
+                return;
+            }
+            log.error("{}Conversion not stored for purchaseId: {} and country: {}: {}", LOG_PREFIX, output.getPurchaseId(), country, e.getMessage());
         }
+    }
 
-        GetPurchaseCountryCurrencyOutput output = buildOutput(purchase, rateExchangeOutput.getData().get(0));
-        log.info("{}Execution completed successfully", LOG_PREFIX);
-        return new ResponseEntity<>(output, HttpStatus.OK);
+    /**
+     * Checks whether an integrity violation is a duplicate primary key, the only unique constraint
+     * of the conversion table, as raised when a concurrent request stored the same conversion first.
+     *
+     * @param e The integrity violation.
+     * @return True if the database reported a unique violation.
+     */
+    private boolean isDuplicateKey(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -63,7 +160,7 @@ public class GetPurchaseCountryCurrencyUsecase {
      * @param purchaseId The ID of the purchase.
      * @param country    The country for currency conversion.
      */
-    private void validateInput(UUID purchaseId, String country) {
+    void validateInput(UUID purchaseId, String country) {
         if (purchaseId == null || country == null || country.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Purchase ID and country are required");
         }
@@ -85,15 +182,39 @@ public class GetPurchaseCountryCurrencyUsecase {
     }
 
     /**
-     * Fetches the rate exchange data.
+     * Fetches the rate exchange, resolving it from the in-memory index of the local store and
+     * falling back to the Treasury API only when the local store holds no rate for the country.
      *
      * @param country      The country for currency conversion.
      * @param purchaseDate The date of the purchase.
-     * @return The fetched RateExchangeOutput object.
+     * @return The fetched exchange rate.
      */
-    private RateExchangeOutput fetchRateExchange(String country, LocalDate purchaseDate) {
+    public Rate fetchRateExchange(String country, LocalDate purchaseDate) {
+        return resolveRate(country, purchaseDate).rate();
+    }
+
+    /**
+     * Resolves the rate exchange with its effective date, from the local store or the Treasury API.
+     *
+     * @param country      The country for currency conversion.
+     * @param purchaseDate The date of the purchase.
+     * @return The fetched exchange rate and its effective date.
+     */
+    private ResolvedRate resolveRate(String country, LocalDate purchaseDate) {
         // Calculate the date limit 6 months prior to the purchase date
         LocalDate dateLimit = purchaseDate.minusMonths(6);
+
+        // Resolve the rate from the local store
+        long localRate = rateExchangeDataProvider.getLatestRate(country, dateLimit, purchaseDate);
+        if (localRate != RateExchangeDataProvider.NO_RATE) {
+            return new ResolvedRate(new Rate(localRate), rateExchangeDataProvider.getLatestRateEffectiveDate(country, dateLimit, purchaseDate));
+        }
+        if (rateExchangeDataProvider.hasRates(country)) {
+            // The local store knows the country but holds no rate within the 6 months window
+            log.warn("{}No local rate exchange data found for country: {} and date limit: {}", LOG_PREFIX, country, dateLimit);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The rate exchange data cannot be found");
+        }
+
         String dateLimitStr = dateLimit.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
 
         // Fetch rate exchange data from the service
@@ -115,22 +236,23 @@ public class GetPurchaseCountryCurrencyUsecase {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The rate exchange data cannot be found");
         }
 
-        // Return the fetched rate exchange data
-        return rateExchangeOutput;
+        // Return the most recent exchange rate
+        RateExchangeOutput.Data latest = rateExchangeOutput.getData().get(0);
+        return new ResolvedRate(Rate.of(latest.getExchange_rate()), latest.getEffective_date());
     }
 
     /**
      * Builds the output object.
      *
      * @param purchase The Purchase object.
-     * @param data     The RateExchangeOutput data.
+     * @param rate     The exchange rate.
      * @return The constructed GetPurchaseCountryCurrencyOutput object.
      */
-    private GetPurchaseCountryCurrencyOutput buildOutput(Purchase purchase, RateExchangeOutput.Data data) {
-        BigDecimal convertedPrice = calculateConvertedPrice(purchase.getDolarPrice(), BigDecimal.valueOf(data.getExchange_rate()));
+    public GetPurchaseCountryCurrencyOutput buildOutput(Purchase purchase, Rate rate) {
+        Money convertedPrice = calculateConvertedPrice(purchase.getDolarPrice(), rate);
         return GetPurchaseCountryCurrencyOutput.builder()
                 .purchaseId(purchase.getId())
-                .rate(BigDecimal.valueOf(data.getExchange_rate()))
+                .rate(rate)
                 .dolarPrice(purchase.getDolarPrice())
                 .description(purchase.getDescription())
                 .purchaseDate(purchase.getPurchaseDate())
@@ -139,13 +261,42 @@ public class GetPurchaseCountryCurrencyUsecase {
     }
 
     /**
-     * Calculates the converted price.
+     * Builds the output object from a materialized conversion.
+     *
+     * @param conversion The stored conversion.
+     * @return The constructed GetPurchaseCountryCurrencyOutput object.
+     */
+    private GetPurchaseCountryCurrencyOutput buildOutput(PurchaseConversion conversion) {
+        return GetPurchaseCountryCurrencyOutput.builder()
+                .purchaseId(conversion.getPurchaseId())
+                .rate(conversion.getRate())
+                .dolarPrice(conversion.getDolarPrice())
+                .description(conversion.getDescription())
+                .purchaseDate(conversion.getPurchaseDate())
+                .convertedPrice(conversion.getConvertedPrice())
+                .build();
+    }
+
+    /**
+     * Calculates the converted price, rounded HALF_UP to cents.
      *
      * @param price The original price.
      * @param rate  The exchange rate.
      * @return The converted price.
      */
-    private BigDecimal calculateConvertedPrice(BigDecimal price, BigDecimal rate) {
-        return price.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    Money calculateConvertedPrice(Money price, Rate rate) {
+        return price.convert(rate);
+    }
+
+    /**
+     * Key of identical conversion requests.
+     */
+    private record ConversionKey(UUID purchaseId, String country) {
+    }
+
+    /**
+     * Exchange rate with its effective date, null when the Treasury API did not tell.
+     */
+    private record ResolvedRate(Rate rate, LocalDate effectiveDate) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.purchase.domain.usecase.purchase.totals;
+
+import com.purchase.domain.valueobject.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class GetPurchaseTotalsOutput {
+    private String period; // Period the totals are grouped by, month or quarter
+    private LocalDate from; // First day of the first period
+    private LocalDate to; // Last day of the last period
+    private List<PeriodTotals> totals = new ArrayList<>(); // Totals of every period of the range, in date order
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PeriodTotals {
+        private String period; // Label of the period, such as 2024-01 or 2024-Q1
+        private LocalDate start; // First day of the period
+        private LocalDate end; // Last day of the period
+        private boolean closed; // Whether the period ended before today, its totals being cached
+        private long count; // Number of purchases
+        private Money total; // Sum of the dollar prices
+        private Money min; // Lowest dollar price, null without purchases
+        private Money max; // Highest dollar price, null without purchases
+        private Money p50; // Median dollar price, null without purchases
+        private Money p90; // 90th percentile of the dollar prices, null without purchases
+        private Money p99; // 99th percentile of the dollar prices, null without purchases
+        private Map<String, ConvertedTotals> converted; // Converted totals by target country
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ConvertedTotals {
+        private long count; // Number of purchases converted
+        private Money total; // Sum of the converted prices, each rounded to cents as a single conversion
+        private long unconverted; // Number of purchases without a local rate within 6 months before their date
+    }
+}
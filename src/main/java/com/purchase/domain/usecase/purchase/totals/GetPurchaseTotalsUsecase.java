@@ -0,0 +1,371 @@
+package com.purchase.domain.usecase.purchase.totals;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseTotalsDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsOutput.ConvertedTotals;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsOutput.PeriodTotals;
+import com.purchase.domain.valueobject.Money;
+import com.purchase.domain.valueobject.Rate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class GetPurchaseTotalsUsecase {
+    private static final String LOG_PREFIX = "[GET PURCHASE TOTALS USECASE] - ";
+    private static final String METRICS_NAME = "get_purchase_totals"; // Use case tag of the timers
+    public static final String CACHE_NAME = "purchase.totals"; // Cache tag of the closed period cache meters
+    private static final int MAX_COUNTRIES = 20; // Countries converted by a single request
+    private static final int POOL_SHARE_DIVISOR = 4; // The default parallelism takes at most a quarter of the database connections
+
+    @Autowired
+    private PurchaseTotalsDataProvider purchaseTotalsDataProvider; // Aggregates the purchases in the database
+
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider; // In-memory index of the local rate store
+
+    @Autowired
+    private UsecaseMetrics usecaseMetrics; // Timers of the use case phases
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry of the closed period cache meters
+
+    @Value("${purchase.totals.max-months:240}")
+    private int maxMonths; // Months covered by a single request
+
+    @Value("${purchase.totals.parallelism:0}")
+    private int parallelism; // Threads of the conversion pass, when 0 the number of processors up to a quarter of the connection pool
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize; // Connections of the database pool, each conversion task holding one while it reads
+
+    @Value("${purchase.totals.split-days:31}")
+    private int splitDays; // Largest purchase date range read by a single conversion task
+
+    @Value("${purchase.totals.cache-ttl:PT1H}")
+    private Duration cacheTtl; // Time a closed period stays cached
+
+    @Value("${purchase.totals.cache-maximum-size:10000}")
+    private long cacheMaximumSize; // Closed periods cached, per period and countries
+
+    private Cache<TotalsKey, PeriodTotals> closedPeriods; // Totals of the periods ended before today
+
+    private ForkJoinPool conversionPool; // Runs the conversion pass, off the common pool as its tasks wait on the database
+
+    /**
+     * Builds the closed period cache and the conversion pool once the configuration properties are injected.
+     */
+    @PostConstruct
+    void init() {
+        closedPeriods = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheMaximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, closedPeriods, CACHE_NAME);
+        conversionPool = new ForkJoinPool(conversionParallelism());
+    }
+
+    /**
+     * Returns the threads of the conversion pass. Every running task holds a database connection
+     * while it streams its purchases, so by default the pass takes at most a quarter of the pool,
+     * leaving connections to the other requests.
+     *
+     * @return The parallelism of the conversion pool.
+     */
+    private int conversionParallelism() {
+        if (parallelism <= 0) {
+            return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), connectionPoolSize / POOL_SHARE_DIVISOR));
+        }
+        if (parallelism >= connectionPoolSize) {
+            log.warn("{}Conversion parallelism {} takes every connection of the pool of {}, other requests may time out waiting for one",
+                    LOG_PREFIX, parallelism, connectionPoolSize);
+        }
+        return parallelism;
+    }
+
+    /**
+     * Stops the conversion pool on shutdown.
+     */
+    @PreDestroy
+    void shutdownPool() {
+        conversionPool.shutdownNow();
+    }
+
+    /**
+     * Executes the use case to total the dollar prices of the purchases per month or quarter, with the
+     * converted totals of each target country. The range is widened to whole periods. The count, sum,
+     * min, max and percentiles are aggregated by the database with a GROUP BY. The converted totals
+     * come from a fork-join pass over the purchases grouped by purchase date and price, each group
+     * converted with the rate valid for its date, so no purchase is loaded as an entity.
+     * Closed periods, ended before today, are cached; the open one is always computed.
+     *
+     * @param period    The period the purchases are grouped by, month or quarter.
+     * @param from      The oldest purchase date totaled.
+     * @param to        The newest purchase date totaled.
+     * @param countries The countries whose currency the totals are converted to, possibly empty.
+     * @return ResponseEntity with the totals of every period of the range.
+     */
+    public ResponseEntity<GetPurchaseTotalsOutput> execute(String period, LocalDate from, LocalDate to, List<String> countries) {
+        TotalsPeriod totalsPeriod = parsePeriod(period);
+        List<String> targetCountries = validateInput(from, to, countries);
+        return usecaseMetrics.record(METRICS_NAME, UsecaseMetrics.PHASE_EXECUTE, UsecaseMetrics.NO_COUNTRY, () -> {
+            log.info("{}Executing with period: {}, from: {}, to: {} and countries: {}", LOG_PREFIX, totalsPeriod, from, to, targetCountries);
+
+            LocalDate today = LocalDate.now();
+            Map<LocalDate, PeriodTotals> totals = new LinkedHashMap<>();
+            List<LocalDate> missing = new ArrayList<>();
+            for (LocalDate start = totalsPeriod.startOf(from); !start.isAfter(to); start = totalsPeriod.next(start)) {
+                PeriodTotals cached = closedPeriods.getIfPresent(new TotalsKey(totalsPeriod, start, targetCountries));
+                totals.put(start, cached);
+                if (cached == null) {
+                    missing.add(start);
+                }
+            }
+            if (!missing.isEmpty()) {
+                compute(totalsPeriod, missing, targetCountries, today).forEach(computed -> {
+                    totals.put(computed.getStart(), computed);
+                    if (computed.isClosed()) {
+                        closedPeriods.put(new TotalsKey(totalsPeriod, computed.getStart(), targetCountries), computed);
+                    }
+                });
+            }
+
+            GetPurchaseTotalsOutput output = new GetPurchaseTotalsOutput();
+            output.setPeriod(totalsPeriod.name().toLowerCase(Locale.ROOT));
+            output.setFrom(totalsPeriod.startOf(from));
+            output.setTo(totalsPeriod.next(totalsPeriod.startOf(to)).minusDays(1));
+            output.setTotals(new ArrayList<>(totals.values()));
+            log.info("{}Execution completed with {} periods, {} computed", LOG_PREFIX, totals.size(), missing.size());
+            return new ResponseEntity<>(output, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Drops the cached totals converted to a currency, once the rate sync stored new rates that
+     * may change them. The dollar totals stay cached.
+     */
+    public void evictConvertedTotals() {
+        closedPeriods.asMap().keySet().removeIf(key -> !key.countries().isEmpty());
+    }
+
+    /**
+     * Parses the period.
+     *
+     * @param period The period, month or quarter, case insensitive.
+     * @return The parsed period.
+     */
+    private TotalsPeriod parsePeriod(String period) {
+        try {
+            return TotalsPeriod.valueOf(period.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Period must be month or quarter");
+        }
+    }
+
+    /**
+     * Validates the range and the countries.
+     *
+     * @param from      The oldest purchase date totaled.
+     * @param to        The newest purchase date totaled.
+     * @param countries The countries whose currency the totals are converted to, or null.
+     * @return The distinct countries in alphabetical order.
+     */
+    private List<String> validateInput(LocalDate from, LocalDate to, List<String> countries) {
+        if (from == null || to == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The start and end dates are required");
+        }
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The start date must not be after the end date");
+        }
+        if (ChronoUnit.MONTHS.between(from.withDayOfMonth(1), to.withDayOfMonth(1)) >= maxMonths) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A request must not exceed " + maxMonths + " months");
+        }
+        if (countries == null) {
+            return List.of();
+        }
+        if (countries.stream().anyMatch(country -> country == null || country.isBlank())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Country must not be blank");
+        }
+        List<String> targetCountries = countries.stream().distinct().sorted().toList();
+        if (targetCountries.size() > MAX_COUNTRIES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A request must not exceed " + MAX_COUNTRIES + " countries");
+        }
+        return targetCountries;
+    }
+
+    /**
+     * Computes the totals of periods with a single GROUP BY and a single conversion pass over the
+     * range from the first to the last of them.
+     *
+     * @param period    The period the purchases are grouped by.
+     * @param starts    The first days of the periods to compute, in date order.
+     * @param countries The countries whose currency the totals are converted to.
+     * @param today     The current date, after which a period is open.
+     * @return The totals of the periods, in date order.
+     */
+    private List<PeriodTotals> compute(TotalsPeriod period, List<LocalDate> starts, List<String> countries, LocalDate today) {
+        LocalDate from = starts.get(0);
+        LocalDate to = period.next(starts.get(starts.size() - 1)).minusDays(1);
+
+        Map<LocalDate, PurchasePeriodStats> stats = usecaseMetrics.record(METRICS_NAME, "stats", UsecaseMetrics.NO_COUNTRY,
+                () -> purchaseTotalsDataProvider.getPeriodStats(from, to, period).stream()
+                        .collect(Collectors.toMap(PurchasePeriodStats::start, Function.identity())));
+        Map<LocalDate, long[][]> converted = countries.isEmpty() ? Map.of() : usecaseMetrics.record(METRICS_NAME, "conversion", UsecaseMetrics.NO_COUNTRY,
+                () -> conversionPool.invoke(new ConversionTask(period, countries, from, to)));
+
+        List<PeriodTotals> totals = new ArrayList<>(starts.size());
+        for (LocalDate start : starts) {
+            LocalDate end = period.next(start).minusDays(1);
+            PurchasePeriodStats periodStats = stats.get(start);
+            PeriodTotals periodTotals = periodStats == null
+                    ? new PeriodTotals(period.label(start), start, end, end.isBefore(today), 0, new Money(0), null, null, null, null, null, null)
+                    : new PeriodTotals(period.label(start), start, end, end.isBefore(today), periodStats.count(), periodStats.total(),
+                        periodStats.min(), periodStats.max(), periodStats.p50(), periodStats.p90(), periodStats.p99(), null);
+            if (!countries.isEmpty()) {
+                long[][] sums = converted.getOrDefault(start, new long[countries.size()][ConversionTask.SUMS]);
+                Map<String, ConvertedTotals> convertedTotals = new LinkedHashMap<>();
+                for (int i = 0; i < countries.size(); i++) {
+                    convertedTotals.put(countries.get(i), new ConvertedTotals(sums[i][ConversionTask.COUNT],
+                            new Money(sums[i][ConversionTask.CENTS]), sums[i][ConversionTask.UNCONVERTED]));
+                }
+                periodTotals.setConverted(convertedTotals);
+            }
+            totals.add(periodTotals);
+        }
+        return totals;
+    }
+
+    /**
+     * Fork-join task converting the purchases of a purchase date range, split in halves until a range
+     * spans at most the split days. A leaf reads the purchases grouped by purchase date and price and
+     * converts each group with the rate of the local store valid for its date, as a conversion request
+     * would, resolving each rate once. The result holds, per period and country, the number of purchases
+     * converted, the sum of their converted prices in cents and the number without a rate.
+     */
+    private class ConversionTask extends RecursiveTask<Map<LocalDate, long[][]>> {
+        static final int COUNT = 0; // Position of the number of purchases converted in the sums of a country
+        static final int CENTS = 1; // Position of the sum of the converted prices in cents
+        static final int UNCONVERTED = 2; // Position of the number of purchases without a rate
+        static final int SUMS = 3; // Number of sums of a country
+
+        private final TotalsPeriod period; // Period the sums are grouped by
+        private final List<String> countries; // Countries converted to, in the order of the sums
+        private final LocalDate from; // Oldest purchase date converted, inclusive
+        private final LocalDate to; // Newest purchase date converted, inclusive
+
+        ConversionTask(TotalsPeriod period, List<String> countries, LocalDate from, LocalDate to) {
+            this.period = period;
+            this.countries = countries;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Converts the range, or its two halves in parallel and merges their sums.
+         *
+         * @return The sums of each period, by country.
+         */
+        @Override
+        protected Map<LocalDate, long[][]> compute() {
+            long days = ChronoUnit.DAYS.between(from, to) + 1;
+            if (days <= splitDays) {
+                return convert();
+            }
+            LocalDate middle = from.plusDays(days / 2);
+            ConversionTask older = new ConversionTask(period, countries, from, middle.minusDays(1));
+            older.fork();
+            Map<LocalDate, long[][]> sums = new ConversionTask(period, countries, middle, to).compute();
+            older.join().forEach((start, olderSums) -> sums.merge(start, olderSums, this::add));
+            return sums;
+        }
+
+        /**
+         * Converts the purchases of the range.
+         *
+         * @return The sums of each period, by country.
+         */
+        private Map<LocalDate, long[][]> convert() {
+            Map<LocalDate, long[][]> sums = new HashMap<>();
+            Map<LocalDate, Rate[]> rates = new HashMap<>(); // Rate of each purchase date by country, null when none is found
+            purchaseTotalsDataProvider.forEachDailyPrice(from, to, (purchaseDate, dolarPrice, count) -> {
+                long[][] periodSums = sums.computeIfAbsent(period.startOf(purchaseDate), start -> new long[countries.size()][SUMS]);
+                Rate[] dateRates = rates.computeIfAbsent(purchaseDate, this::resolveRates);
+                for (int i = 0; i < countries.size(); i++) {
+                    if (dateRates[i] == null) {
+                        periodSums[i][UNCONVERTED] += count;
+                    } else {
+                        periodSums[i][COUNT] += count;
+                        periodSums[i][CENTS] = Math.addExact(periodSums[i][CENTS],
+                                Math.multiplyExact(dolarPrice.convert(dateRates[i]).cents(), count));
+                    }
+                }
+            });
+            return sums;
+        }
+
+        /**
+         * Resolves the rate of each country for a purchase date from the local store, the latest one
+         * effective within 6 months before it.
+         *
+         * @param purchaseDate The purchase date.
+         * @return The rate of each country, null when none is found.
+         */
+        private Rate[] resolveRates(LocalDate purchaseDate) {
+            Rate[] dateRates = new Rate[countries.size()];
+            for (int i = 0; i < countries.size(); i++) {
+                long scaledRate = rateExchangeDataProvider.getLatestRate(countries.get(i), purchaseDate.minusMonths(6), purchaseDate);
+                dateRates[i] = scaledRate == RateExchangeDataProvider.NO_RATE ? null : new Rate(scaledRate);
+            }
+            return dateRates;
+        }
+
+        /**
+         * Adds the sums of a period of two ranges.
+         *
+         * @param sums  The sums of the period in a range.
+         * @param other The sums of the period in the other range.
+         * @return The added sums.
+         */
+        private long[][] add(long[][] sums, long[][] other) {
+            for (int i = 0; i < sums.length; i++) {
+                for (int sum = 0; sum < SUMS; sum++) {
+                    sums[i][sum] = Math.addExact(sums[i][sum], other[i][sum]);
+                }
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Key of the cached totals of a closed period.
+     */
+    private record TotalsKey(TotalsPeriod period, LocalDate start, List<String> countries) {
+    }
+}
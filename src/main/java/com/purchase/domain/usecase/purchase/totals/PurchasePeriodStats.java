@@ -0,0 +1,21 @@
+package com.purchase.domain.usecase.purchase.totals;
+
+import com.purchase.domain.valueobject.Money;
+
+import java.time.LocalDate;
+
+/**
+ * Statistics of the dollar prices of the purchases of a period, as aggregated by the database.
+ * The percentiles are interpolated between the two nearest prices and rounded HALF_UP to cents.
+ *
+ * @param start The first day of the period.
+ * @param count The number of purchases.
+ * @param total The sum of the prices.
+ * @param min   The lowest price.
+ * @param max   The highest price.
+ * @param p50   The median price.
+ * @param p90   The 90th percentile of the prices.
+ * @param p99   The 99th percentile of the prices.
+ */
+public record PurchasePeriodStats(LocalDate start, long count, Money total, Money min, Money max, Money p50, Money p90, Money p99) {
+}
@@ -0,0 +1,60 @@
+package com.purchase.domain.usecase.purchase.totals;
+
+import java.time.LocalDate;
+
+/**
+ * Calendar periods the purchase totals are grouped by.
+ */
+public enum TotalsPeriod {
+    MONTH(1), QUARTER(3);
+
+    private final int months; // Length of the period in months
+
+    TotalsPeriod(int months) {
+        this.months = months;
+    }
+
+    /**
+     * Returns the first day of the period holding a date.
+     *
+     * @param date The date.
+     * @return The first day of its period.
+     */
+    public LocalDate startOf(LocalDate date) {
+        return LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / months * months + 1, 1);
+    }
+
+    /**
+     * Returns the first day of a period from its year and its position in the year, as the
+     * database extracts them from a purchase date.
+     *
+     * @param year  The year of the period.
+     * @param index The month or quarter of the period in the year, starting at 1.
+     * @return The first day of the period.
+     */
+    public LocalDate startOf(int year, int index) {
+        return LocalDate.of(year, (index - 1) * months + 1, 1);
+    }
+
+    /**
+     * Returns the first day of the period following the given one.
+     *
+     * @param start The first day of a period.
+     * @return The first day of the next period.
+     */
+    public LocalDate next(LocalDate start) {
+        return start.plusMonths(months);
+    }
+
+    /**
+     * Returns the label of a period, such as 2024-01 for a month or 2024-Q1 for a quarter.
+     *
+     * @param start The first day of the period.
+     * @return The label of the period.
+     */
+    public String label(LocalDate start) {
+        return this == MONTH
+                ? String.format("%d-%02d", start.getYear(), start.getMonthValue())
+                : start.getYear() + "-Q" + ((start.getMonthValue() - 1) / 3 + 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.purchase.domain.valueobject;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money held as a whole number of cents, so the conversion math runs on primitives.
+ * It is read from and written to JSON and the database as a decimal with 2 places.
+ *
+ * @param cents The amount in cents.
+ */
+public record Money(long cents) implements Serializable {
+    public static final int SCALE = 2; // Decimal places of an amount
+
+    /**
+     * Creates an amount from a decimal, rounding it HALF_UP to cents.
+     *
+     * @param amount The decimal amount.
+     * @return The amount in cents.
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Converts this amount with the given rate, rounding HALF_UP to cents. The result is the same
+     * as multiplying both as BigDecimal and setting the scale to 2 with HALF_UP.
+     *
+     * @param rate The exchange rate.
+     * @return The converted amount.
+     */
+    public Money convert(Rate rate) {
+        long high = Math.multiplyHigh(cents, rate.scaled());
+        long product = cents * rate.scaled();
+        if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+            return new Money(divideHalfUp(product, Rate.UNIT));
+        }
+        // The product does not fit in a long, compute it exactly with BigDecimal
+        return of(toBigDecimal().multiply(rate.toBigDecimal()));
+    }
+
+    /**
+     * Returns the amount as a decimal with 2 places.
+     *
+     * @return The decimal amount.
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Divides rounding HALF_UP, that is half away from zero.
+     *
+     * @param dividend The dividend.
+     * @param divisor  The positive divisor.
+     * @return The rounded quotient.
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,58 @@
+package com.purchase.domain.valueobject;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exchange rate held as a whole number of millionths, the precision of the local rate store.
+ * It is written to JSON as a decimal without trailing zeros.
+ *
+ * @param scaled The rate multiplied by 10^{@link #SCALE}.
+ */
+public record Rate(long scaled) implements Serializable {
+    public static final int SCALE = 6; // Decimal places of a rate
+    static final long UNIT = 1_000_000L; // Scaled value of a rate of 1
+
+    /**
+     * Creates a rate from a decimal, rounding it HALF_UP to {@link #SCALE} places.
+     *
+     * @param rate The decimal rate.
+     * @return The scaled rate.
+     */
+    @JsonCreator
+    public static Rate of(BigDecimal rate) {
+        return new Rate(rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Creates a rate from a double as published by the Treasury API, reading it through its
+     * shortest decimal representation like BigDecimal.valueOf.
+     *
+     * @param rate The rate.
+     * @return The scaled rate.
+     */
+    public static Rate of(double rate) {
+        return of(BigDecimal.valueOf(rate));
+    }
+
+    /**
+     * Returns the rate as a decimal without trailing zeros.
+     *
+     * @return The decimal rate.
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        BigDecimal rate = BigDecimal.valueOf(scaled, SCALE).stripTrailingZeros();
+        // Whole rates such as 10 would otherwise be written in scientific notation
+        return rate.scale() < 0 ? rate.setScale(0) : rate;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
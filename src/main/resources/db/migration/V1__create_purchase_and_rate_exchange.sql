@@ -0,0 +1,29 @@
+-- Schema shared by PostgreSQL and H2 in PostgreSQL mode, validated against the entities on startup
+
+CREATE TABLE purchase (
+    id            UUID           NOT NULL,
+    description   VARCHAR(255)   NOT NULL,
+    purchase_date DATE           NOT NULL,
+    dolar_price   NUMERIC(12, 2) NOT NULL,
+    CONSTRAINT pk_purchase PRIMARY KEY (id)
+);
+
+-- Date range reads, exports and keyset pages on (purchase_date, id) are served in index order
+CREATE INDEX idx_purchase_purchase_date_id ON purchase (purchase_date, id);
+
+CREATE TABLE rate_exchange (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    country        VARCHAR(255)   NOT NULL,
+    currency       VARCHAR(255)   NOT NULL,
+    record_date    DATE           NOT NULL,
+    effective_date DATE           NOT NULL,
+    exchange_rate  NUMERIC(19, 6) NOT NULL,
+    CONSTRAINT pk_rate_exchange PRIMARY KEY (id),
+    CONSTRAINT uk_rate_exchange_country_currency_record_date UNIQUE (country, currency, record_date)
+);
+
+-- Latest rate of a country within the 6 months window before a purchase date
+CREATE INDEX idx_rate_exchange_country_effective_date ON rate_exchange (country, effective_date);
+
+-- Incremental sync from the newest record date stored
+CREATE INDEX idx_rate_exchange_record_date ON rate_exchange (record_date);
@@ -0,0 +1,16 @@
+-- Materialized conversions of purchases, read by primary key and recomputed when newer rates are ingested
+
+CREATE TABLE purchase_conversion (
+    purchase_id     UUID           NOT NULL,
+    country         VARCHAR(255)   NOT NULL,
+    description     VARCHAR(255)   NOT NULL,
+    purchase_date   DATE           NOT NULL,
+    dolar_price     NUMERIC(12, 2) NOT NULL,
+    rate            NUMERIC(19, 6) NOT NULL,
+    effective_date  DATE,
+    converted_price NUMERIC(12, 2) NOT NULL,
+    CONSTRAINT pk_purchase_conversion PRIMARY KEY (purchase_id, country)
+);
+
+-- Conversions of a country whose 6 months window covers a newly ingested rate
+CREATE INDEX idx_purchase_conversion_country_purchase_date ON purchase_conversion (country, purchase_date);
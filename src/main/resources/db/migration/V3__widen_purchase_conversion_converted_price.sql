@@ -0,0 +1,4 @@
+-- A converted price is the dolar price times a rate in the tens of thousands, so it needs the whole
+-- range of the cents held by Money rather than the digits of the dolar price
+
+ALTER TABLE purchase_conversion ALTER COLUMN converted_price SET DATA TYPE NUMERIC(19, 2);
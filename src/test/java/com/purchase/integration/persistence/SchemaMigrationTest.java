@@ -0,0 +1,48 @@
+package com.purchase.integration.persistence;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "treasury.sync.enabled=false")
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Test the schema is created by the versioned migrations with the purchase date index and the wide converted price")
+    void testSchemaIsCreatedByMigrations() {
+        assertEquals("3", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name = 'purchase'", String.class);
+        assertTrue(indexes.contains("idx_purchase_purchase_date_id"));
+
+        // A converted price holds the whole range of the cents of Money
+        assertEquals(19, jdbcTemplate.queryForObject("select numeric_precision from information_schema.columns"
+                + " where table_name = 'purchase_conversion' and column_name = 'converted_price'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Test a purchase date range read is served by the purchase date index")
+    void testDateRangeReadUsesIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "explain select id from purchase where purchase_date between date '2024-01-01' and date '2024-01-31' order by purchase_date, id",
+                String.class);
+
+        assertTrue(plan.contains("idx_purchase_purchase_date_id"), plan);
+    }
+}
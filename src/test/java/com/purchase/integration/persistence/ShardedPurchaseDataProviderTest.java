@@ -0,0 +1,253 @@
+package com.purchase.integration.persistence;
+
+import com.purchase.adapter.gateway.repository.purchase.PurchaseShardRebalancer;
+import com.purchase.adapter.gateway.repository.purchase.PurchaseShards;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.UuidV7Generator;
+import com.purchase.domain.interfaces.dataprovider.purchase.PartialPurchasesCreationException;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseTotalsDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.usecase.purchase.totals.PurchasePeriodStats;
+import com.purchase.domain.usecase.purchase.totals.TotalsPeriod;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"treasury.sync.enabled=false", "purchase.sharding.enabled=true",
+        "purchase.sharding.urls=jdbc:h2:mem:shard0;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH,"
+                + "jdbc:h2:mem:shard1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH,"
+                + "jdbc:h2:mem:shard2;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "purchase.sharding.rebalance-batch-size=7",
+        // The previous layout had a fourth shard, removed from the list
+        "purchase.sharding.rebalance-from-urls=jdbc:h2:mem:shard0;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH,"
+                + ShardedPurchaseDataProviderTest.REMOVED_SHARD_URL})
+class ShardedPurchaseDataProviderTest {
+    // Kept open between the pools of the test and of the rebalance
+    static final String REMOVED_SHARD_URL = "jdbc:h2:mem:shard3;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private PurchaseShards purchaseShards;
+
+    @Autowired
+    private PurchaseShardRebalancer purchaseShardRebalancer;
+
+    @Autowired
+    private PurchaseTotalsDataProvider purchaseTotalsDataProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${purchase.sharding.username}")
+    private String username;
+
+    @Value("${purchase.sharding.password}")
+    private String password;
+
+    @BeforeEach
+    void clearShards() {
+        for (int shard = 0; shard < purchaseShards.size(); shard++) {
+            purchaseShards.on(shard, "test_clear", template -> template.update("delete from purchase"));
+        }
+    }
+
+    private static CreatePurchaseInput input(int index) {
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription("Sharded purchase " + index);
+        input.setPurchaseDate(LocalDate.of(2024, 1, 1).plusDays(index % 10));
+        input.setDolarPrice(new BigDecimal("10.25"));
+        return input;
+    }
+
+    private long count(int shard) {
+        return purchaseShards.on(shard, "test_count", template -> template.queryForObject("select count(*) from purchase", Long.class));
+    }
+
+    @Test
+    @DisplayName("Test purchases are routed to their shard by ID and read back from it")
+    void testPurchasesAreRoutedByIdHash() {
+        List<Purchase> created = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            created.add(purchaseDataProvider.createPurchase(input(i)));
+        }
+        assertEquals(3, purchaseDataProvider.createPurchases(List.of(input(150), input(151), input(152))));
+
+        long total = 0;
+        for (int shard = 0; shard < purchaseShards.size(); shard++) {
+            assertTrue(count(shard) > 0, "Shard " + shard + " holds no purchase");
+            total += count(shard);
+        }
+        assertEquals(153, total);
+
+        Purchase purchase = created.get(42);
+        Purchase read = purchaseDataProvider.getPurchaseById(purchase.getId());
+        assertEquals("Sharded purchase 42", read.getDescription());
+        assertEquals(new BigDecimal("10.25"), read.getDolarPrice().toBigDecimal());
+        assertNull(purchaseDataProvider.getPurchaseById(UuidV7Generator.next()));
+        assertEquals(created.size(), purchaseDataProvider.getPurchasesByIds(created.stream().map(Purchase::getId).toList()).size());
+        assertEquals(purchaseShards.size(), meterRegistry.get(PurchaseShards.SHARD_TIMER).tag("operation", "insert").timers().size());
+    }
+
+    @Test
+    @DisplayName("Test a bulk creation waits for every shard and lists the purchases committed when a shard fails")
+    void testBulkCreationListsCommittedPurchasesWhenShardFails() {
+        List<CreatePurchaseInput> inputs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            inputs.add(input(i));
+        }
+        purchaseShards.on(1, "test_break", template -> template.update("alter table purchase rename to purchase_hidden"));
+        PartialPurchasesCreationException failure;
+        try {
+            failure = assertThrows(PartialPurchasesCreationException.class, () -> purchaseDataProvider.createPurchases(inputs));
+        } finally {
+            purchaseShards.on(1, "test_break", template -> template.update("alter table purchase_hidden rename to purchase"));
+        }
+
+        assertEquals(0, count(1));
+        assertEquals(count(0) + count(2), failure.getCreated().size());
+        List<String> stored = new ArrayList<>();
+        for (int shard = 0; shard < purchaseShards.size(); shard++) {
+            stored.addAll(purchaseShards.on(shard, "test_descriptions", template -> template.queryForList("select description from purchase", String.class)));
+        }
+        assertEquals(failure.getCreated().stream().map(position -> inputs.get(position).getDescription()).sorted().toList(),
+                stored.stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Test pages gathered from every shard follow the global date and creation orders")
+    void testPagesAreMergedInGlobalOrder() {
+        List<Purchase> created = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            created.add(purchaseDataProvider.createPurchase(input(i)));
+        }
+        LocalDate from = LocalDate.of(2024, 1, 2);
+        LocalDate to = LocalDate.of(2024, 1, 8);
+        List<Purchase> inRange = created.stream()
+                .filter(purchase -> !purchase.getPurchaseDate().isBefore(from) && !purchase.getPurchaseDate().isAfter(to))
+                .toList();
+
+        // Walk the date pages
+        List<UUID> byDate = new ArrayList<>();
+        Purchase after = null;
+        List<Purchase> page;
+        do {
+            page = purchaseDataProvider.getPurchasesPage(from, to, after, 9);
+            page.forEach(purchase -> byDate.add(purchase.getId()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 9);
+        assertEquals(inRange.stream().sorted(Comparator.comparing(Purchase::getPurchaseDate)
+                .thenComparing(Purchase::getId, PurchaseShards.ID_ORDER)).map(Purchase::getId).toList(), byDate);
+
+        // Walk the creation pages, in the order the purchases were created
+        List<UUID> byCreation = new ArrayList<>();
+        UUID afterId = null;
+        do {
+            page = purchaseDataProvider.getPurchasesCreatedPage(from, to, afterId, 9);
+            page.forEach(purchase -> byCreation.add(purchase.getId()));
+            afterId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == 9);
+        assertEquals(inRange.stream().map(Purchase::getId).toList(), byCreation);
+    }
+
+    @Test
+    @DisplayName("Test the rebalance moves the purchases stored on the wrong shard to their own shard")
+    void testRebalanceMovesMisplacedPurchases() {
+        // Purchases written under another shard layout all land on the first shard
+        List<Purchase> misplaced = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Purchase purchase = new Purchase();
+            purchase.setId(UuidV7Generator.next());
+            purchase.setDescription("Misplaced purchase " + i);
+            purchase.setPurchaseDate(LocalDate.of(2024, 1, 10));
+            purchase.setDolarPrice(new Money(1025));
+            misplaced.add(purchase);
+        }
+        purchaseShards.insert(0, misplaced);
+        long expectedMoves = misplaced.stream().filter(purchase -> purchaseShards.shardOf(purchase.getId()) != 0).count();
+
+        assertEquals(expectedMoves, purchaseShardRebalancer.rebalance());
+
+        assertEquals(60, count(0) + count(1) + count(2));
+        for (Purchase purchase : misplaced) {
+            assertEquals(purchase.getDescription(), purchaseDataProvider.getPurchaseById(purchase.getId()).getDescription());
+        }
+        assertEquals(0, purchaseShardRebalancer.rebalance());
+    }
+
+    @Test
+    @DisplayName("Test the rebalance empties the shards removed from the list into the remaining ones")
+    void testRebalanceEmptiesRemovedShards() {
+        List<Purchase> stranded = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Purchase purchase = new Purchase();
+            purchase.setId(UuidV7Generator.next());
+            purchase.setDescription("Stranded purchase " + i);
+            purchase.setPurchaseDate(LocalDate.of(2024, 1, 10));
+            purchase.setDolarPrice(new Money(1025));
+            stranded.add(purchase);
+        }
+        try (PurchaseShards removed = new PurchaseShards(List.of(REMOVED_SHARD_URL), username, password, 2,
+                "classpath:db/migration", meterRegistry, "test-removed-shard-")) {
+            removed.insert(0, stranded);
+
+            assertEquals(20, purchaseShardRebalancer.rebalance());
+
+            long left = removed.on(0, "test_count", template -> template.queryForObject("select count(*) from purchase", Long.class));
+            assertEquals(0, left);
+        }
+        assertEquals(20, count(0) + count(1) + count(2));
+        for (Purchase purchase : stranded) {
+            assertEquals(purchase.getDescription(), purchaseDataProvider.getPurchaseById(purchase.getId()).getDescription());
+        }
+    }
+
+    @Test
+    @DisplayName("Test the period statistics merged from every shard match the aggregates of a single database")
+    void testPeriodStatsAreMergedFromEveryShard() {
+        // Prices of 1.00 up to 100.00 in January, spread across the shards by their IDs
+        List<CreatePurchaseInput> inputs = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            CreatePurchaseInput input = input(i);
+            input.setDolarPrice(BigDecimal.valueOf(i));
+            inputs.add(input);
+        }
+        purchaseDataProvider.createPurchases(inputs);
+
+        List<PurchasePeriodStats> stats = purchaseTotalsDataProvider.getPeriodStats(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), TotalsPeriod.QUARTER);
+
+        assertEquals(1, stats.size());
+        PurchasePeriodStats quarter = stats.get(0);
+        assertEquals(LocalDate.of(2024, 1, 1), quarter.start());
+        assertEquals(100, quarter.count());
+        assertEquals(new Money(505000), quarter.total());
+        assertEquals(new Money(100), quarter.min());
+        assertEquals(new Money(10000), quarter.max());
+        assertEquals(new Money(5050), quarter.p50()); // Halfway between 50.00 and 51.00, as percentile_cont interpolates
+        assertEquals(new Money(9010), quarter.p90());
+        assertEquals(new Money(9901), quarter.p99());
+
+        long[] dailyCount = new long[1];
+        purchaseTotalsDataProvider.forEachDailyPrice(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), (purchaseDate, dolarPrice, count) -> dailyCount[0] += count);
+        assertEquals(100, dailyCount[0]);
+    }
+}
@@ -2,7 +2,11 @@ package com.purchase.integration.purchase;
 
 import com.purchase.adapter.gateway.repository.purchase.PurchaseRepository;
 import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseBulkOutput;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.valueobject.Money;
+import com.purchase.integration.treasury.TreasurySimulator;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,26 +14,37 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ExtendWith(MockitoExtension.class)
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 class PurchaseControllerTest {
+    private static TreasurySimulator treasurySimulator;
+
     @Autowired
     private TestRestTemplate testRestTemplate;
     @Autowired
@@ -37,10 +52,22 @@ class PurchaseControllerTest {
 
     private Purchase purchase;
 
+    @DynamicPropertySource
+    static void treasuryProperties(DynamicPropertyRegistry registry) throws IOException {
+        // Offline Treasury serving synthetic quarterly rates up to today
+        treasurySimulator = TreasurySimulator.builder().start();
+        registry.add("treasury.url", treasurySimulator::baseUrl);
+    }
+
+    @AfterAll
+    static void stopTreasurySimulator() {
+        treasurySimulator.close();
+    }
+
     @BeforeAll
     public void iniciar() {
         purchase = new Purchase();
-        purchase.setDolarPrice(BigDecimal.valueOf(500));
+        purchase.setDolarPrice(Money.of(BigDecimal.valueOf(500)));
         purchase.setPurchaseDate(LocalDate.now());
         purchase.setId(UUID.randomUUID());
         purchase.setDescription("Item description");
@@ -85,6 +112,7 @@ class PurchaseControllerTest {
         ResponseEntity<String> response = testRestTemplate.exchange(url, HttpMethod.GET, entity, String.class);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(treasurySimulator.served() > 0);
     }
 
     @Test
@@ -98,6 +126,30 @@ class PurchaseControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    @DisplayName("Test execute reactive not found status when purchaseId not found")
+    void testExecuteReactiveNotFoundStatusWhenPurchaseIdNotFound() {
+        String url = "/purchase/country_currency/reactive?purchaseId=63574290-e139-44c5-999b-9a941e11f149&country=Brazil";
+
+        HttpEntity<String> entity = new HttpEntity<>(null);
+        ResponseEntity<String> response = testRestTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test execute exposes use case phase timers with percentiles on the Prometheus endpoint")
+    void testExecuteExposesUsecaseTimersOnPrometheusEndpoint() {
+        testRestTemplate.getForEntity("/purchase/country_currency?purchaseId=63574290-e139-44c5-999b-9a941e11f149&country=Brazil", String.class);
+
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = Objects.requireNonNull(response.getBody());
+        assertTrue(body.contains("purchase_usecase_seconds{country=\"Brazil\",outcome=\"CLIENT_ERROR\",phase=\"purchase_fetch\",usecase=\"get_purchase_country_currency\",quantile=\"0.99\""));
+        assertTrue(body.contains("purchase_dataprovider_seconds{class=\"com.purchase.adapter.gateway.repository.purchase.PurchaseDataProviderImpl\",exception=\"none\",method=\"getPurchaseById\",quantile=\"0.99\""));
+    }
+
     @Test
     @DisplayName("Test execute bad request status when purchaseId data is invalid")
     void testExecuteBadRequestStatusWhenPurchaseIdIsInvalid() {
@@ -119,4 +171,89 @@ class PurchaseControllerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
+
+    @Test
+    @DisplayName("Test execute batch reports not found items without failing the batch")
+    void testExecuteBatchReportsNotFoundItems() {
+        String body = "[{\"purchaseId\":\"63574290-e139-44c5-999b-9a941e11f149\",\"country\":\"Brazil\"},"
+                + "{\"purchaseId\":\"63574290-e139-44c5-999b-9a941e11f149\"}]";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> entity = new HttpEntity<>(body, headers);
+        ResponseEntity<String> response = testRestTemplate.exchange("/purchase/country_currency/batch", HttpMethod.POST, entity, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String[] lines = Objects.requireNonNull(response.getBody()).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"status\":404"));
+        assertTrue(lines[1].contains("\"status\":400"));
+    }
+
+    @Test
+    @DisplayName("Test execute bulk creates valid purchases and reports invalid rows")
+    void testExecuteBulkCreatesValidPurchasesAndReportsInvalidRows() {
+        long countBefore = repository.count();
+        String body = "{\"description\":\"Item 1\",\"purchaseDate\":\"2024-01-10\",\"dolarPrice\":10.50}\n"
+                + "{\"description\":\"\",\"purchaseDate\":\"2024-01-10\",\"dolarPrice\":10.50}\n"
+                + "{\"description\":\"Item 3\",\"purchaseDate\":\"2024-01-11\",\"dolarPrice\":99.99}\n";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        HttpEntity<String> entity = new HttpEntity<>(body, headers);
+        ResponseEntity<CreatePurchaseBulkOutput> response = testRestTemplate.exchange("/purchase/bulk", HttpMethod.POST, entity, CreatePurchaseBulkOutput.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, Objects.requireNonNull(response.getBody()).getAccepted());
+        assertEquals(1, response.getBody().getRejected());
+        assertEquals(countBefore + 2, repository.count());
+    }
+
+    @Test
+    @DisplayName("Test export streams every purchase of the date range in order across keyset pages")
+    void testExportStreamsPurchasesAcrossKeysetPages() {
+        // Bulk create purchases on dates no other test uses, more than two export pages
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            body.append("{\"description\":\"Export ").append(i).append("\",\"purchaseDate\":\"2001-03-0")
+                    .append(5 - i % 5).append("\",\"dolarPrice\":1.25}\n");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        testRestTemplate.exchange("/purchase/bulk", HttpMethod.POST, new HttpEntity<>(body.toString(), headers), CreatePurchaseBulkOutput.class);
+
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/purchase/export?format=csv&from=2001-03-01&to=2001-03-04", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(Objects.requireNonNull(response.getHeaders().getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv")));
+        String[] lines = Objects.requireNonNull(response.getBody()).split("\n");
+        // The header and the 2000 purchases of 2001-03-01 to 2001-03-04, ordered by purchase date
+        assertEquals(2001, lines.length);
+        assertTrue(lines[1].contains(",2001-03-01,1.25"));
+        assertTrue(lines[2000].contains(",2001-03-04,1.25"));
+        assertEquals(2000, Arrays.stream(lines).skip(1).map(line -> line.substring(0, 36)).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Test export in creation order streams the purchases in the order they were created")
+    void testExportStreamsPurchasesInCreationOrder() {
+        // Bulk create purchases on dates no other test uses, with the dates decreasing as they are created
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1500; i++) {
+            body.append("{\"description\":\"Created ").append(i).append("\",\"purchaseDate\":\"2001-04-0")
+                    .append(3 - i % 3).append("\",\"dolarPrice\":2.50}\n");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        testRestTemplate.exchange("/purchase/bulk", HttpMethod.POST, new HttpEntity<>(body.toString(), headers), CreatePurchaseBulkOutput.class);
+
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/purchase/export?format=csv&order=created&from=2001-04-01&to=2001-04-03", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String[] lines = Objects.requireNonNull(response.getBody()).split("\n");
+        assertEquals(1501, lines.length);
+        for (int i = 1; i < lines.length; i++) {
+            assertTrue(lines[i].contains(",Created " + (i - 1) + ","), lines[i]);
+        }
+    }
 }
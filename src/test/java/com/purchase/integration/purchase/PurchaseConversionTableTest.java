@@ -0,0 +1,139 @@
+package com.purchase.integration.purchase;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeSyncService;
+import com.purchase.adapter.gateway.repository.purchaseConversion.PurchaseConversionRepository;
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.PurchaseConversion;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"treasury.sync.enabled=false", "purchase.conversion-table.enabled=true",
+        // Pages of two conversions, so a recompute walks several keyset pages
+        "purchase.conversion-table.recompute-page-size=2",
+        // A database of its own, so the rates synced here stay out of the other test contexts
+        "spring.datasource.url=jdbc:h2:mem:conversiondb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"})
+class PurchaseConversionTableTest {
+    private static final String RATE_2023_09 = "{\"record_date\":\"2023-09-30\",\"country\":\"Brazil\",\"currency\":\"Real\",\"exchange_rate\":\"4.994\",\"effective_date\":\"2023-09-30\"}";
+    private static final String RATE_2023_12 = "{\"record_date\":\"2023-12-31\",\"country\":\"Brazil\",\"currency\":\"Real\",\"exchange_rate\":\"4.852\",\"effective_date\":\"2023-12-31\"}";
+    private static volatile String publishedRates = RATE_2023_09;
+    private static HttpServer treasuryStub;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeSyncService syncService;
+
+    @Autowired
+    private GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase;
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private PurchaseConversionRepository purchaseConversionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void treasuryProperties(DynamicPropertyRegistry registry) throws IOException {
+        // Local stub of the Treasury endpoint serving the rates published so far in a single page
+        treasuryStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        treasuryStub.createContext("/v1/accounting/od/rates_of_exchange", exchange -> {
+            byte[] body = ("{\"data\":[" + publishedRates + "],\"meta\":{\"total-pages\":1}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        treasuryStub.start();
+        registry.add("treasury.url", () -> "http://localhost:" + treasuryStub.getAddress().getPort() + "/");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        treasuryStub.stop(0);
+    }
+
+    private GetPurchaseCountryCurrencyOutput convert(Purchase purchase) {
+        return Objects.requireNonNull(getPurchaseCountryCurrencyUsecase.execute(purchase.getId(), "Brazil").getBody());
+    }
+
+    private long rateFetches() {
+        return meterRegistry.find(UsecaseMetrics.USECASE_TIMER).tag("usecase", "get_purchase_country_currency")
+                .tag("phase", "rate_fetch").tag("country", "Brazil").timers().stream().mapToLong(timer -> timer.count()).sum();
+    }
+
+    @Test
+    @DisplayName("Test conversions are materialized on a miss and recomputed when a newer rate is ingested")
+    void testConversionsAreMaterializedAndRecomputed() {
+        assertEquals(1, syncService.synchronize());
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription("Materialized purchase");
+        input.setPurchaseDate(LocalDate.of(2024, 1, 15));
+        input.setDolarPrice(new BigDecimal("100.00"));
+        Purchase purchase = purchaseDataProvider.createPurchase(input);
+        List<Purchase> sameDay = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sameDay.add(purchaseDataProvider.createPurchase(input));
+        }
+
+        // The first conversion is computed and stored, the next one is read back from the table
+        assertEquals(new BigDecimal("499.40"), convert(purchase).getConvertedPrice().toBigDecimal());
+        sameDay.forEach(this::convert);
+        long rateFetches = rateFetches();
+        assertEquals(new BigDecimal("499.40"), convert(purchase).getConvertedPrice().toBigDecimal());
+        assertEquals(rateFetches, rateFetches());
+        PurchaseConversion stored = purchaseConversionRepository.findById(new PurchaseConversion.Key(purchase.getId(), "Brazil")).orElseThrow();
+        assertEquals(LocalDate.of(2023, 9, 30), stored.getEffectiveDate());
+
+        // A newer rate within the purchase window recomputes the stored conversion
+        publishedRates = RATE_2023_09 + "," + RATE_2023_12;
+        assertEquals(1, syncService.synchronize());
+        stored = purchaseConversionRepository.findById(new PurchaseConversion.Key(purchase.getId(), "Brazil")).orElseThrow();
+        assertEquals(LocalDate.of(2023, 12, 31), stored.getEffectiveDate());
+        assertEquals(new BigDecimal("485.20"), stored.getConvertedPrice().toBigDecimal());
+        assertEquals(new BigDecimal("485.20"), convert(purchase).getConvertedPrice().toBigDecimal());
+        for (Purchase other : sameDay) {
+            assertEquals(LocalDate.of(2023, 12, 31), purchaseConversionRepository.findById(new PurchaseConversion.Key(other.getId(), "Brazil")).orElseThrow().getEffectiveDate());
+        }
+        assertEquals(rateFetches, rateFetches());
+    }
+
+    @Test
+    @DisplayName("Test the conversion of the largest purchase is materialized beyond the digits of its dolar price")
+    void testLargeConversionIsMaterialized() {
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription("Largest purchase");
+        input.setPurchaseDate(LocalDate.of(2024, 1, 15));
+        input.setDolarPrice(new BigDecimal("9999999999.99"));
+        Purchase purchase = purchaseDataProvider.createPurchase(input);
+
+        GetPurchaseCountryCurrencyOutput output = convert(purchase);
+        PurchaseConversion stored = purchaseConversionRepository.findById(new PurchaseConversion.Key(purchase.getId(), "Brazil")).orElseThrow();
+        assertEquals(output.getConvertedPrice(), stored.getConvertedPrice());
+    }
+}
@@ -0,0 +1,133 @@
+package com.purchase.integration.purchase;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseUsecase;
+import com.purchase.domain.usecase.purchase.create.PurchaseRatePrefetcher;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest(properties = {"treasury.sync.enabled=false", "purchase.rate-prefetch.countries=Chile,Peru"})
+class PurchaseRatePrefetchTest {
+    private static final AtomicInteger upstreamCalls = new AtomicInteger();
+    private static HttpServer treasuryStub;
+
+    @Autowired
+    private CreatePurchaseUsecase createPurchaseUsecase;
+
+    @Autowired
+    private GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void treasuryProperties(DynamicPropertyRegistry registry) throws IOException {
+        // Local stub of the Treasury endpoint, answering slower than a purchase creation
+        treasuryStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        treasuryStub.setExecutor(Executors.newFixedThreadPool(4));
+        treasuryStub.createContext("/v1/accounting/od/rates_of_exchange", exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"data\":[{\"exchange_rate\":2.5}]}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        treasuryStub.start();
+        registry.add("treasury.url", () -> "http://localhost:" + treasuryStub.getAddress().getPort() + "/");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        treasuryStub.stop(0);
+    }
+
+    private double prefetches(String result) {
+        return meterRegistry.find(PurchaseRatePrefetcher.PREFETCH_COUNTER).tag("result", result).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+
+    private void awaitPrefetches(String result, double count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (prefetches(result) < count) {
+            if (System.nanoTime() > deadline) {
+                fail("Only " + prefetches(result) + " prefetches " + result);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private Purchase createPurchase(LocalDate purchaseDate) {
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription("Prefetched purchase");
+        input.setPurchaseDate(purchaseDate);
+        input.setDolarPrice(new BigDecimal("10.00"));
+        ResponseEntity<Purchase> response = createPurchaseUsecase.execute(input);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return Objects.requireNonNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Test a new purchase prefetches the rates of the hot countries in the background, once per window")
+    void testNewPurchasePrefetchesHotCountryRates() throws InterruptedException {
+        LocalDate purchaseDate = LocalDate.of(2023, 11, 15);
+        double completedBefore = prefetches("completed");
+        double skippedBefore = prefetches("skipped");
+
+        // The creation returns before the slow upstream answers
+        Purchase purchase = createPurchase(purchaseDate);
+        assertEquals(completedBefore, prefetches("completed"));
+
+        awaitPrefetches("completed", completedBefore + 2);
+        assertEquals(2, upstreamCalls.get());
+        assertTrue(fiscalDataTreasuryRateExchangeService.isCached("Chile", "2023-05-15"));
+        assertTrue(fiscalDataTreasuryRateExchangeService.isCached("Peru", "2023-05-15"));
+
+        // Another purchase of the same date finds both windows cached
+        createPurchase(purchaseDate);
+        assertEquals(skippedBefore + 2, prefetches("skipped"));
+
+        // The conversion is served from the cache
+        ResponseEntity<GetPurchaseCountryCurrencyOutput> response = getPurchaseCountryCurrencyUsecase.execute(purchase.getId(), "Chile");
+        assertEquals(new BigDecimal("25.00"), Objects.requireNonNull(response.getBody()).getConvertedPrice().toBigDecimal());
+        assertEquals(2, upstreamCalls.get());
+    }
+}
@@ -0,0 +1,95 @@
+package com.purchase.integration.purchase;
+
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "treasury.sync.enabled=false")
+class PurchaseSecondLevelCacheTest {
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void clearStatistics() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    private Purchase createPurchase(String description) {
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription(description);
+        input.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        input.setDolarPrice(new BigDecimal("42.10"));
+        return purchaseDataProvider.createPurchase(input);
+    }
+
+    @Test
+    @DisplayName("Test repeated reads of a purchase are served by the second-level cache without querying the database")
+    void testRepeatedReadsAreServedFromCache() {
+        UUID id = createPurchase("Cached purchase").getId();
+        // Start from a cold region, so the first read loads the purchase from the database
+        sessionFactory.getCache().evictEntityData(Purchase.class);
+        statistics.clear();
+
+        for (int i = 0; i < 5; i++) {
+            Purchase purchase = purchaseDataProvider.getPurchaseById(id);
+            assertNotNull(purchase);
+            assertEquals(new BigDecimal("42.10"), purchase.getDolarPrice().toBigDecimal());
+        }
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+        assertEquals(4, statistics.getSecondLevelCacheHitCount());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", Purchase.CACHE_REGION).tag("result", "hit").functionCounter().count() >= 4);
+    }
+
+    @Test
+    @DisplayName("Test a batch read takes cached purchases from the second-level cache and queries only the others")
+    void testBatchReadQueriesOnlyUncachedPurchases() {
+        Purchase cached = createPurchase("Cached batch purchase");
+        Purchase uncached = createPurchase("Uncached batch purchase");
+        sessionFactory.getCache().evictEntityData(Purchase.class, uncached.getId());
+        statistics.clear();
+
+        List<Purchase> purchases = purchaseDataProvider.getPurchasesByIds(List.of(cached.getId(), uncached.getId(), UUID.randomUUID()));
+
+        assertEquals(2, purchases.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+
+        // Both purchases are cached now
+        statistics.clear();
+        assertEquals(2, purchaseDataProvider.getPurchasesByIds(List.of(cached.getId(), uncached.getId())).size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
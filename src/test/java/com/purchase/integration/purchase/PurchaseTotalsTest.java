@@ -0,0 +1,157 @@
+package com.purchase.integration.purchase;
+
+import com.purchase.domain.entity.RateExchange;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsOutput;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsOutput.PeriodTotals;
+import com.purchase.domain.usecase.purchase.totals.GetPurchaseTotalsUsecase;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"treasury.sync.enabled=false",
+        // A database of its own, so the purchases totaled here are the only ones
+        "spring.datasource.url=jdbc:h2:mem:totalsdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "purchase.totals.split-days=5"})
+class PurchaseTotalsTest {
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Autowired
+    private GetPurchaseTotalsUsecase getPurchaseTotalsUsecase;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    void storeRates() {
+        rateExchangeDataProvider.saveRates(List.of(rate(LocalDate.of(2021, 12, 31), "5.581"), rate(LocalDate.of(2023, 12, 31), "4.852")));
+        rateExchangeDataProvider.refreshIndex();
+    }
+
+    private static RateExchange rate(LocalDate effectiveDate, String exchangeRate) {
+        RateExchange rate = new RateExchange();
+        rate.setCountry("Brazil");
+        rate.setCurrency("Real");
+        rate.setRecordDate(effectiveDate);
+        rate.setEffectiveDate(effectiveDate);
+        rate.setExchangeRate(new BigDecimal(exchangeRate));
+        return rate;
+    }
+
+    private void createPurchases(LocalDate purchaseDate, String... dolarPrices) {
+        purchaseDataProvider.createPurchases(List.of(dolarPrices).stream().map(dolarPrice -> {
+            CreatePurchaseInput input = new CreatePurchaseInput();
+            input.setDescription("Purchase of " + purchaseDate);
+            input.setPurchaseDate(purchaseDate);
+            input.setDolarPrice(new BigDecimal(dolarPrice));
+            return input;
+        }).toList());
+    }
+
+    private GetPurchaseTotalsOutput totals(String query) {
+        ResponseEntity<GetPurchaseTotalsOutput> response = testRestTemplate.getForEntity("/purchase/totals?" + query, GetPurchaseTotalsOutput.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return Objects.requireNonNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Test monthly totals hold the database aggregates and the totals converted with the rate of each purchase date")
+    void testMonthlyTotalsAreAggregatedAndConverted() {
+        createPurchases(LocalDate.of(2024, 1, 3), "10.00", "20.00");
+        createPurchases(LocalDate.of(2024, 1, 28), "30.00", "40.00");
+        createPurchases(LocalDate.of(2024, 2, 14), "5.55");
+        createPurchases(LocalDate.of(2024, 4, 10), "100.00");
+
+        GetPurchaseTotalsOutput output = totals("period=month&from=2024-01-15&to=2024-04-02&country=Brazil&country=Atlantis");
+
+        // The range is widened to whole months, the month without purchase included
+        assertEquals(LocalDate.of(2024, 1, 1), output.getFrom());
+        assertEquals(LocalDate.of(2024, 4, 30), output.getTo());
+        assertEquals(List.of("2024-01", "2024-02", "2024-03", "2024-04"), output.getTotals().stream().map(PeriodTotals::getPeriod).toList());
+
+        PeriodTotals january = output.getTotals().get(0);
+        assertTrue(january.isClosed());
+        assertEquals(4, january.getCount());
+        assertEquals(Money.of(new BigDecimal("100.00")), january.getTotal());
+        assertEquals(Money.of(new BigDecimal("10.00")), january.getMin());
+        assertEquals(Money.of(new BigDecimal("40.00")), january.getMax());
+        assertEquals(Money.of(new BigDecimal("25.00")), january.getP50());
+        assertEquals(Money.of(new BigDecimal("37.00")), january.getP90());
+        assertEquals(Money.of(new BigDecimal("39.70")), january.getP99());
+        // 48.52 + 97.04 + 145.56 + 194.08, each purchase converted with the rate effective on 2023-12-31
+        assertEquals(4, january.getConverted().get("Brazil").getCount());
+        assertEquals(Money.of(new BigDecimal("485.20")), january.getConverted().get("Brazil").getTotal());
+        assertEquals(0, january.getConverted().get("Atlantis").getCount());
+        assertEquals(4, january.getConverted().get("Atlantis").getUnconverted());
+
+        PeriodTotals march = output.getTotals().get(2);
+        assertEquals(0, march.getCount());
+        assertNull(march.getMin());
+        assertEquals(Money.of(new BigDecimal("485.20")), output.getTotals().get(3).getConverted().get("Brazil").getTotal());
+
+        GetPurchaseTotalsOutput quarters = totals("period=quarter&from=2024-01-01&to=2024-06-30");
+        assertEquals(List.of("2024-Q1", "2024-Q2"), quarters.getTotals().stream().map(PeriodTotals::getPeriod).toList());
+        assertEquals(5, quarters.getTotals().get(0).getCount());
+        assertEquals(Money.of(new BigDecimal("105.55")), quarters.getTotals().get(0).getTotal());
+        assertNull(quarters.getTotals().get(0).getConverted());
+    }
+
+    @Test
+    @DisplayName("Test closed periods are served from the cache until the rate sync drops the converted ones")
+    void testClosedPeriodsAreCached() {
+        createPurchases(LocalDate.of(2022, 3, 1), "12.34");
+        createPurchases(LocalDate.now(), "1.00");
+        String closedQuery = "period=month&from=2022-03-01&to=2022-03-31&country=Brazil";
+        String openQuery = "period=month&from=" + LocalDate.now() + "&to=" + LocalDate.now();
+        assertEquals(1, totals(closedQuery).getTotals().get(0).getCount());
+        long openCount = totals(openQuery).getTotals().get(0).getCount();
+
+        // A purchase dated in a closed month is only seen once its cached totals are dropped
+        createPurchases(LocalDate.of(2022, 3, 2), "1.00");
+        createPurchases(LocalDate.now(), "1.00");
+        assertEquals(1, totals(closedQuery).getTotals().get(0).getCount());
+        assertEquals(openCount + 1, totals(openQuery).getTotals().get(0).getCount());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", GetPurchaseTotalsUsecase.CACHE_NAME).tag("result", "hit").functionCounter().count() > 0);
+
+        getPurchaseTotalsUsecase.evictConvertedTotals();
+        PeriodTotals march = totals(closedQuery).getTotals().get(0);
+        assertEquals(2, march.getCount());
+        assertEquals(Money.of(new BigDecimal("74.45")), march.getConverted().get("Brazil").getTotal()); // 68.87 + 5.58
+    }
+
+    @Test
+    @DisplayName("Test bad request status when the period or the range is invalid")
+    void testBadRequestWhenPeriodOrRangeIsInvalid() {
+        assertEquals(HttpStatus.BAD_REQUEST, testRestTemplate.getForEntity("/purchase/totals?period=week&from=2024-01-01&to=2024-01-31", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, testRestTemplate.getForEntity("/purchase/totals?from=2024-02-01&to=2024-01-31", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, testRestTemplate.getForEntity("/purchase/totals?to=2024-01-31", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, testRestTemplate.getForEntity("/purchase/totals?from=2000-01-01&to=2024-01-31", String.class).getStatusCode());
+    }
+}
@@ -0,0 +1,226 @@
+package com.purchase.integration.purchase;
+
+import com.purchase.PurchaseApplication;
+import com.purchase.adapter.gateway.repository.purchase.PurchaseJournal;
+import com.purchase.adapter.gateway.repository.purchase.PurchaseWriteBehindDataProviderImpl;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.UuidV7Generator;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseUsecase;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"treasury.sync.enabled=false", "purchase.write-behind.enabled=true",
+        // A database of its own, so the purchases written here can be counted
+        "spring.datasource.url=jdbc:h2:mem:writebehinddb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"})
+class PurchaseWriteBehindTest {
+    private static final String DRAIN_DB_URL = "jdbc:h2:mem:writebehinddraindb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+    private static final String REPLAY_DB_URL = "jdbc:h2:mem:writebehindreplaydb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    @TempDir
+    private Path journalDirectory;
+
+    @Autowired
+    private CreatePurchaseUsecase createPurchaseUsecase;
+
+    @Autowired
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static CreatePurchaseInput input(int index) {
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription("Write-behind purchase " + index);
+        input.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        input.setDolarPrice(new BigDecimal("42.10"));
+        return input;
+    }
+
+    private double written(String result) {
+        return meterRegistry.find(PurchaseWriteBehindDataProviderImpl.WRITE_BEHIND_COUNTER).tag("result", result)
+                .counters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+
+    @Test
+    @DisplayName("Test a burst of creations is accepted, readable right away and written in the background")
+    void testBurstIsAcceptedReadableAndWritten() throws Exception {
+        int purchases = 2000;
+        long stored = count(jdbcTemplate);
+        double counted = written("written") + written("saturated");
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < purchases; i++) {
+            int index = i;
+            results.add(clients.submit(() -> {
+                ResponseEntity<Purchase> response = createPurchaseUsecase.execute(input(index));
+                assertTrue(response.getStatusCode() == HttpStatus.ACCEPTED || response.getStatusCode() == HttpStatus.CREATED);
+                UUID id = response.getBody().getId();
+                ids.add(id);
+
+                // The purchase is read back whether it is still queued or already written
+                Purchase read = purchaseDataProvider.getPurchaseById(id);
+                assertNotNull(read);
+                assertEquals("Write-behind purchase " + index, read.getDescription());
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        clients.shutdown();
+        assertEquals(purchases, ids.size());
+
+        // Every purchase reaches the database once the writer catches up, and is counted right after its batch commits
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((count(jdbcTemplate) < stored + purchases || written("written") + written("saturated") < counted + purchases)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(stored + purchases, count(jdbcTemplate));
+        assertEquals(counted + purchases, written("written") + written("saturated"));
+        assertEquals(ids.size(), purchaseDataProvider.getPurchasesByIds(ids).size());
+    }
+
+    @Test
+    @DisplayName("Test the queued purchases are written when the application shuts down")
+    void testQueuedPurchasesAreDrainedOnShutdown() throws Exception {
+        int purchases = 5000;
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PurchaseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--treasury.sync.enabled=false", "--purchase.write-behind.enabled=true",
+                        "--purchase.write-behind.capacity=" + purchases, "--spring.datasource.url=" + DRAIN_DB_URL,
+                        // The JCache manager is shared within the JVM, closing it would close the caches of the other test contexts
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        CreatePurchaseUsecase usecase = context.getBean(CreatePurchaseUsecase.class);
+        String username = context.getEnvironment().getProperty("spring.datasource.username");
+        String password = context.getEnvironment().getProperty("spring.datasource.password");
+        for (int i = 0; i < purchases; i++) {
+            usecase.execute(input(i));
+        }
+        context.close();
+
+        // The in-memory database outlives the application, so the rows can be counted after the shutdown
+        try (Connection connection = DriverManager.getConnection(DRAIN_DB_URL, username, password);
+             ResultSet rows = connection.createStatement().executeQuery("select count(*) from purchase")) {
+            rows.next();
+            assertEquals(purchases, rows.getLong(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Test the purchases left in the journal by a previous run are stored on startup")
+    void testJournaledPurchasesAreReplayedOnStartup() throws Exception {
+        // A previous run journaled purchases and stopped before confirming them
+        PurchaseJournal previousRun = new PurchaseJournal(journalDirectory, 64 * 1024);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Purchase purchase = new Purchase();
+            purchase.setId(UuidV7Generator.next());
+            purchase.setDescription("Journaled purchase " + i);
+            purchase.setPurchaseDate(LocalDate.of(2024, 1, 10));
+            purchase.setDolarPrice(new Money(4210));
+            previousRun.append(purchase);
+            ids.add(purchase.getId());
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PurchaseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--treasury.sync.enabled=false", "--purchase.write-behind.enabled=true",
+                        "--purchase.journal.enabled=true", "--purchase.journal.directory=" + journalDirectory,
+                        "--spring.datasource.url=" + REPLAY_DB_URL,
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        try {
+            PurchaseDataProvider dataProvider = context.getBean(PurchaseDataProvider.class);
+            assertEquals(ids.size(), dataProvider.getPurchasesByIds(ids).size());
+            assertEquals("Journaled purchase 0", dataProvider.getPurchaseById(ids.get(0)).getDescription());
+
+            // A purchase created now is journaled in the new segment, which is deleted once it is confirmed
+            context.getBean(CreatePurchaseUsecase.class).execute(input(0));
+        } finally {
+            context.close();
+        }
+        assertEquals(0, new PurchaseJournal(journalDirectory, 64 * 1024).recover().size());
+    }
+
+    @Test
+    @DisplayName("Test a batch failing while the database is unavailable is retried until it is written")
+    void testFailingBatchIsRetriedUntilWritten() throws Exception {
+        double failed = written("failed");
+        jdbcTemplate.execute("alter table purchase rename to purchase_offline");
+        List<UUID> ids = new ArrayList<>();
+        try {
+            for (int i = 0; i < 10; i++) {
+                ResponseEntity<Purchase> response = createPurchaseUsecase.execute(input(i));
+                assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+                ids.add(response.getBody().getId());
+            }
+            // Longer than a few attempts, the acknowledged purchases are kept and still readable
+            Thread.sleep(1500);
+            assertNotNull(purchaseDataProvider.getPurchaseById(ids.get(0)));
+        } finally {
+            jdbcTemplate.execute("alter table purchase_offline rename to purchase");
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (purchaseDataProvider.getPurchasesByIds(ids).size() < ids.size() || meterRegistry.get(PurchaseWriteBehindDataProviderImpl.QUEUE_GAUGE).gauge().value() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "The queued purchases were not written once the database came back");
+            Thread.sleep(20);
+        }
+        assertEquals(ids.size(), jdbcTemplate.queryForObject("select count(*) from purchase where description like 'Write-behind purchase %' and id in ("
+                + String.join(", ", ids.stream().map(id -> "'" + id + "'").toList()) + ")", Long.class));
+        assertEquals(failed, written("failed"));
+    }
+
+    @Test
+    @DisplayName("Test the startup fails when the journal is enabled without write-behind creation")
+    void testJournalWithoutWriteBehindFailsStartup() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(PurchaseApplication.class).web(WebApplicationType.NONE);
+        Exception failure = assertThrows(Exception.class, () -> application.run("--treasury.sync.enabled=false",
+                "--purchase.journal.enabled=true", "--purchase.journal.directory=" + journalDirectory,
+                "--spring.datasource.url=jdbc:h2:mem:journalwithoutwritebehinddb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false"));
+        assertInstanceOf(IllegalStateException.class, NestedExceptionUtils.getMostSpecificCause(failure));
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("select count(*) from purchase", Long.class);
+    }
+}
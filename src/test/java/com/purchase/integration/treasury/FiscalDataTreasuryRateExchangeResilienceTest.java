@@ -0,0 +1,125 @@
+package com.purchase.integration.treasury;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "treasury.sync.enabled=false",
+        "spring.cloud.openfeign.client.config.treasury.read-timeout=300",
+        "resilience4j.circuitbreaker.instances.treasury.sliding-window-size=4",
+        "resilience4j.circuitbreaker.instances.treasury.minimum-number-of-calls=4",
+        "resilience4j.circuitbreaker.instances.treasury.wait-duration-in-open-state=60s",
+        "resilience4j.retry.instances.treasury.max-attempts=2",
+        "resilience4j.retry.instances.treasury.wait-duration=10ms"
+})
+class FiscalDataTreasuryRateExchangeResilienceTest {
+    private static final AtomicBoolean outage = new AtomicBoolean();
+    private static HttpServer treasuryStub;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeService service;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @DynamicPropertySource
+    static void treasuryProperties(DynamicPropertyRegistry registry) throws IOException {
+        // Local stub of the Treasury endpoint that hangs past the read timeout during an outage
+        treasuryStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        treasuryStub.setExecutor(Executors.newFixedThreadPool(8));
+        treasuryStub.createContext("/v1/accounting/od/rates_of_exchange", exchange -> {
+            if (outage.get()) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"data\":[{\"exchange_rate\":5.033,\"record_date\":\"2023-12-31\"}]}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        treasuryStub.start();
+        registry.add("treasury.url", () -> "http://localhost:" + treasuryStub.getAddress().getPort() + "/");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        treasuryStub.stop(0);
+    }
+
+    @BeforeEach
+    void closeCircuit() {
+        outage.set(false);
+        circuitBreakerRegistry.circuitBreaker("treasury").reset();
+    }
+
+    @Test
+    @DisplayName("Test an upstream outage opens the circuit and serves the last known good rate with bounded latency")
+    void testOutageOpensCircuitAndServesLastKnownGoodRate() {
+        // A healthy response records the last known good rate of the country
+        assertNotNull(service.getTreasureRate("Brazil", "2023-06-01"));
+
+        outage.set(true);
+        LocalDate dateLimit = LocalDate.of(2023, 6, 2);
+        long[] latencies = new long[50];
+        for (int i = 0; i < latencies.length; i++) {
+            // Each request uses a new window so it misses the cache and reaches the upstream path
+            long start = System.nanoTime();
+            RateExchangeOutput output = service.getTreasureRate("Brazil", dateLimit.plusDays(i).toString());
+            latencies[i] = System.nanoTime() - start;
+
+            assertNotNull(output);
+            assertEquals(5.033, output.getData().get(0).getExchange_rate());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, service.getCircuitBreakerState());
+
+        // Only the calls that opened the circuit waited for the read timeout, the rest fail fast
+        long[] afterOpen = Arrays.copyOfRange(latencies, 10, latencies.length);
+        Arrays.sort(afterOpen);
+        long p99Millis = afterOpen[(int) Math.ceil(0.99 * afterOpen.length) - 1] / 1_000_000;
+        assertTrue(p99Millis < 100, "p99 latency with the circuit open was " + p99Millis + " ms");
+    }
+
+    @Test
+    @DisplayName("Test the last known good rate is not served outside the 6 months window")
+    void testLastKnownGoodRateIsNotServedOutsideWindow() {
+        assertNotNull(service.getTreasureRate("Chile", "2023-06-01"));
+
+        outage.set(true);
+        // The last known rate of Chile was recorded on 2023-12-31, before this window starts
+        assertNull(service.getTreasureRate("Chile", "2024-01-15"));
+    }
+}
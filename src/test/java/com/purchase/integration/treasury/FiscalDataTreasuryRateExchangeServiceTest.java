@@ -0,0 +1,165 @@
+package com.purchase.integration.treasury;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "treasury.sync.enabled=false")
+class FiscalDataTreasuryRateExchangeServiceTest {
+    private static final AtomicInteger upstreamCalls = new AtomicInteger();
+    private static final AtomicInteger gzipResponses = new AtomicInteger();
+    private static final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+    private static HttpServer treasuryStub;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeService service;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void treasuryProperties(DynamicPropertyRegistry registry) throws IOException {
+        // Local stub of the Treasury endpoint, answering slowly so concurrent misses overlap
+        treasuryStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        treasuryStub.setExecutor(Executors.newFixedThreadPool(4));
+        treasuryStub.createContext("/v1/accounting/od/rates_of_exchange", exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            remotePorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "{\"data\":[{\"exchange_rate\":5.033}]}".getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                // Compress the response when the client accepts it
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                gzipResponses.incrementAndGet();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        treasuryStub.start();
+        registry.add("treasury.url", () -> "http://localhost:" + treasuryStub.getAddress().getPort() + "/");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        treasuryStub.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test concurrent misses for the same key trigger a single upstream call")
+    void testConcurrentMissesTriggerSingleUpstreamCall() throws Exception {
+        int callsBefore = upstreamCalls.get();
+        long hitsBefore = service.getCacheStats().hitCount();
+
+        // Fire concurrent requests for the same country and record date window
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<RateExchangeOutput>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> service.getTreasureRate("Brazil", "2023-09-01")));
+        }
+        for (Future<RateExchangeOutput> future : futures) {
+            RateExchangeOutput output = future.get();
+            assertNotNull(output);
+            assertEquals(5.033, output.getData().get(0).getExchange_rate());
+        }
+        executor.shutdown();
+
+        // Only one request reached the Treasury stub, the others were served by the cache
+        assertEquals(callsBefore + 1, upstreamCalls.get());
+        assertEquals(hitsBefore + 7, service.getCacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Test reactive misses share the cache and the single upstream call with blocking callers")
+    void testReactiveMissesShareCacheWithBlockingCallers() {
+        int callsBefore = upstreamCalls.get();
+
+        // Concurrent reactive requests for the same window, then a blocking one
+        List<RateExchangeOutput> outputs = Flux.range(0, 8)
+                .flatMap(i -> service.getTreasureRateReactive("Mexico", "2023-09-01"))
+                .collectList()
+                .block();
+        RateExchangeOutput blockingOutput = service.getTreasureRate("Mexico", "2023-09-01");
+
+        assertNotNull(outputs);
+        assertEquals(8, outputs.size());
+        assertEquals(5.033, outputs.get(0).getData().get(0).getExchange_rate());
+        assertEquals(5.033, blockingOutput.getData().get(0).getExchange_rate());
+        assertEquals(callsBefore + 1, upstreamCalls.get());
+    }
+
+    @Test
+    @DisplayName("Test sequential calls reuse a pooled connection, accept gzip and record pool and latency metrics")
+    void testSequentialCallsReusePooledGzipConnection() {
+        int callsBefore = upstreamCalls.get();
+        int gzipBefore = gzipResponses.get();
+        remotePorts.clear();
+
+        for (int i = 1; i <= 3; i++) {
+            RateExchangeOutput output = service.getTreasureRate("Peru", "2023-0" + i + "-01");
+            assertNotNull(output);
+            assertEquals(5.033, output.getData().get(0).getExchange_rate());
+        }
+
+        // Every response was compressed and decoded, over a single kept-alive connection
+        assertEquals(callsBefore + 3, upstreamCalls.get());
+        assertEquals(gzipBefore + 3, gzipResponses.get());
+        assertEquals(1, remotePorts.size());
+
+        // The pool limits and the request timers are exposed as metrics
+        assertEquals(200, meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "feign").gauge().value());
+        assertTrue(meterRegistry.get("http.client.requests").tagKeys("http.url").timer().count() >= 3);
+    }
+
+    @Test
+    @DisplayName("Test different record date windows are cached independently")
+    void testDifferentWindowsAreCachedIndependently() {
+        int callsBefore = upstreamCalls.get();
+
+        service.getTreasureRate("Canada", "2023-01-01");
+        service.getTreasureRate("Canada", "2023-02-01");
+        service.getTreasureRate("Canada", "2023-01-01");
+
+        assertEquals(callsBefore + 2, upstreamCalls.get());
+    }
+}
@@ -0,0 +1,90 @@
+package com.purchase.integration.treasury;
+
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeSyncService;
+import com.purchase.adapter.gateway.repository.rateExchange.RateExchangeRepository;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"treasury.sync.enabled=false", "treasury.sync.page-size=2"})
+class FiscalDataTreasuryRateExchangeSyncServiceTest {
+    private static final List<String> requestedQueries = new CopyOnWriteArrayList<>();
+    private static HttpServer treasuryStub;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeSyncService syncService;
+
+    @Autowired
+    private RateExchangeRepository rateExchangeRepository;
+
+    @Autowired
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @DynamicPropertySource
+    static void treasuryProperties(DynamicPropertyRegistry registry) throws IOException {
+        // Local stub of the Treasury endpoint serving three records over two pages
+        treasuryStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        treasuryStub.createContext("/v1/accounting/od/rates_of_exchange", exchange -> {
+            String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+            requestedQueries.add(query);
+            String body = query.contains("page[number]=1")
+                    ? "{\"data\":["
+                    + "{\"record_date\":\"2023-09-30\",\"country\":\"Brazil\",\"currency\":\"Real\",\"exchange_rate\":\"4.994\",\"effective_date\":\"2023-09-30\"},"
+                    + "{\"record_date\":\"2023-12-31\",\"country\":\"Brazil\",\"currency\":\"Real\",\"exchange_rate\":\"4.852\",\"effective_date\":\"2023-12-31\"}],"
+                    + "\"meta\":{\"total-count\":3,\"total-pages\":2}}"
+                    : "{\"data\":["
+                    + "{\"record_date\":\"2023-12-31\",\"country\":\"Canada\",\"currency\":\"Dollar\",\"exchange_rate\":\"1.326\",\"effective_date\":\"2023-12-31\"}],"
+                    + "\"meta\":{\"total-count\":3,\"total-pages\":2}}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        treasuryStub.start();
+        registry.add("treasury.url", () -> "http://localhost:" + treasuryStub.getAddress().getPort() + "/");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        treasuryStub.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test sync pages through the dataset and skips already stored rates on the next run")
+    void testSyncPagesThroughDatasetAndIsIncremental() {
+        // Full sync stores every record of both pages
+        assertEquals(3, syncService.synchronize());
+        assertEquals(3, rateExchangeRepository.count());
+        assertTrue(requestedQueries.get(0).contains("filter=record_date:gte:2001-01-01"));
+        assertTrue(requestedQueries.get(1).contains("page[number]=2"));
+
+        // Incremental sync starts from the latest record date and stores nothing new
+        assertEquals(0, syncService.synchronize());
+        assertEquals(3, rateExchangeRepository.count());
+        assertTrue(requestedQueries.get(2).contains("filter=record_date:gte:2023-12-31"));
+
+        // The synced rates are published to the in-memory index
+        assertEquals(4_852_000L, rateExchangeDataProvider.getLatestRate("Brazil", LocalDate.of(2023, 7, 1), LocalDate.of(2024, 1, 15)));
+        assertEquals(4_994_000L, rateExchangeDataProvider.getLatestRate("Brazil", LocalDate.of(2023, 7, 1), LocalDate.of(2023, 12, 30)));
+    }
+}
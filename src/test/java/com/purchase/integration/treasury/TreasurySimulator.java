@@ -0,0 +1,777 @@
+package com.purchase.integration.treasury;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Embeddable simulator of the Treasury rates of exchange endpoint, serving a dataset with the
+ * filter, sort, fields and paging semantics of the Fiscal Data API, so tests and capacity runs need
+ * no network. Every response can be delayed by a latency distribution, failed with an error rate and
+ * throttled by a request rate limit. Delayed responses are sent from a scheduler, so a slow simulator
+ * holds no threads.
+ * <p>
+ * The dataset is a recorded Treasury response, written by {@link #record(String, Path)}, or the
+ * synthetic quarterly rates of {@link #syntheticDataset(LocalDate, LocalDate)}. It runs standalone with:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.purchase.integration.treasury.TreasurySimulator
+ * -Dbenchmark.jvmArgs="-Dtreasury.port=8089 -Dtreasury.dataset=rates.json -Dtreasury.latency=lognormal:80:0.5
+ * -Dtreasury.error-rate=0.01 -Dtreasury.rate-limit=200"
+ * <p>
+ * and records the live dataset with the record argument followed by the file to write.
+ */
+public final class TreasurySimulator implements AutoCloseable {
+
+    public static final String BASE_PATH = "/services/api/fiscal_service/"; // Base path of the Fiscal Data API, the treasury.url of the application
+    public static final String ENDPOINT = "v1/accounting/od/rates_of_exchange"; // Rates of exchange endpoint under the base path
+    public static final String LIVE_URL = "https://api.fiscaldata.treasury.gov" + BASE_PATH; // Base URL of the live API
+    private static final int DEFAULT_PAGE_SIZE = 100; // Page size when page[size] is not given
+    private static final int MAX_PAGE_SIZE = 10_000; // Largest page size accepted
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Countries of the synthetic dataset with their currency and a base rate to the dollar
+    private static final String[][] SYNTHETIC_COUNTRIES = {
+            {"Brazil", "Real", "4.852"}, {"Canada", "Dollar", "1.326"}, {"Mexico", "Peso", "16.953"},
+            {"Euro Zone", "Euro", "0.905"}, {"Japan", "Yen", "141.04"}, {"United Kingdom", "Pound", "0.786"},
+            {"India", "Rupee", "83.164"}, {"Australia", "Dollar", "1.465"}};
+
+    private final List<Map<String, String>> dataset; // Records served, every value a string as in the API
+    private final Set<String> fields; // Fields of the records, accepted in filter, sort and fields
+    private final Latency latency; // Delay of every response
+    private final double errorRate; // Share of the requests answered 500 Internal Server Error
+    private final RateLimiter rateLimiter; // Requests per second beyond which 429 Too Many Requests is answered, or null
+    private final ScheduledExecutorService scheduler; // Handles the requests and sends the delayed responses
+    private final HttpServer server; // Listening server
+
+    private final AtomicLong served = new AtomicLong(); // Requests answered with data
+    private final AtomicLong failed = new AtomicLong(); // Requests answered with an injected error
+    private final AtomicLong throttled = new AtomicLong(); // Requests answered 429 by the rate limit
+    private final AtomicLong rejected = new AtomicLong(); // Requests answered 400 for an invalid query
+
+    /**
+     * Starts the server of a simulator.
+     *
+     * @param builder The settings of the simulator.
+     * @throws IOException If the server cannot be started.
+     */
+    private TreasurySimulator(Builder builder) throws IOException {
+        this.dataset = List.copyOf(builder.dataset);
+        this.fields = dataset.isEmpty() ? Set.of() : Set.copyOf(dataset.get(0).keySet());
+        this.latency = builder.latency;
+        this.errorRate = builder.errorRate;
+        this.rateLimiter = builder.rateLimit > 0 ? new RateLimiter(builder.rateLimit) : null;
+        this.scheduler = Executors.newScheduledThreadPool(builder.threads);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", builder.port), 10_000);
+        server.setExecutor(scheduler);
+        server.createContext(BASE_PATH + ENDPOINT, this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns a builder of a simulator serving the synthetic dataset with no latency, error or limit.
+     *
+     * @return The builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the base URL to set as treasury.url.
+     *
+     * @return The base URL, ending with a slash.
+     */
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + BASE_PATH;
+    }
+
+    /**
+     * Returns the records served.
+     *
+     * @return The dataset.
+     */
+    public List<Map<String, String>> dataset() {
+        return dataset;
+    }
+
+    /**
+     * Returns the number of requests answered with data.
+     *
+     * @return The number of requests served.
+     */
+    public long served() {
+        return served.get();
+    }
+
+    /**
+     * Returns the number of requests answered with an injected 500 error.
+     *
+     * @return The number of requests failed.
+     */
+    public long failed() {
+        return failed.get();
+    }
+
+    /**
+     * Returns the number of requests answered 429 by the rate limit.
+     *
+     * @return The number of requests throttled.
+     */
+    public long throttled() {
+        return throttled.get();
+    }
+
+    /**
+     * Returns the number of requests answered 400 for an invalid query.
+     *
+     * @return The number of requests rejected.
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Stops the server and drops the responses not sent yet.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Answers a request: throttled at once when over the rate limit, otherwise failed or served
+     * after the sampled latency.
+     *
+     * @param exchange The request exchange.
+     */
+    private void handle(HttpExchange exchange) {
+        if (rateLimiter != null && !rateLimiter.tryAcquire()) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            send(exchange, 429, error("Too Many Requests", "The request rate limit of the simulator is exceeded"));
+            return;
+        }
+        Response response;
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            failed.incrementAndGet();
+            response = new Response(500, error("Internal Server Error", "Error injected by the simulator"));
+        } else {
+            response = query(exchange.getRequestURI().getRawQuery());
+            (response.status() == 200 ? served : rejected).incrementAndGet();
+        }
+        long delayNanos = latency.sampleNanos();
+        if (delayNanos <= 0) {
+            send(exchange, response.status(), response.body());
+        } else {
+            scheduler.schedule(() -> send(exchange, response.status(), response.body()), delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Runs a query on the dataset as the Fiscal Data API does: the records matching every filter,
+     * in sort order, projected on the requested fields, one page of them with the paging metadata.
+     *
+     * @param rawQuery The raw query string of the request, or null.
+     * @return The response to send.
+     */
+    private Response query(String rawQuery) {
+        Map<String, String> params = parseQuery(rawQuery);
+        try {
+            String format = params.getOrDefault("format", "json");
+            if (!format.equals("json")) {
+                throw new IllegalArgumentException("The simulator only serves the json format");
+            }
+            Predicate<Map<String, String>> filter = parseFilter(params.get("filter"));
+            Comparator<Map<String, String>> sort = parseSort(params.get("sort"));
+            List<String> projection = params.containsKey("fields") ? parseFields(params.get("fields")) : null;
+            int pageNumber = parseInt(params.getOrDefault("page[number]", "1"), "page[number]");
+            int pageSize = parseInt(params.getOrDefault("page[size]", String.valueOf(DEFAULT_PAGE_SIZE)), "page[size]");
+            if (pageNumber < 1 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("page[number] must be positive and page[size] between 1 and " + MAX_PAGE_SIZE);
+            }
+
+            List<Map<String, String>> matching = new ArrayList<>();
+            for (Map<String, String> record : dataset) {
+                if (filter.test(record)) {
+                    matching.add(record);
+                }
+            }
+            if (sort != null) {
+                matching.sort(sort);
+            }
+            int totalPages = (matching.size() + pageSize - 1) / pageSize;
+            int from = (int) Math.min((long) (pageNumber - 1) * pageSize, matching.size());
+            List<Map<String, String>> page = matching.subList(from, Math.min(from + pageSize, matching.size()));
+
+            ObjectNode body = MAPPER.createObjectNode();
+            ArrayNode data = body.putArray("data");
+            for (Map<String, String> record : page) {
+                ObjectNode row = data.addObject();
+                for (String field : projection != null ? projection : record.keySet()) {
+                    row.put(field, record.get(field));
+                }
+            }
+            ObjectNode meta = body.putObject("meta");
+            meta.put("count", page.size());
+            meta.put("total-count", matching.size());
+            meta.put("total-pages", totalPages);
+            ObjectNode links = body.putObject("links");
+            links.put("self", "&page%5Bnumber%5D=" + pageNumber + "&page%5Bsize%5D=" + pageSize);
+            links.put("first", "&page%5Bnumber%5D=1&page%5Bsize%5D=" + pageSize);
+            links.put("prev", pageNumber > 1 ? "&page%5Bnumber%5D=" + (pageNumber - 1) + "&page%5Bsize%5D=" + pageSize : null);
+            links.put("next", pageNumber < totalPages ? "&page%5Bnumber%5D=" + (pageNumber + 1) + "&page%5Bsize%5D=" + pageSize : null);
+            links.put("last", "&page%5Bnumber%5D=" + Math.max(totalPages, 1) + "&page%5Bsize%5D=" + pageSize);
+            return new Response(200, MAPPER.writeValueAsBytes(body));
+        } catch (IllegalArgumentException | IOException e) {
+            return new Response(400, error("Invalid Query Param", e.getMessage()));
+        }
+    }
+
+    /**
+     * Parses a filter of comma-separated field:operator:value conditions, all of which must match.
+     * The operators are eq, lt, lte, gt, gte and in, whose value is a parenthesized comma-separated list.
+     *
+     * @param filter The filter, or null to match every record.
+     * @return The predicate of the matching records.
+     */
+    private Predicate<Map<String, String>> parseFilter(String filter) {
+        Predicate<Map<String, String>> predicate = record -> true;
+        if (filter == null || filter.isEmpty()) {
+            return predicate;
+        }
+        for (String condition : splitOutsideParentheses(filter)) {
+            String[] parts = condition.split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid filter condition: " + condition);
+            }
+            String field = checkField(parts[0]);
+            String value = parts[2];
+            Predicate<Map<String, String>> test = switch (parts[1]) {
+                case "eq" -> record -> compare(record.get(field), value) == 0;
+                case "lt" -> record -> compare(record.get(field), value) < 0;
+                case "lte" -> record -> compare(record.get(field), value) <= 0;
+                case "gt" -> record -> compare(record.get(field), value) > 0;
+                case "gte" -> record -> compare(record.get(field), value) >= 0;
+                case "in" -> {
+                    if (!value.startsWith("(") || !value.endsWith(")")) {
+                        throw new IllegalArgumentException("The in operator takes a parenthesized list: " + condition);
+                    }
+                    List<String> values = Arrays.asList(value.substring(1, value.length() - 1).split(","));
+                    yield record -> values.stream().anyMatch(candidate -> compare(record.get(field), candidate) == 0);
+                }
+                default -> throw new IllegalArgumentException("Invalid filter operator: " + parts[1]);
+            };
+            predicate = predicate.and(test);
+        }
+        return predicate;
+    }
+
+    /**
+     * Parses a sort of comma-separated fields, each descending when prefixed with a minus sign.
+     *
+     * @param sort The sort, or null to keep the dataset order.
+     * @return The comparator of the records, or null.
+     */
+    private Comparator<Map<String, String>> parseSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return null;
+        }
+        Comparator<Map<String, String>> comparator = null;
+        for (String key : sort.split(",")) {
+            boolean descending = key.startsWith("-");
+            String field = checkField(descending ? key.substring(1) : key);
+            Comparator<Map<String, String>> byField = (left, right) -> compare(left.get(field), right.get(field));
+            if (descending) {
+                byField = byField.reversed();
+            }
+            comparator = comparator == null ? byField : comparator.thenComparing(byField);
+        }
+        return comparator;
+    }
+
+    /**
+     * Parses the comma-separated fields of a projection.
+     *
+     * @param fields The fields.
+     * @return The fields, in the requested order.
+     */
+    private List<String> parseFields(String fields) {
+        return Arrays.stream(fields.split(",")).map(this::checkField).toList();
+    }
+
+    /**
+     * Checks that a field belongs to the records.
+     *
+     * @param field The field.
+     * @return The field.
+     */
+    private String checkField(String field) {
+        if (!fields.contains(field)) {
+            throw new IllegalArgumentException("Invalid field: " + field);
+        }
+        return field;
+    }
+
+    /**
+     * Compares two values as numbers when both are numbers, otherwise as text, which orders ISO dates.
+     *
+     * @param left  The left value, or null.
+     * @param right The right value.
+     * @return The comparison result.
+     */
+    private static int compare(String left, String right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : -1) : 1;
+        }
+        try {
+            return new BigDecimal(left).compareTo(new BigDecimal(right));
+        } catch (NumberFormatException e) {
+            return left.compareTo(right);
+        }
+    }
+
+    /**
+     * Splits a filter on the commas outside of the parentheses of the in lists.
+     *
+     * @param filter The filter.
+     * @return The conditions.
+     */
+    private static List<String> splitOutsideParentheses(String filter) {
+        List<String> conditions = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < filter.length(); i++) {
+            char c = filter.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                conditions.add(filter.substring(start, i));
+                start = i + 1;
+            }
+        }
+        conditions.add(filter.substring(start));
+        return conditions;
+    }
+
+    /**
+     * Parses a whole number query parameter.
+     *
+     * @param value The value.
+     * @param name  The name of the parameter.
+     * @return The number.
+     */
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    /**
+     * Decodes the parameters of a query string.
+     *
+     * @param rawQuery The raw query string, or null.
+     * @return The decoded parameters.
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    /**
+     * Builds an error body shaped as the API errors.
+     *
+     * @param error   The error title.
+     * @param message The error message.
+     * @return The JSON body.
+     */
+    private static byte[] error(String error, String message) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("error", error);
+        body.put("message", message);
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends a JSON response, closing the exchange when the client went away.
+     *
+     * @param exchange The request exchange.
+     * @param status   The HTTP status.
+     * @param body     The JSON body.
+     */
+    private static void send(HttpExchange exchange, int status, byte[] body) {
+        try (OutputStream os = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            os.write(body);
+        } catch (IOException e) {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads a dataset recorded by {@link #record(String, Path)}, or any Treasury response saved as JSON.
+     *
+     * @param file The JSON file, with the records in its data array.
+     * @return The records, every value as a string.
+     * @throws IOException If the file cannot be read.
+     */
+    public static List<Map<String, String>> loadDataset(Path file) throws IOException {
+        JsonNode data = MAPPER.readTree(file.toFile()).path("data");
+        return MAPPER.convertValue(data, new TypeReference<List<Map<String, String>>>() {
+        });
+    }
+
+    /**
+     * Records the whole rates of exchange dataset of an API into a file readable by {@link #loadDataset(Path)},
+     * paging through it in record date order.
+     *
+     * @param baseUrl The base URL of the API, such as {@link #LIVE_URL}.
+     * @param file    The JSON file to write.
+     * @return The number of records written.
+     * @throws IOException          If a page cannot be read or the file written.
+     * @throws InterruptedException If interrupted while waiting for a page.
+     */
+    public static int record(String baseUrl, Path file) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ObjectNode recorded = MAPPER.createObjectNode();
+        ArrayNode data = recorded.putArray("data");
+        int totalPages = 1;
+        for (int page = 1; page <= totalPages; page++) {
+            URI uri = URI.create(baseUrl + ENDPOINT + "?format=json&sort=record_date,country"
+                    + "&" + URLEncoder.encode("page[number]", StandardCharsets.UTF_8) + "=" + page
+                    + "&" + URLEncoder.encode("page[size]", StandardCharsets.UTF_8) + "=" + MAX_PAGE_SIZE);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(1)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Page " + page + " answered HTTP " + response.statusCode());
+            }
+            JsonNode body = MAPPER.readTree(response.body());
+            totalPages = body.path("meta").path("total-pages").asInt();
+            body.path("data").forEach(data::add);
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), recorded);
+        return data.size();
+    }
+
+    /**
+     * Builds a synthetic dataset of quarterly rates of a few countries, recorded and effective on
+     * each quarter end, drifting around a base rate so that consecutive quarters differ.
+     *
+     * @param from The oldest quarter end.
+     * @param to   The newest quarter end.
+     * @return The records, with the fields of the API records.
+     */
+    public static List<Map<String, String>> syntheticDataset(LocalDate from, LocalDate to) {
+        List<Map<String, String>> records = new ArrayList<>();
+        LocalDate quarterEnd = LocalDate.of(from.getYear(), 3, 31);
+        for (int quarter = 0; !quarterEnd.isAfter(to); quarter++) {
+            if (!quarterEnd.isBefore(from)) {
+                for (String[] country : SYNTHETIC_COUNTRIES) {
+                    BigDecimal rate = new BigDecimal(country[2])
+                            .multiply(BigDecimal.valueOf(1 + 0.05 * Math.sin(quarter)))
+                            .setScale(3, RoundingMode.HALF_UP);
+                    Map<String, String> record = new LinkedHashMap<>();
+                    record.put("record_date", quarterEnd.toString());
+                    record.put("country", country[0]);
+                    record.put("currency", country[1]);
+                    record.put("country_currency_desc", country[0] + "-" + country[1]);
+                    record.put("exchange_rate", rate.toPlainString());
+                    record.put("effective_date", quarterEnd.toString());
+                    record.put("record_calendar_year", String.valueOf(quarterEnd.getYear()));
+                    record.put("record_calendar_quarter", String.valueOf((quarterEnd.getMonthValue() - 1) / 3 + 1));
+                    records.add(record);
+                }
+            }
+            quarterEnd = quarterEnd.plusMonths(3).withDayOfMonth(1).plusMonths(1).minusDays(1);
+        }
+        return records;
+    }
+
+    /**
+     * Runs the simulator standalone until the process is stopped, or records the live dataset.
+     *
+     * @param args Nothing to serve, or record followed by the file to write.
+     * @throws Exception If the simulator cannot start or the dataset be recorded.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("record")) {
+            int count = record(System.getProperty("treasury.url", LIVE_URL), Path.of(args[1]));
+            System.out.println("Recorded " + count + " records into " + args[1]);
+            return;
+        }
+        TreasurySimulator simulator = fromSystemProperties(Integer.getInteger("treasury.port", 8089));
+        System.out.println("Treasury simulator serving " + simulator.dataset().size() + " records at " + simulator.baseUrl());
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Starts a simulator configured by the treasury.dataset, treasury.latency, treasury.error-rate
+     * and treasury.rate-limit system properties.
+     *
+     * @param port The port to listen on, 0 for any free port.
+     * @return The started simulator.
+     * @throws IOException If the dataset cannot be read or the server started.
+     */
+    public static TreasurySimulator fromSystemProperties(int port) throws IOException {
+        String dataset = System.getProperty("treasury.dataset");
+        return builder()
+                .port(port)
+                .dataset(dataset != null ? loadDataset(Path.of(dataset)) : syntheticDataset(LocalDate.of(2001, 1, 1), LocalDate.now()))
+                .latency(Latency.parse(System.getProperty("treasury.latency", "fixed:0")))
+                .errorRate(Double.parseDouble(System.getProperty("treasury.error-rate", "0")))
+                .rateLimit(Integer.parseInt(System.getProperty("treasury.rate-limit", "0")))
+                .start();
+    }
+
+    /**
+     * Status and body of a response.
+     */
+    private record Response(int status, byte[] body) {
+    }
+
+    /**
+     * Delay of the responses, sampled for each request.
+     */
+    @FunctionalInterface
+    public interface Latency {
+        /**
+         * Samples the delay of a response.
+         *
+         * @return The delay in nanoseconds.
+         */
+        long sampleNanos();
+
+        /**
+         * Returns the same delay for every response.
+         *
+         * @param delay The delay.
+         * @return The latency.
+         */
+        static Latency fixed(Duration delay) {
+            long nanos = delay.toNanos();
+            return () -> nanos;
+        }
+
+        /**
+         * Returns delays spread evenly between two bounds.
+         *
+         * @param min The shortest delay.
+         * @param max The longest delay.
+         * @return The latency.
+         */
+        static Latency uniform(Duration min, Duration max) {
+            long minNanos = min.toNanos();
+            long maxNanos = max.toNanos();
+            return () -> ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+        }
+
+        /**
+         * Returns log-normal delays, the long-tailed shape of remote calls: most answer near the
+         * median and a few take many times longer.
+         *
+         * @param median The median delay.
+         * @param sigma  The standard deviation of the logarithm of the delay, 0.5 putting p99 at about 3.2 times the median.
+         * @return The latency.
+         */
+        static Latency logNormal(Duration median, double sigma) {
+            double medianNanos = median.toNanos();
+            return () -> (long) (medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        /**
+         * Parses a latency: fixed:millis, uniform:minMillis:maxMillis or lognormal:medianMillis:sigma.
+         *
+         * @param spec The latency specification.
+         * @return The latency.
+         */
+        static Latency parse(String spec) {
+            String[] parts = spec.split(":");
+            return switch (parts[0]) {
+                case "fixed" -> fixed(Duration.ofMillis(Long.parseLong(parts[1])));
+                case "uniform" -> uniform(Duration.ofMillis(Long.parseLong(parts[1])), Duration.ofMillis(Long.parseLong(parts[2])));
+                case "lognormal" -> logNormal(Duration.ofMillis(Long.parseLong(parts[1])), Double.parseDouble(parts[2]));
+                default -> throw new IllegalArgumentException("Latency must be fixed:ms, uniform:min:max or lognormal:median:sigma, not " + spec);
+            };
+        }
+    }
+
+    /**
+     * Token bucket allowing a number of requests per second, with bursts of up to one second of them.
+     */
+    private static final class RateLimiter {
+        private final double permitsPerNano; // Tokens added per nanosecond
+        private final double capacity; // Largest number of tokens held
+        private double tokens; // Tokens available
+        private long refilledAt = System.nanoTime(); // Time of the last refill
+
+        /**
+         * Creates a full bucket.
+         *
+         * @param permitsPerSecond The requests allowed per second.
+         */
+        RateLimiter(int permitsPerSecond) {
+            this.permitsPerNano = permitsPerSecond / 1e9;
+            this.capacity = permitsPerSecond;
+            this.tokens = permitsPerSecond;
+        }
+
+        /**
+         * Takes a token if one is available.
+         *
+         * @return True if the request is allowed.
+         */
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
+    /**
+     * Builder of a simulator.
+     */
+    public static final class Builder {
+        private int port; // Port to listen on, any free port when 0
+        private List<Map<String, String>> dataset = syntheticDataset(LocalDate.of(2001, 1, 1), LocalDate.now()); // Records served
+        private Latency latency = Latency.fixed(Duration.ZERO); // Delay of every response
+        private double errorRate; // Share of the requests failed
+        private int rateLimit; // Requests per second allowed, unlimited when 0
+        private int threads = 4; // Threads handling the requests and sending the delayed responses
+
+        /**
+         * Creates a builder with the default settings.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets the port to listen on.
+         *
+         * @param port The port, 0 for any free port.
+         * @return This builder.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the records served.
+         *
+         * @param dataset The records, every value a string.
+         * @return This builder.
+         */
+        public Builder dataset(List<Map<String, String>> dataset) {
+            this.dataset = dataset;
+            return this;
+        }
+
+        /**
+         * Sets the delay of the responses.
+         *
+         * @param latency The latency distribution.
+         * @return This builder.
+         */
+        public Builder latency(Latency latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Sets the share of the requests answered 500 Internal Server Error.
+         *
+         * @param errorRate The share, between 0 and 1.
+         * @return This builder.
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Sets the requests per second beyond which 429 Too Many Requests is answered.
+         *
+         * @param rateLimit The requests per second, unlimited when 0.
+         * @return This builder.
+         */
+        public Builder rateLimit(int rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        /**
+         * Sets the threads handling the requests and sending the delayed responses.
+         *
+         * @param threads The number of threads.
+         * @return This builder.
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Starts the simulator.
+         *
+         * @return The started simulator.
+         * @throws IOException If the server cannot be started.
+         */
+        public TreasurySimulator start() throws IOException {
+            return new TreasurySimulator(this);
+        }
+    }
+}
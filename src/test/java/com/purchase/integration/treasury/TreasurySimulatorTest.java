@@ -0,0 +1,134 @@
+package com.purchase.integration.treasury;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeSyncService;
+import com.purchase.adapter.gateway.repository.rateExchange.RateExchangeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"treasury.sync.enabled=false", "treasury.sync.page-size=10",
+        // A database of its own, so the rates synchronized here are the only ones
+        "spring.datasource.url=jdbc:h2:mem:treasurysimdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"})
+class TreasurySimulatorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+    private static TreasurySimulator simulator;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeService service;
+
+    @Autowired
+    private FiscalDataTreasuryRateExchangeSyncService syncService;
+
+    @Autowired
+    private RateExchangeRepository rateExchangeRepository;
+
+    @DynamicPropertySource
+    static void treasuryProperties(DynamicPropertyRegistry registry) throws IOException {
+        // Eight quarters of eight countries
+        simulator = TreasurySimulator.builder()
+                .dataset(TreasurySimulator.syntheticDataset(LocalDate.of(2022, 1, 1), LocalDate.of(2023, 12, 31)))
+                .start();
+        registry.add("treasury.url", simulator::baseUrl);
+    }
+
+    @AfterAll
+    static void stopSimulator() {
+        simulator.close();
+    }
+
+    private static HttpResponse<String> get(TreasurySimulator target, String query) throws IOException, InterruptedException {
+        StringBuilder encoded = new StringBuilder();
+        for (String param : query.split("&")) {
+            String[] pair = param.split("=", 2);
+            encoded.append(encoded.isEmpty() ? "" : "&")
+                    .append(URLEncoder.encode(pair[0], StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(pair[1], StandardCharsets.UTF_8));
+        }
+        URI uri = URI.create(target.baseUrl() + TreasurySimulator.ENDPOINT + "?" + encoded);
+        return HTTP_CLIENT.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Test the simulator filters, sorts, projects and pages the dataset as the Treasury API")
+    void testQuerySemantics() throws Exception {
+        HttpResponse<String> response = get(simulator, "filter=country:in:(Brazil,Canada),record_date:gte:2023-01-01"
+                + "&sort=-record_date,country&fields=country,record_date,exchange_rate&page[number]=2&page[size]=3");
+        assertEquals(200, response.statusCode());
+        JsonNode body = MAPPER.readTree(response.body());
+        assertEquals(8, body.path("meta").path("total-count").asInt());
+        assertEquals(3, body.path("meta").path("total-pages").asInt());
+        List<String> rows = new ArrayList<>();
+        body.path("data").forEach(row -> rows.add(row.path("record_date").asText() + " " + row.path("country").asText()));
+        assertEquals(List.of("2023-09-30 Canada", "2023-06-30 Brazil", "2023-06-30 Canada"), rows);
+        assertEquals(3, body.path("data").get(0).size());
+
+        assertEquals(400, get(simulator, "filter=planet:eq:Mars").statusCode());
+        assertEquals(400, get(simulator, "format=xml").statusCode());
+        assertTrue(simulator.rejected() >= 2);
+    }
+
+    @Test
+    @DisplayName("Test the service gets the most recent rate after the limit from the simulator")
+    void testServiceGetsMostRecentRate() {
+        RateExchangeOutput output = service.getTreasureRate("Brazil", "2023-01-01");
+        assertNotNull(output);
+        Map<String, String> latest = simulator.dataset().stream()
+                .filter(record -> record.get("country").equals("Brazil") && record.get("record_date").equals("2023-12-31"))
+                .findFirst().orElseThrow();
+        assertEquals(Double.parseDouble(latest.get("exchange_rate")), output.getData().get(0).getExchange_rate());
+    }
+
+    @Test
+    @DisplayName("Test the sync pages through the whole simulated dataset")
+    void testSyncStoresWholeDataset() {
+        assertEquals(64, syncService.synchronize());
+        assertEquals(64, rateExchangeRepository.count());
+    }
+
+    @Test
+    @DisplayName("Test the simulator injects errors and throttles over the rate limit")
+    void testFaultsAreInjected() throws Exception {
+        try (TreasurySimulator failing = TreasurySimulator.builder().errorRate(1).start()) {
+            assertEquals(500, get(failing, "filter=country:eq:Brazil").statusCode());
+            assertEquals(1, failing.failed());
+        }
+        try (TreasurySimulator limited = TreasurySimulator.builder().rateLimit(2).start()) {
+            List<Integer> statuses = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                statuses.add(get(limited, "filter=country:eq:Brazil").statusCode());
+            }
+            assertTrue(statuses.contains(429));
+            assertEquals(statuses.stream().filter(status -> status == 429).count(), limited.throttled());
+        }
+        try (TreasurySimulator slow = TreasurySimulator.builder().latency(TreasurySimulator.Latency.parse("fixed:200")).start()) {
+            long start = System.nanoTime();
+            assertEquals(200, get(slow, "page[size]=1").statusCode());
+            assertTrue(System.nanoTime() - start >= 200_000_000L);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.purchase.units.entity;
+
+import com.purchase.domain.entity.UuidV7Generator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("Test the generated IDs are version 7 with the creation time in their most significant bits")
+    void testIdsAreVersion7WithTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long timestamp = UuidV7Generator.timestamp(id);
+        // The counter may carry into the timestamp under load, so it can run slightly ahead of the clock
+        assertTrue(timestamp >= before && timestamp <= after + 1, () -> timestamp + " not in " + before + ".." + after);
+    }
+
+    @Test
+    @DisplayName("Test IDs generated in a burst within the same millisecond are strictly increasing")
+    void testIdsAreStrictlyIncreasing() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID last = previous;
+            UUID next = UuidV7Generator.next();
+            assertTrue(last.compareTo(next) < 0, () -> last + " >= " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("Test IDs generated concurrently are unique and increasing within each thread")
+    void testConcurrentIdsAreUnique() throws Exception {
+        int threads = 8;
+        int idsPerThread = 50_000;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    Set<UUID> own = new HashSet<>();
+                    UUID previous = null;
+                    boolean increasing = true;
+                    for (int i = 0; i < idsPerThread; i++) {
+                        UUID id = UuidV7Generator.next();
+                        increasing &= previous == null || previous.compareTo(id) < 0;
+                        own.add(id);
+                        previous = id;
+                    }
+                    ids.addAll(own);
+                    return increasing;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+}
@@ -0,0 +1,64 @@
+package com.purchase.units.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.purchase.application.configuration.logging.SampledRequestLogTurboFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SampledRequestLogTurboFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger requestLogger = loggerContext.getLogger("com.purchase.domain.usecase.purchase.get.GetPurchaseCountryCurrencyUsecase");
+
+    private SampledRequestLogTurboFilter filter(int sampleRate) {
+        SampledRequestLogTurboFilter filter = new SampledRequestLogTurboFilter();
+        filter.setLoggerPrefix("com.purchase.domain.usecase.purchase.get");
+        filter.setSampleRate(sampleRate);
+        return filter;
+    }
+
+    @Test
+    @DisplayName("Test one in every sample rate INFO events of the request loggers is kept")
+    void testKeepsOneInSampleRateInfoEvents() {
+        SampledRequestLogTurboFilter filter = filter(3);
+
+        int kept = 0;
+        for (int i = 0; i < 9; i++) {
+            if (filter.decide(null, requestLogger, Level.INFO, "Execution completed", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertEquals(3, kept);
+    }
+
+    @Test
+    @DisplayName("Test warnings, other loggers and level checks are never sampled out")
+    void testWarningsOtherLoggersAndLevelChecksAreNotSampled() {
+        SampledRequestLogTurboFilter filter = filter(1000);
+        Logger otherLogger = loggerContext.getLogger("com.purchase.domain.usecase.purchase.create.CreatePurchaseBulkUsecase");
+
+        // Consume the first sample so any further sampled INFO event would be denied
+        filter.decide(null, requestLogger, Level.INFO, "Execution completed", null, null);
+
+        assertEquals(FilterReply.DENY, filter.decide(null, requestLogger, Level.INFO, "Execution completed", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, requestLogger, Level.WARN, "No purchase found", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, otherLogger, Level.INFO, "Bulk ingestion completed", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, requestLogger, Level.INFO, null, null, null));
+    }
+
+    @Test
+    @DisplayName("Test a sample rate of one keeps every event")
+    void testSampleRateOfOneKeepsEveryEvent() {
+        SampledRequestLogTurboFilter filter = filter(1);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, requestLogger, Level.INFO, "Execution completed", null, null));
+        }
+    }
+}
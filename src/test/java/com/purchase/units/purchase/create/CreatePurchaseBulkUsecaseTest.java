@@ -0,0 +1,125 @@
+package com.purchase.units.purchase.create;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.purchase.domain.interfaces.dataprovider.purchase.PartialPurchasesCreationException;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseBulkOutput;
+import com.purchase.domain.usecase.purchase.create.CreatePurchaseBulkUsecase;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ExtendWith(MockitoExtension.class)
+class CreatePurchaseBulkUsecaseTest {
+    // Mock dependencies
+    @Mock
+    private PurchaseDataProvider purchaseDataProvider;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private static final String VALID_ROW = "{\"description\":\"Item\",\"purchaseDate\":\"2024-01-10\",\"dolarPrice\":10.50}";
+    private static final String INVALID_ROW = "{\"description\":\"Item\",\"purchaseDate\":\"2024-01-10\",\"dolarPrice\":-1}";
+
+    private ResponseEntity<CreatePurchaseBulkOutput> execute(String body) {
+        return execute(body, 5000);
+    }
+
+    private ResponseEntity<CreatePurchaseBulkOutput> execute(String body, int chunkSize) {
+        CreatePurchaseBulkUsecase usecase = new CreatePurchaseBulkUsecase(purchaseDataProvider, validator, objectMapper, chunkSize);
+        return usecase.execute(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Test bulk accepts valid rows and reports invalid rows from newline-delimited JSON")
+    void testBulkFromNewlineDelimitedJson() {
+        when(purchaseDataProvider.createPurchases(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        ResponseEntity<CreatePurchaseBulkOutput> response = execute(VALID_ROW + "\n" + INVALID_ROW + "\n" + VALID_ROW + "\n");
+
+        CreatePurchaseBulkOutput output = Objects.requireNonNull(response.getBody());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, output.getAccepted());
+        assertEquals(1, output.getRejected());
+        assertEquals(2, output.getErrors().get(0).getRow());
+        assertEquals(List.of("Purchase amount must be positive"), output.getErrors().get(0).getErrors());
+    }
+
+    @Test
+    @DisplayName("Test bulk accepts a JSON array")
+    void testBulkFromJsonArray() {
+        when(purchaseDataProvider.createPurchases(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        ResponseEntity<CreatePurchaseBulkOutput> response = execute("[" + VALID_ROW + "," + VALID_ROW + "]");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, Objects.requireNonNull(response.getBody()).getAccepted());
+        verify(purchaseDataProvider).createPurchases(anyList());
+    }
+
+    @Test
+    @DisplayName("Test bulk returns bad request on malformed JSON")
+    void testBulkReturnsBadRequestOnMalformedJson() {
+        ResponseEntity<CreatePurchaseBulkOutput> response = execute("{\"description\":");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(1, Objects.requireNonNull(response.getBody()).getRejected());
+        verify(purchaseDataProvider, never()).createPurchases(anyList());
+    }
+
+    @Test
+    @DisplayName("Test bulk reports the rows stored before a failed chunk and the row to resume from")
+    void testBulkReportsAcceptedRowsWhenChunkFails() {
+        when(purchaseDataProvider.createPurchases(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size())
+                .thenThrow(new RuntimeException("Connection lost"));
+
+        ResponseEntity<CreatePurchaseBulkOutput> response = execute(String.join("\n", VALID_ROW, INVALID_ROW, VALID_ROW, VALID_ROW, VALID_ROW, VALID_ROW), 2);
+
+        CreatePurchaseBulkOutput output = Objects.requireNonNull(response.getBody());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(2, output.getAccepted());
+        assertEquals(1, output.getRejected());
+        // The second chunk starts at row 4, the rows after it were not read
+        assertEquals(4, output.getErrors().get(1).getRow());
+        verify(purchaseDataProvider, times(2)).createPurchases(anyList());
+    }
+
+    @Test
+    @DisplayName("Test bulk accepts the committed rows of a partly stored chunk and reports the others")
+    void testBulkReportsCommittedRowsWhenChunkPartlyFails() {
+        when(purchaseDataProvider.createPurchases(anyList()))
+                .thenThrow(new PartialPurchasesCreationException(List.of(0, 2), new RuntimeException("Shard 1 unavailable")));
+
+        ResponseEntity<CreatePurchaseBulkOutput> response = execute(String.join("\n", VALID_ROW, INVALID_ROW, VALID_ROW, VALID_ROW, VALID_ROW), 3);
+
+        CreatePurchaseBulkOutput output = Objects.requireNonNull(response.getBody());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(2, output.getAccepted());
+        assertEquals(1, output.getRejected());
+        // The chunk holds rows 1, 3 and 4, of which row 3 was not committed, and row 5 was not read
+        assertEquals(List.of(2L, 3L, 5L), output.getErrors().stream().map(CreatePurchaseBulkOutput.RowError::getRow).toList());
+    }
+}
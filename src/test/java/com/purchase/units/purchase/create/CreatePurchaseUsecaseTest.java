@@ -1,9 +1,15 @@
 package com.purchase.units.purchase.create;
 
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseInput;
 import com.purchase.domain.usecase.purchase.create.CreatePurchaseUsecase;
+import com.purchase.domain.usecase.purchase.create.PurchaseRatePrefetcher;
 import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.UuidV7Generator;
 import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseWriteBehindDataProvider;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +26,10 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +40,14 @@ class CreatePurchaseUsecaseTest {
     @Mock
     private PurchaseDataProvider purchaseDataProvider;
 
+    @Mock
+    private PurchaseRatePrefetcher purchaseRatePrefetcher;
+
+    @Mock
+    private PurchaseWriteBehindDataProvider purchaseWriteBehindDataProvider;
+
+    private final UsecaseMetrics usecaseMetrics = new UsecaseMetrics(new SimpleMeterRegistry());
+
     @Test
     @DisplayName("Test create purchase with valid input")
     void testCreatePurchaseWithValidInput() {
@@ -44,13 +62,13 @@ class CreatePurchaseUsecaseTest {
         expectedPurchase.setId(UUID.randomUUID());
         expectedPurchase.setDescription("Valid description");
         expectedPurchase.setPurchaseDate(LocalDate.now());
-        expectedPurchase.setDolarPrice(BigDecimal.valueOf(100.00));
+        expectedPurchase.setDolarPrice(Money.of(BigDecimal.valueOf(100.00)));
 
         // Set up mock behavior
         when(purchaseDataProvider.createPurchase(input)).thenReturn(expectedPurchase);
 
         // Create instance of CreatePurchaseUsecase
-        CreatePurchaseUsecase usecase = new CreatePurchaseUsecase(purchaseDataProvider);
+        CreatePurchaseUsecase usecase = new CreatePurchaseUsecase(purchaseDataProvider, usecaseMetrics, purchaseRatePrefetcher, purchaseWriteBehindDataProvider);
 
         // Execute the use case
         ResponseEntity<Purchase> response = usecase.execute(input);
@@ -61,13 +79,33 @@ class CreatePurchaseUsecaseTest {
 
         // Verify the mock behavior
         verify(purchaseDataProvider).createPurchase(input);
+        verify(purchaseRatePrefetcher).prefetch(expectedPurchase.getPurchaseDate());
+    }
+
+    @Test
+    @DisplayName("Test create purchase succeeds when the rate prefetch fails")
+    void testCreatePurchaseSucceedsWhenPrefetchFails() {
+        // Arrange
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        Purchase expectedPurchase = new Purchase();
+        expectedPurchase.setId(UUID.randomUUID());
+        expectedPurchase.setPurchaseDate(LocalDate.now());
+        when(purchaseDataProvider.createPurchase(input)).thenReturn(expectedPurchase);
+        doThrow(new IllegalStateException("Prefetch pool shut down")).when(purchaseRatePrefetcher).prefetch(expectedPurchase.getPurchaseDate());
+
+        // Act
+        ResponseEntity<Purchase> response = new CreatePurchaseUsecase(purchaseDataProvider, usecaseMetrics, purchaseRatePrefetcher, purchaseWriteBehindDataProvider).execute(input);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(expectedPurchase, response.getBody());
     }
 
     @Test
     @DisplayName("Test throw exception on purchase creation error")
     void testThrowExceptionOnPurchaseCreationError() {
         // Create an instance of CreatePurchaseUsecase
-        CreatePurchaseUsecase createPurchaseUsecase = new CreatePurchaseUsecase(purchaseDataProvider);
+        CreatePurchaseUsecase createPurchaseUsecase = new CreatePurchaseUsecase(purchaseDataProvider, usecaseMetrics, purchaseRatePrefetcher, purchaseWriteBehindDataProvider);
 
         // Mock the createPurchase method to throw an exception
         CreatePurchaseInput input = new CreatePurchaseInput();
@@ -88,7 +126,7 @@ class CreatePurchaseUsecaseTest {
         when(purchaseDataProvider.createPurchase(input)).thenReturn(createdPurchase);
 
         // Create instance of CreatePurchaseUsecase
-        CreatePurchaseUsecase usecase = new CreatePurchaseUsecase(purchaseDataProvider);
+        CreatePurchaseUsecase usecase = new CreatePurchaseUsecase(purchaseDataProvider, usecaseMetrics, purchaseRatePrefetcher, purchaseWriteBehindDataProvider);
 
         // Execute the use case
         ResponseEntity<Purchase> actualResponse = usecase.execute(input);
@@ -98,4 +136,50 @@ class CreatePurchaseUsecaseTest {
         assertEquals(HttpStatus.CREATED, actualResponse.getStatusCode());
         assertEquals(createdPurchase, actualResponse.getBody());
     }
+
+    @Test
+    @DisplayName("Test create purchase in write-behind mode queues the purchase with an assigned ID and returns accepted")
+    void testCreatePurchaseInWriteBehindModeQueuesPurchase() {
+        // Arrange
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription("Queued purchase");
+        input.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        input.setDolarPrice(new BigDecimal("42.10"));
+        long before = System.currentTimeMillis();
+        when(purchaseWriteBehindDataProvider.isEnabled()).thenReturn(true);
+        when(purchaseWriteBehindDataProvider.write(any(Purchase.class))).thenReturn(true);
+
+        // Act
+        ResponseEntity<Purchase> response = new CreatePurchaseUsecase(purchaseDataProvider, usecaseMetrics, purchaseRatePrefetcher, purchaseWriteBehindDataProvider).execute(input);
+
+        // Assert
+        Purchase purchase = response.getBody();
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(7, purchase.getId().version());
+        assertTrue(UuidV7Generator.timestamp(purchase.getId()) >= before);
+        assertEquals("Queued purchase", purchase.getDescription());
+        assertEquals(new BigDecimal("42.10"), purchase.getDolarPrice().toBigDecimal());
+        verify(purchaseWriteBehindDataProvider).write(purchase);
+        verify(purchaseDataProvider, never()).createPurchase(any());
+        verify(purchaseRatePrefetcher).prefetch(LocalDate.of(2024, 1, 10));
+    }
+
+    @Test
+    @DisplayName("Test create purchase in write-behind mode returns created when the full queue writes it synchronously")
+    void testCreatePurchaseInWriteBehindModeReturnsCreatedWhenQueueIsFull() {
+        // Arrange
+        CreatePurchaseInput input = new CreatePurchaseInput();
+        input.setDescription("Synchronous purchase");
+        input.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        input.setDolarPrice(new BigDecimal("42.10"));
+        when(purchaseWriteBehindDataProvider.isEnabled()).thenReturn(true);
+        when(purchaseWriteBehindDataProvider.write(any(Purchase.class))).thenReturn(false);
+
+        // Act
+        ResponseEntity<Purchase> response = new CreatePurchaseUsecase(purchaseDataProvider, usecaseMetrics, purchaseRatePrefetcher, purchaseWriteBehindDataProvider).execute(input);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(purchaseDataProvider, never()).createPurchase(any());
+    }
 }
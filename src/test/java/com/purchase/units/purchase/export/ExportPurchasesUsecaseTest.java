@@ -0,0 +1,178 @@
+package com.purchase.units.purchase.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.export.ExportPurchasesUsecase;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ExtendWith(MockitoExtension.class)
+class ExportPurchasesUsecaseTest {
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 1, 31);
+
+    // Mock dependencies
+    @Mock
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Mock
+    private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService;
+
+    @Mock
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Mock
+    private PurchaseConversionDataProvider purchaseConversionDataProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private ExportPurchasesUsecase createUsecase() {
+        GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider,
+                fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, new UsecaseMetrics(new SimpleMeterRegistry()),
+                purchaseConversionDataProvider);
+        return new ExportPurchasesUsecase(purchaseDataProvider, getPurchaseCountryCurrencyUsecase, objectMapper);
+    }
+
+    private String[] stream(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Objects.requireNonNull(response.getBody()).writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    }
+
+    private Purchase purchase(LocalDate purchaseDate, String description, String dolarPrice) {
+        Purchase purchase = new Purchase();
+        purchase.setId(UUID.randomUUID());
+        purchase.setDescription(description);
+        purchase.setPurchaseDate(purchaseDate);
+        purchase.setDolarPrice(Money.of(new BigDecimal(dolarPrice)));
+        return purchase;
+    }
+
+    @Test
+    @DisplayName("Test export walks every keyset page and streams each purchase as a JSON line")
+    void testExportWalksEveryKeysetPage() throws Exception {
+        // Arrange, a full page followed by a partial one
+        List<Purchase> firstPage = new ArrayList<>();
+        for (int i = 0; i < ExportPurchasesUsecase.PAGE_SIZE; i++) {
+            firstPage.add(purchase(FROM, "Item " + i, "10.00"));
+        }
+        Purchase last = firstPage.get(firstPage.size() - 1);
+        List<Purchase> secondPage = List.of(purchase(TO, "Last item", "20.50"));
+        when(purchaseDataProvider.getPurchasesPage(FROM, TO, null, ExportPurchasesUsecase.PAGE_SIZE)).thenReturn(firstPage);
+        when(purchaseDataProvider.getPurchasesPage(FROM, TO, last, ExportPurchasesUsecase.PAGE_SIZE)).thenReturn(secondPage);
+
+        // Act
+        String[] lines = stream(createUsecase().execute("ndjson", "date", null, FROM, TO));
+
+        // Assert
+        assertEquals(ExportPurchasesUsecase.PAGE_SIZE + 1, lines.length);
+        JsonNode lastLine = objectMapper.readTree(lines[lines.length - 1]);
+        assertEquals(secondPage.get(0).getId().toString(), lastLine.get("id").asText());
+        assertEquals(0, new BigDecimal("20.50").compareTo(lastLine.get("dolarPrice").decimalValue()));
+        verify(purchaseDataProvider, Mockito.times(2)).getPurchasesPage(eq(FROM), eq(TO), any(), eq(ExportPurchasesUsecase.PAGE_SIZE));
+    }
+
+    @Test
+    @DisplayName("Test export in creation order walks the pages with the last ID as the keyset cursor")
+    void testExportInCreationOrderUsesIdCursor() throws Exception {
+        // Arrange, a full page followed by an empty one
+        List<Purchase> firstPage = new ArrayList<>();
+        for (int i = 0; i < ExportPurchasesUsecase.PAGE_SIZE; i++) {
+            firstPage.add(purchase(i % 2 == 0 ? FROM : TO, "Item " + i, "10.00"));
+        }
+        UUID lastId = firstPage.get(firstPage.size() - 1).getId();
+        when(purchaseDataProvider.getPurchasesCreatedPage(FROM, TO, null, ExportPurchasesUsecase.PAGE_SIZE)).thenReturn(firstPage);
+        when(purchaseDataProvider.getPurchasesCreatedPage(FROM, TO, lastId, ExportPurchasesUsecase.PAGE_SIZE)).thenReturn(List.of());
+        when(rateExchangeDataProvider.getLatestRate(eq("Brazil"), any(), any())).thenReturn(4_852_000L);
+
+        // Act
+        String[] lines = stream(createUsecase().execute("csv", "created", "Brazil", FROM, TO));
+
+        // Assert, the rates of the interleaved dates are each resolved once
+        assertEquals(ExportPurchasesUsecase.PAGE_SIZE + 1, lines.length);
+        assertEquals(firstPage.get(0).getId() + ",Item 0,2024-01-01,10.00,4.852,48.52", lines[1]);
+        verify(rateExchangeDataProvider, Mockito.times(2)).getLatestRate(eq("Brazil"), any(), any());
+        verify(purchaseDataProvider, Mockito.never()).getPurchasesPage(any(), any(), any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Test export converts to CSV with the rate resolved once per purchase date")
+    void testExportConvertsToCsvWithOneRatePerDate() throws Exception {
+        // Arrange
+        LocalDate firstDate = LocalDate.of(2024, 1, 10);
+        LocalDate secondDate = LocalDate.of(2024, 1, 20);
+        Purchase first = purchase(firstDate, "Item, with \"quotes\"", "100.00");
+        Purchase second = purchase(firstDate, "Item 2", "10.00");
+        Purchase third = purchase(secondDate, "Item 3", "1.00");
+        when(purchaseDataProvider.getPurchasesPage(FROM, TO, null, ExportPurchasesUsecase.PAGE_SIZE)).thenReturn(List.of(first, second, third));
+        when(rateExchangeDataProvider.getLatestRate(eq("Brazil"), any(), eq(firstDate))).thenReturn(4_852_000L);
+        when(rateExchangeDataProvider.getLatestRate(eq("Brazil"), any(), eq(secondDate))).thenReturn(RateExchangeDataProvider.NO_RATE);
+        when(rateExchangeDataProvider.hasRates("Brazil")).thenReturn(true);
+
+        // Act
+        String[] lines = stream(createUsecase().execute("CSV", "date", "Brazil", FROM, TO));
+
+        // Assert
+        assertEquals(4, lines.length);
+        assertEquals("purchaseId,description,purchaseDate,dolarPrice,rate,convertedPrice", lines[0]);
+        assertEquals(first.getId() + ",\"Item, with \"\"quotes\"\"\",2024-01-10,100.00,4.852,485.20", lines[1]);
+        assertEquals(second.getId() + ",Item 2,2024-01-10,10.00,4.852,48.52", lines[2]);
+        assertEquals(third.getId() + ",Item 3,2024-01-20,1.00,,", lines[3]);
+        verify(rateExchangeDataProvider, Mockito.times(1)).getLatestRate(eq("Brazil"), any(), eq(firstDate));
+        Mockito.verifyNoInteractions(fiscalDataTreasuryRateExchangeService);
+    }
+
+    @Test
+    @DisplayName("Test export rejects an unknown format and an inverted date range before streaming")
+    void testExportRejectsInvalidInput() {
+        ExportPurchasesUsecase usecase = createUsecase();
+
+        ResponseStatusException format = assertThrows(ResponseStatusException.class, () -> usecase.execute("xml", "date", null, FROM, TO));
+        ResponseStatusException range = assertThrows(ResponseStatusException.class, () -> usecase.execute("csv", "date", null, TO, FROM));
+
+        ResponseStatusException order = assertThrows(ResponseStatusException.class, () -> usecase.execute("csv", "price", null, FROM, TO));
+
+        assertEquals(HttpStatus.BAD_REQUEST, format.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, range.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, order.getStatusCode());
+        assertTrue(Objects.requireNonNull(range.getReason()).contains("start date"));
+        Mockito.verifyNoInteractions(purchaseDataProvider);
+    }
+}
@@ -0,0 +1,152 @@
+package com.purchase.units.purchase.get;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyBatchInput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyBatchUsecase;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ExtendWith(MockitoExtension.class)
+class GetPurchaseCountryCurrencyBatchUsecaseTest {
+    // Mock dependencies
+    @Mock
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Mock
+    private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService;
+
+    @Mock
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Mock
+    private PurchaseConversionDataProvider purchaseConversionDataProvider;
+
+    private final UsecaseMetrics usecaseMetrics = new UsecaseMetrics(new SimpleMeterRegistry());
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private GetPurchaseCountryCurrencyBatchUsecase createUsecase() {
+        GetPurchaseCountryCurrencyUsecase getPurchaseCountryCurrencyUsecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
+        return new GetPurchaseCountryCurrencyBatchUsecase(purchaseDataProvider, getPurchaseCountryCurrencyUsecase, objectMapper);
+    }
+
+    private List<JsonNode> stream(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Objects.requireNonNull(response.getBody()).writeTo(outputStream);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private Purchase purchase(LocalDate purchaseDate, BigDecimal dolarPrice) {
+        Purchase purchase = new Purchase();
+        purchase.setId(UUID.randomUUID());
+        purchase.setDescription("Test Purchase");
+        purchase.setPurchaseDate(purchaseDate);
+        purchase.setDolarPrice(Money.of(dolarPrice));
+        return purchase;
+    }
+
+    @Test
+    @DisplayName("Test batch loads purchases once and resolves each distinct rate once")
+    void testBatchResolvesEachDistinctRateOnce() throws Exception {
+        // Arrange
+        LocalDate purchaseDate = LocalDate.of(2024, 1, 10);
+        Purchase first = purchase(purchaseDate, new BigDecimal("100.00"));
+        Purchase second = purchase(purchaseDate, new BigDecimal("10.00"));
+        when(purchaseDataProvider.getPurchasesByIds(anyCollection())).thenReturn(List.of(first, second));
+        when(rateExchangeDataProvider.getLatestRate(eq("Brazil"), any(), eq(purchaseDate))).thenReturn(4_852_000L);
+        when(rateExchangeDataProvider.getLatestRate(eq("Canada"), any(), eq(purchaseDate))).thenReturn(1_326_000L);
+
+        // Act
+        List<JsonNode> lines = stream(createUsecase().execute(List.of(
+                new GetPurchaseCountryCurrencyBatchInput(first.getId(), "Brazil"),
+                new GetPurchaseCountryCurrencyBatchInput(second.getId(), "Brazil"),
+                new GetPurchaseCountryCurrencyBatchInput(first.getId(), "Canada"))));
+
+        // Assert
+        assertEquals(3, lines.size());
+        assertEquals(200, lines.get(0).get("status").asInt());
+        assertEquals(0, new BigDecimal("485.20").compareTo(lines.get(0).get("result").get("convertedPrice").decimalValue()));
+        assertEquals(0, new BigDecimal("48.52").compareTo(lines.get(1).get("result").get("convertedPrice").decimalValue()));
+        assertEquals(0, new BigDecimal("132.60").compareTo(lines.get(2).get("result").get("convertedPrice").decimalValue()));
+        verify(purchaseDataProvider, Mockito.times(1)).getPurchasesByIds(anyCollection());
+        verify(rateExchangeDataProvider, Mockito.times(1)).getLatestRate(eq("Brazil"), any(), eq(purchaseDate));
+        Mockito.verifyNoInteractions(fiscalDataTreasuryRateExchangeService);
+    }
+
+    @Test
+    @DisplayName("Test batch reports failures per item without failing the batch")
+    void testBatchReportsFailuresPerItem() throws Exception {
+        // Arrange
+        LocalDate purchaseDate = LocalDate.of(2024, 1, 10);
+        Purchase purchase = purchase(purchaseDate, new BigDecimal("100.00"));
+        UUID unknownId = UUID.randomUUID();
+        when(purchaseDataProvider.getPurchasesByIds(anyCollection())).thenReturn(List.of(purchase));
+        when(rateExchangeDataProvider.getLatestRate(eq("Brazil"), any(), eq(purchaseDate))).thenReturn(4_852_000L);
+        when(rateExchangeDataProvider.getLatestRate(eq("Chile"), any(), eq(purchaseDate))).thenReturn(RateExchangeDataProvider.NO_RATE);
+        when(rateExchangeDataProvider.hasRates("Chile")).thenReturn(true);
+
+        // Act
+        List<JsonNode> lines = stream(createUsecase().execute(List.of(
+                new GetPurchaseCountryCurrencyBatchInput(unknownId, "Brazil"),
+                new GetPurchaseCountryCurrencyBatchInput(purchase.getId(), ""),
+                new GetPurchaseCountryCurrencyBatchInput(purchase.getId(), "Chile"),
+                new GetPurchaseCountryCurrencyBatchInput(purchase.getId(), "Brazil"))));
+
+        // Assert
+        assertEquals(4, lines.size());
+        assertEquals(HttpStatus.NOT_FOUND.value(), lines.get(0).get("status").asInt());
+        assertEquals(unknownId.toString(), lines.get(0).get("purchaseId").asText());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), lines.get(1).get("status").asInt());
+        assertEquals(HttpStatus.NOT_FOUND.value(), lines.get(2).get("status").asInt());
+        assertEquals("Chile", lines.get(2).get("country").asText());
+        assertEquals(HttpStatus.OK.value(), lines.get(3).get("status").asInt());
+    }
+
+    @Test
+    @DisplayName("Test batch throws bad request exception when empty")
+    void testBatchThrowsBadRequestWhenEmpty() {
+        assertThrows(ResponseStatusException.class, () -> createUsecase().execute(List.of()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.purchase.units.purchase.get;
+
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
+import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyReactiveUsecase;
+import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ExtendWith(MockitoExtension.class)
+class GetPurchaseCountryCurrencyReactiveUsecaseTest {
+    // Mock dependencies
+    @Mock
+    private PurchaseDataProvider purchaseDataProvider;
+
+    @Mock
+    private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService;
+
+    @Mock
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Mock
+    private PurchaseConversionDataProvider purchaseConversionDataProvider;
+
+    private final UsecaseMetrics usecaseMetrics = new UsecaseMetrics(new SimpleMeterRegistry());
+
+    private GetPurchaseCountryCurrencyReactiveUsecase usecase;
+
+    private final UUID purchaseId = UUID.randomUUID();
+    private final String dateLimit = LocalDate.now().minusMonths(6).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+
+    @BeforeEach
+    void setUp() {
+        GetPurchaseCountryCurrencyUsecase blockingUsecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
+        usecase = new GetPurchaseCountryCurrencyReactiveUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, blockingUsecase);
+    }
+
+    @Test
+    @DisplayName("Test execute success with the rate fetched through the reactive Treasury service")
+    void testExecuteSuccessWithReactiveTreasuryRate() {
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(purchase());
+
+        RateExchangeOutput rateExchangeOutput = new RateExchangeOutput();
+        RateExchangeOutput.Data rateExchangeData = new RateExchangeOutput.Data();
+        rateExchangeData.setExchange_rate(1.5);
+        rateExchangeOutput.setData(Collections.singletonList(rateExchangeData));
+        when(fiscalDataTreasuryRateExchangeService.getTreasureRateReactive("Brazil", dateLimit)).thenReturn(Mono.just(rateExchangeOutput));
+
+        ResponseEntity<GetPurchaseCountryCurrencyOutput> response = usecase.execute(purchaseId, "Brazil").block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(BigDecimal.valueOf(1.5), response.getBody().getRate().toBigDecimal());
+        assertEquals(new BigDecimal("150.00"), response.getBody().getConvertedPrice().toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Test execute resolves the rate from the local store without calling the Treasury API")
+    void testExecuteResolvesRateFromLocalStore() {
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(purchase());
+        when(rateExchangeDataProvider.getLatestRate("Brazil", LocalDate.now().minusMonths(6), LocalDate.now())).thenReturn(5_033_000L);
+
+        ResponseEntity<GetPurchaseCountryCurrencyOutput> response = usecase.execute(purchaseId, "Brazil").block();
+
+        assertNotNull(response);
+        assertEquals(new BigDecimal("5.033"), response.getBody().getRate().toBigDecimal());
+        verify(fiscalDataTreasuryRateExchangeService, never()).getTreasureRateReactive("Brazil", dateLimit);
+    }
+
+    @Test
+    @DisplayName("Test execute internal server error when the reactive Treasury request fails")
+    void testExecuteThrowsInternalServerErrorWhenTreasuryRequestFails() {
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(purchase());
+        when(fiscalDataTreasuryRateExchangeService.getTreasureRateReactive("Brazil", dateLimit)).thenReturn(Mono.empty());
+
+        Mono<ResponseEntity<GetPurchaseCountryCurrencyOutput>> response = usecase.execute(purchaseId, "Brazil");
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, response::block);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exception.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test execute not found status when purchase not found")
+    void testExecuteThrowsNotFoundWhenPurchaseNotFound() {
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(null);
+
+        Mono<ResponseEntity<GetPurchaseCountryCurrencyOutput>> response = usecase.execute(purchaseId, "Brazil");
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, response::block);
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    private Purchase purchase() {
+        Purchase purchase = new Purchase();
+        purchase.setId(purchaseId);
+        purchase.setDescription("Test Purchase");
+        purchase.setPurchaseDate(LocalDate.now());
+        purchase.setDolarPrice(Money.of(new BigDecimal("100.00")));
+        return purchase;
+    }
+}
@@ -1,11 +1,17 @@
 package com.purchase.units.purchase.get;
 
+import com.purchase.application.configuration.metrics.UsecaseMetrics;
 import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.dto.RateExchangeOutput;
 import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyOutput;
 import com.purchase.domain.usecase.purchase.get.purchaseCountryCurrency.GetPurchaseCountryCurrencyUsecase;
 import com.purchase.adapter.gateway.integration.fiscalDataTreasuryGov.service.FiscalDataTreasuryRateExchangeService;
 import com.purchase.domain.entity.Purchase;
 import com.purchase.domain.interfaces.dataprovider.purchase.PurchaseDataProvider;
+import com.purchase.domain.interfaces.dataprovider.purchaseConversion.PurchaseConversionDataProvider;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import com.purchase.domain.valueobject.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,8 +29,13 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
@@ -40,12 +51,22 @@ class GetPurchaseCountryCurrencyUsecaseTest {
     @Mock
     private FiscalDataTreasuryRateExchangeService fiscalDataTreasuryRateExchangeService;
 
+    @Mock
+    private RateExchangeDataProvider rateExchangeDataProvider;
+
+    @Mock
+    private PurchaseConversionDataProvider purchaseConversionDataProvider;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UsecaseMetrics usecaseMetrics = new UsecaseMetrics(meterRegistry);
+
 
     @Test
     @DisplayName("Test execute success with valid input and rate exchange data available")
     void testExecuteSuccessWithValidInputAndRateExchangeDataAvailable() {
         // Create instance of GetPurchaseCountryCurrencyUsecase
-        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService);
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
 
         // Set up test data
         UUID purchaseId = UUID.randomUUID();
@@ -56,7 +77,7 @@ class GetPurchaseCountryCurrencyUsecaseTest {
         purchase.setId(purchaseId);
         purchase.setDescription("Test Purchase");
         purchase.setPurchaseDate(LocalDate.now());
-        purchase.setDolarPrice(BigDecimal.valueOf(100.00));
+        purchase.setDolarPrice(Money.of(BigDecimal.valueOf(100.00)));
 
         when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(purchase);
 
@@ -79,19 +100,41 @@ class GetPurchaseCountryCurrencyUsecaseTest {
         assertEquals(purchase.getDescription(), output.getDescription());
         assertEquals(purchase.getPurchaseDate(), output.getPurchaseDate());
         assertEquals(purchase.getDolarPrice(), output.getDolarPrice());
-        assertEquals(BigDecimal.valueOf(rateExchangeData.getExchange_rate()), output.getRate());
-        assertEquals(purchase.getDolarPrice().multiply(BigDecimal.valueOf(rateExchangeData.getExchange_rate())).setScale(2, RoundingMode.HALF_UP), output.getConvertedPrice());
+        assertEquals(BigDecimal.valueOf(rateExchangeData.getExchange_rate()), output.getRate().toBigDecimal());
+        assertEquals(purchase.getDolarPrice().toBigDecimal().multiply(BigDecimal.valueOf(rateExchangeData.getExchange_rate())).setScale(2, RoundingMode.HALF_UP), output.getConvertedPrice().toBigDecimal());
 
         // Verify the mock interactions
         verify(purchaseDataProvider).getPurchaseById(purchaseId);
         verify(fiscalDataTreasuryRateExchangeService).getTreasureRate(country, LocalDate.now().minusMonths(6).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+
+        // Verify the execution and each phase were timed
+        for (String phase : new String[]{"execute", "purchase_fetch", "rate_fetch", "compute"}) {
+            assertEquals(1, meterRegistry.get(UsecaseMetrics.USECASE_TIMER)
+                    .tags("phase", phase, "country", country, "outcome", "SUCCESS").timer().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test execute records the client error outcome of the failing phase")
+    void testExecuteRecordsClientErrorOutcomeOfFailingPhase() {
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
+        UUID purchaseId = UUID.randomUUID();
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(null);
+
+        assertThrows(ResponseStatusException.class, () -> usecase.execute(purchaseId, "Brazil"));
+
+        assertEquals(1, meterRegistry.get(UsecaseMetrics.USECASE_TIMER)
+                .tags("phase", "purchase_fetch", "outcome", "CLIENT_ERROR").timer().count());
+        assertEquals(1, meterRegistry.get(UsecaseMetrics.USECASE_TIMER)
+                .tags("phase", "execute", "outcome", "CLIENT_ERROR").timer().count());
+        assertNull(meterRegistry.find(UsecaseMetrics.USECASE_TIMER).tags("phase", "rate_fetch").timer());
     }
 
     @Test
     @DisplayName("Test execute throws bad request exception when purchase id or country is null or blank")
     void testExecuteThrowsBadRequestExceptionWhenPurchaseIdOrCountryIsNullOrBlank() {
         // Create instance of GetPurchaseCountryCurrencyUsecase
-        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService);
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
 
         // Set up test data
         UUID purchaseId = UUID.randomUUID();
@@ -122,7 +165,7 @@ class GetPurchaseCountryCurrencyUsecaseTest {
                 .thenReturn(output);
 
         // Create instance of GetPurchaseCountryCurrencyUsecase
-        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService);
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
 
         // Assert that an exception is thrown
         assertThrows(ResponseStatusException.class, () -> usecase.execute(purchaseId, country));
@@ -145,7 +188,7 @@ class GetPurchaseCountryCurrencyUsecaseTest {
         when(fiscalDataTreasuryRateExchangeService.getTreasureRate(Mockito.anyString(), Mockito.anyString())).thenReturn(rateExchangeOutput);
 
         // Create the use case
-        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService);
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
 
         // Execute the use case and expect a ResponseStatusException
         assertThrows(ResponseStatusException.class, () -> usecase.execute(purchase.getId(), "USA"));
@@ -159,13 +202,13 @@ class GetPurchaseCountryCurrencyUsecaseTest {
         String country = "Brazil";
         Purchase purchase = new Purchase();
         purchase.setPurchaseDate(LocalDate.now());
-        purchase.setDolarPrice(BigDecimal.valueOf(500));
+        purchase.setDolarPrice(Money.of(BigDecimal.valueOf(500)));
 
         RateExchangeOutput rateExchangeOutput = new RateExchangeOutput();
         rateExchangeOutput.setData(Collections.singletonList(new RateExchangeOutput.Data()));
         GetPurchaseCountryCurrencyOutput expectedOutput = GetPurchaseCountryCurrencyOutput.builder().build();
 
-        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService);
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
 
         when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(purchase);
         when(fiscalDataTreasuryRateExchangeService.getTreasureRate(
@@ -184,4 +227,159 @@ class GetPurchaseCountryCurrencyUsecaseTest {
                 Mockito.times(1))
                 .getTreasureRate(country, purchase.getPurchaseDate().minusMonths(6).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
     }
+
+    @Test
+    @DisplayName("Test execute resolves rate from local store without calling the Treasury API")
+    void testExecuteResolvesRateFromLocalStore() {
+        // Arrange
+        UUID purchaseId = UUID.randomUUID();
+        String country = "Brazil";
+        Purchase purchase = new Purchase();
+        purchase.setId(purchaseId);
+        purchase.setPurchaseDate(LocalDate.now());
+        purchase.setDolarPrice(Money.of(BigDecimal.valueOf(100)));
+
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
+
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(purchase);
+        when(rateExchangeDataProvider.getLatestRate(country, purchase.getPurchaseDate().minusMonths(6), purchase.getPurchaseDate())).thenReturn(4_852_000L);
+
+        // Act
+        ResponseEntity<GetPurchaseCountryCurrencyOutput> response = usecase.execute(purchaseId, country);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new BigDecimal("485.20"), Objects.requireNonNull(response.getBody()).getConvertedPrice().toBigDecimal());
+        Mockito.verifyNoInteractions(fiscalDataTreasuryRateExchangeService);
+    }
+
+    @Test
+    @DisplayName("Test execute throws not found when local store has the country but no rate in the window")
+    void testExecuteThrowsNotFoundWhenLocalStoreHasNoRateInWindow() {
+        // Arrange
+        UUID purchaseId = UUID.randomUUID();
+        String country = "Brazil";
+        Purchase purchase = new Purchase();
+        purchase.setId(purchaseId);
+        purchase.setPurchaseDate(LocalDate.now());
+
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
+
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenReturn(purchase);
+        when(rateExchangeDataProvider.hasRates(country)).thenReturn(true);
+
+        // Act and assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> usecase.execute(purchaseId, country));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        Mockito.verifyNoInteractions(fiscalDataTreasuryRateExchangeService);
+    }
+
+    /**
+     * Waits until the given number of executions were coalesced, so every caller is waiting on the one in flight.
+     */
+    private void awaitCoalesced(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Counter counter = meterRegistry.find(UsecaseMetrics.COALESCED_COUNTER).counter();
+            if (counter != null && counter.count() >= count) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Only " + meterRegistry.find(UsecaseMetrics.COALESCED_COUNTER).counters() + " executions were coalesced");
+    }
+
+    /**
+     * Runs the use case from the given number of threads at once and returns their outcomes,
+     * the response or the thrown exception.
+     */
+    private List<Object> executeConcurrently(GetPurchaseCountryCurrencyUsecase usecase, UUID purchaseId, String country, int callers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return usecase.execute(purchaseId, country);
+                    } catch (ResponseStatusException e) {
+                        return e;
+                    }
+                }));
+            }
+            List<Object> outcomes = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrent identical requests share one conversion and its result")
+    void testConcurrentIdenticalRequestsShareOneConversion() throws Exception {
+        // Arrange, the purchase fetch of the first request holds until every other request waits on it
+        int callers = 20;
+        UUID purchaseId = UUID.randomUUID();
+        String country = "Brazil";
+        Purchase purchase = new Purchase();
+        purchase.setId(purchaseId);
+        purchase.setPurchaseDate(LocalDate.now());
+        purchase.setDolarPrice(Money.of(BigDecimal.valueOf(100)));
+
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
+
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenAnswer(invocation -> {
+            awaitCoalesced(callers - 1);
+            return purchase;
+        });
+        when(rateExchangeDataProvider.getLatestRate(country, purchase.getPurchaseDate().minusMonths(6), purchase.getPurchaseDate())).thenReturn(4_852_000L);
+
+        // Act
+        List<Object> outcomes = executeConcurrently(usecase, purchaseId, country, callers);
+
+        // Assert
+        Object first = assertInstanceOf(ResponseEntity.class, outcomes.get(0)).getBody();
+        assertInstanceOf(GetPurchaseCountryCurrencyOutput.class, first);
+        for (Object outcome : outcomes) {
+            ResponseEntity<?> response = assertInstanceOf(ResponseEntity.class, outcome);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertSame(first, response.getBody());
+        }
+        verify(purchaseDataProvider, Mockito.times(1)).getPurchaseById(purchaseId);
+        verify(rateExchangeDataProvider, Mockito.times(1)).getLatestRate(Mockito.eq(country), Mockito.any(), Mockito.any());
+        assertEquals(callers - 1, meterRegistry.get(UsecaseMetrics.COALESCED_COUNTER).tag("country", country).counter().count());
+    }
+
+    @Test
+    @DisplayName("Test concurrent identical requests share the exception of the conversion, which is not cached afterwards")
+    void testConcurrentIdenticalRequestsShareOneException() throws Exception {
+        // Arrange, the purchase is not found once every other request waits on the first one
+        int callers = 10;
+        UUID purchaseId = UUID.randomUUID();
+        String country = "Brazil";
+
+        GetPurchaseCountryCurrencyUsecase usecase = new GetPurchaseCountryCurrencyUsecase(purchaseDataProvider, fiscalDataTreasuryRateExchangeService, rateExchangeDataProvider, usecaseMetrics, purchaseConversionDataProvider);
+
+        when(purchaseDataProvider.getPurchaseById(purchaseId)).thenAnswer(invocation -> {
+            awaitCoalesced(callers - 1);
+            return null;
+        });
+
+        // Act
+        List<Object> outcomes = executeConcurrently(usecase, purchaseId, country, callers);
+
+        // Assert
+        for (Object outcome : outcomes) {
+            ResponseStatusException exception = assertInstanceOf(ResponseStatusException.class, outcome);
+            assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        }
+        verify(purchaseDataProvider, Mockito.times(1)).getPurchaseById(purchaseId);
+
+        // A later request runs its own conversion
+        assertThrows(ResponseStatusException.class, () -> usecase.execute(purchaseId, country));
+        verify(purchaseDataProvider, Mockito.times(2)).getPurchaseById(purchaseId);
+    }
 }
+
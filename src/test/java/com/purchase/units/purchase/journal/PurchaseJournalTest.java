@@ -0,0 +1,137 @@
+package com.purchase.units.purchase.journal;
+
+import com.purchase.adapter.gateway.repository.purchase.PurchaseJournal;
+import com.purchase.domain.entity.Purchase;
+import com.purchase.domain.entity.UuidV7Generator;
+import com.purchase.domain.valueobject.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PurchaseJournalTest {
+    private static final int SMALL_SEGMENT = 2048; // Holds a few purchases, so appends roll segments
+
+    @TempDir
+    private Path directory;
+
+    private static Purchase purchase(String description) {
+        Purchase purchase = new Purchase();
+        purchase.setId(UuidV7Generator.next());
+        purchase.setDescription(description);
+        purchase.setPurchaseDate(LocalDate.of(2024, 1, 10));
+        purchase.setDolarPrice(new Money(4210));
+        return purchase;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Test the purchases appended and not confirmed are recovered in order when the journal is reopened")
+    void testUnconfirmedPurchasesAreRecovered() throws IOException {
+        PurchaseJournal journal = new PurchaseJournal(directory, SMALL_SEGMENT);
+        List<Purchase> appended = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Purchase purchase = purchase("Compra nº " + i + " €");
+            journal.append(purchase);
+            appended.add(purchase);
+        }
+        journal.close();
+
+        PurchaseJournal reopened = new PurchaseJournal(directory, SMALL_SEGMENT);
+        List<Purchase> recovered = reopened.recover();
+
+        assertEquals(appended.size(), recovered.size());
+        for (int i = 0; i < appended.size(); i++) {
+            assertEquals(appended.get(i).getId(), recovered.get(i).getId());
+            assertEquals(appended.get(i).getDescription(), recovered.get(i).getDescription());
+            assertEquals(appended.get(i).getPurchaseDate(), recovered.get(i).getPurchaseDate());
+            assertEquals(appended.get(i).getDolarPrice(), recovered.get(i).getDolarPrice());
+        }
+
+        // Once stored, the recovered segments are discarded and only the new active segment is left
+        reopened.discardRecovered();
+        assertEquals(1, reopened.segmentCount());
+    }
+
+    @Test
+    @DisplayName("Test rolled segments are deleted once every purchase in them is confirmed")
+    void testConfirmedSegmentsAreDeleted() throws IOException {
+        PurchaseJournal journal = new PurchaseJournal(directory, SMALL_SEGMENT);
+        List<PurchaseJournal.Segment> segments = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            segments.add(journal.append(purchase("Purchase " + i)));
+        }
+        assertTrue(journal.segmentCount() > 3);
+
+        segments.forEach(journal::confirm);
+        assertEquals(1, journal.segmentCount()); // The active segment
+        journal.close();
+        assertEquals(0, journal.segmentCount());
+    }
+
+    @Test
+    @DisplayName("Test recovery stops at a corrupt record of a segment")
+    void testRecoveryStopsAtCorruptRecord() throws IOException {
+        PurchaseJournal journal = new PurchaseJournal(directory, SMALL_SEGMENT);
+        Purchase first = purchase("First purchase");
+        journal.append(first);
+        journal.append(purchase("Second purchase"));
+        journal.append(purchase("Third purchase"));
+        journal.close();
+
+        // Flip a byte of the second record, after the header and payload of the first one
+        int secondPayload = 8 + 30 + "First purchase".length() + 8;
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, secondPayload);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~value.get(0)}), secondPayload);
+        }
+
+        List<Purchase> recovered = new PurchaseJournal(directory, SMALL_SEGMENT).recover();
+        assertEquals(1, recovered.size());
+        assertEquals(first.getId(), recovered.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Test concurrent appends are all durable and recovered once")
+    void testConcurrentAppendsAreRecovered() throws Exception {
+        PurchaseJournal journal = new PurchaseJournal(directory, 64 * 1024);
+        ExecutorService appenders = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 1600; i++) {
+            int index = i;
+            results.add(appenders.submit(() -> journal.append(purchase("Concurrent purchase " + index))));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        appenders.shutdown();
+        journal.close();
+
+        List<Purchase> recovered = new PurchaseJournal(directory, 64 * 1024).recover();
+        assertEquals(1600, recovered.size());
+        assertEquals(1600, new HashSet<>(recovered.stream().map(Purchase::getId).toList()).size());
+    }
+}
@@ -0,0 +1,64 @@
+package com.purchase.units.rateExchange;
+
+import com.purchase.adapter.gateway.repository.rateExchange.RateExchangeIndex;
+import com.purchase.domain.entity.RateExchange;
+import com.purchase.domain.interfaces.dataprovider.rateExchange.RateExchangeDataProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateExchangeIndexTest {
+
+    private static int epochDay(int year, int month, int day) {
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    private static RateExchange rate(String country, LocalDate effectiveDate, LocalDate recordDate, String value) {
+        RateExchange rateExchange = new RateExchange();
+        rateExchange.setCountry(country);
+        rateExchange.setCurrency("Currency");
+        rateExchange.setEffectiveDate(effectiveDate);
+        rateExchange.setRecordDate(recordDate);
+        rateExchange.setExchangeRate(new BigDecimal(value));
+        return rateExchange;
+    }
+
+    private final RateExchangeIndex index = RateExchangeIndex.build(List.of(
+            rate("Brazil", LocalDate.of(2023, 12, 31), LocalDate.of(2023, 12, 31), "4.852"),
+            rate("Brazil", LocalDate.of(2023, 6, 30), LocalDate.of(2023, 6, 30), "4.858"),
+            rate("Brazil", LocalDate.of(2023, 9, 30), LocalDate.of(2023, 9, 30), "4.994"),
+            rate("Brazil", LocalDate.of(2023, 9, 30), LocalDate.of(2023, 10, 15), "5.001"),
+            rate("Canada", LocalDate.of(2023, 12, 31), LocalDate.of(2023, 12, 31), "1.326")
+    ));
+
+    @Test
+    @DisplayName("Test lookup returns the latest rate effective on or before the upper bound")
+    void testLookupReturnsLatestRateOnOrBeforeUpperBound() {
+        assertEquals(4_852_000L, index.findLatestRate("Brazil", epochDay(2023, 7, 1), epochDay(2023, 12, 31)));
+        assertEquals(4_852_000L, index.findLatestRate("Brazil", epochDay(2023, 7, 1), epochDay(2024, 1, 10)));
+        assertEquals(4_858_000L, index.findLatestRate("Brazil", epochDay(2023, 1, 1), epochDay(2023, 7, 1)));
+        assertEquals(1_326_000L, index.findLatestRate("Canada", epochDay(2023, 7, 1), epochDay(2024, 1, 10)));
+    }
+
+    @Test
+    @DisplayName("Test lookup keeps the most recently recorded rate for the same effective date")
+    void testLookupKeepsMostRecentlyRecordedRate() {
+        assertEquals(5_001_000L, index.findLatestRate("Brazil", epochDay(2023, 7, 1), epochDay(2023, 11, 1)));
+    }
+
+    @Test
+    @DisplayName("Test lookup returns no rate outside the window or for unknown countries")
+    void testLookupReturnsNoRateOutsideWindow() {
+        assertEquals(RateExchangeDataProvider.NO_RATE, index.findLatestRate("Brazil", epochDay(2023, 1, 1), epochDay(2023, 6, 29)));
+        assertEquals(RateExchangeDataProvider.NO_RATE, index.findLatestRate("Brazil", epochDay(2024, 1, 1), epochDay(2024, 3, 1)));
+        assertEquals(RateExchangeDataProvider.NO_RATE, index.findLatestRate("Chile", epochDay(2023, 1, 1), epochDay(2024, 1, 1)));
+        assertTrue(index.hasCountry("Canada"));
+        assertFalse(index.hasCountry("Chile"));
+        assertFalse(RateExchangeIndex.EMPTY.hasCountry("Brazil"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.purchase.units.valueobject;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.purchase.domain.valueobject.Money;
+import com.purchase.domain.valueobject.Rate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private static final long MAX_CENTS = 999_999_999_999L; // Largest price of the DECIMAL(12, 2) column
+
+    /**
+     * Converts with the BigDecimal math used before prices and rates were fixed-point.
+     */
+    private static BigDecimal convertWithBigDecimal(BigDecimal price, BigDecimal rate) {
+        return price.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void assertSameConversion(long cents, long scaledRate) {
+        BigDecimal price = BigDecimal.valueOf(cents, Money.SCALE);
+        BigDecimal rate = BigDecimal.valueOf(scaledRate, Rate.SCALE);
+
+        BigDecimal converted = new Money(cents).convert(new Rate(scaledRate)).toBigDecimal();
+
+        // Same value and same scale, so the JSON output is unchanged
+        assertEquals(convertWithBigDecimal(price, rate), converted, () -> price + " x " + rate);
+    }
+
+    @Test
+    @DisplayName("Test the fixed-point conversion matches the BigDecimal conversion for random prices and rates")
+    void testConversionMatchesBigDecimalForRandomInputs() {
+        SplittableRandom random = new SplittableRandom(20240110L);
+        for (int i = 0; i < 200_000; i++) {
+            // Prices over the whole column range, rates from 0.000001 up to a million
+            long cents = random.nextLong(1, MAX_CENTS + 1);
+            long scaledRate = random.nextLong(1, 1_000_000_000_000L);
+            assertSameConversion(cents, scaledRate);
+
+            // Small prices and usual rates, where the rounding digit matters the most
+            assertSameConversion(random.nextLong(1, 100_000), random.nextLong(1, 100_000_000L));
+        }
+    }
+
+    @Test
+    @DisplayName("Test the fixed-point conversion rounds ties HALF_UP and falls back exactly on overflow")
+    void testConversionRoundsTiesAndOverflows() {
+        assertSameConversion(1, 500_000); // 0.01 x 0.5 = 0.005
+        assertSameConversion(1, 499_999);
+        assertSameConversion(3, 1_500_000); // 0.03 x 1.5 = 0.045
+        assertSameConversion(12_345, 5_000_000);
+        assertSameConversion(MAX_CENTS, 999_999_999_999L); // Product overflows a long
+        assertSameConversion(-MAX_CENTS, 42_000_000_000L);
+        assertSameConversion(-1, 500_000);
+
+        assertEquals(new BigDecimal("485.20"), Money.of(new BigDecimal("100")).convert(Rate.of(4.852)).toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Test amounts and rates read and write the same decimals as BigDecimal")
+    void testDecimalRepresentation() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertEquals(123_456L, Money.of(new BigDecimal("1234.56")).cents());
+        assertEquals(1_050L, Money.of(new BigDecimal("10.5")).cents());
+        assertEquals("1234.56", objectMapper.writeValueAsString(new Money(123_456L)));
+        assertEquals("10.00", objectMapper.writeValueAsString(new Money(1_000L)));
+        assertEquals(new Money(1_050L), objectMapper.readValue("10.50", Money.class));
+
+        assertEquals(4_852_000L, Rate.of(4.852).scaled());
+        assertEquals(BigDecimal.valueOf(5.033), Rate.of(5.033).toBigDecimal());
+        assertEquals("4.852", objectMapper.writeValueAsString(Rate.of(new BigDecimal("4.852000"))));
+        assertEquals("10", objectMapper.writeValueAsString(Rate.of(new BigDecimal("10"))));
+    }
+}